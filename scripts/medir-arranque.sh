@@ -0,0 +1,64 @@
+#!/usr/bin/env bash
+# ============================================================
+# Mide el time-to-first-request de la aplicacion
+# ============================================================
+# Compara el arranque normal con el arranque AOT + CDS.
+# Requiere MySQL accesible (ej: docker compose up -d mysql) y las variables
+# SPRING_DATASOURCE_URL / USERNAME / PASSWORD si no son las por defecto.
+#
+# uso: scripts/medir-arranque.sh [repeticiones]
+set -euo pipefail
+
+REPETICIONES=${1:-3}
+PUERTO=8080
+URL="http://localhost:${PUERTO}/api/v1/estadisticas/cache"
+DIR=target/arranque
+
+export SPRING_DATASOURCE_URL=${SPRING_DATASOURCE_URL:-jdbc:mysql://localhost:3306/citas_db?createDatabaseIfNotExist=true&serverTimezone=UTC}
+export SPRING_DATASOURCE_USERNAME=${SPRING_DATASOURCE_USERNAME:-root}
+export SPRING_DATASOURCE_PASSWORD=${SPRING_DATASOURCE_PASSWORD:-123456}
+
+# arranca la aplicacion con los argumentos dados y mide hasta la primera respuesta 200
+medir() {
+  local inicio fin pid
+  inicio=$(date +%s%N)
+  java "$@" > "${DIR}/app.log" 2>&1 &
+  pid=$!
+  until curl -sf -o /dev/null "${URL}"; do
+    if ! kill -0 "${pid}" 2>/dev/null; then
+      echo "La aplicacion termino antes de responder, ver ${DIR}/app.log" >&2
+      exit 1
+    fi
+    sleep 0.05
+  done
+  fin=$(date +%s%N)
+  kill "${pid}" && wait "${pid}" 2>/dev/null || true
+  echo $(( (fin - inicio) / 1000000 ))
+}
+
+# promedio de varias ejecuciones de un modo
+promedio() {
+  local nombre=$1; shift
+  local total=0 ms
+  for _ in $(seq "${REPETICIONES}"); do
+    ms=$(medir "$@")
+    total=$(( total + ms ))
+  done
+  printf "%-22s %6d ms\n" "${nombre}" $(( total / REPETICIONES ))
+}
+
+echo "==> Empaquetando con el perfil aot"
+mvn -q -Paot clean package -DskipTests
+rm -rf "${DIR}" && mkdir -p "${DIR}"
+JAR=$(ls target/*.jar | grep -v plain | head -1)
+
+echo "==> Extrayendo el jar y generando el archivo CDS (ejecucion de entrenamiento)"
+java -Djarmode=tools -jar "${JAR}" extract --destination "${DIR}/application"
+java -XX:ArchiveClassesAtExit="${DIR}/application/app.jsa" -Dspring.context.exit=onRefresh \
+  -Dspring.aot.enabled=true -jar "${DIR}/application/app.jar" > "${DIR}/entrenamiento.log" 2>&1
+
+echo "==> Time-to-first-request (promedio de ${REPETICIONES} arranques)"
+promedio "normal" -jar "${JAR}"
+promedio "AOT" -Dspring.aot.enabled=true -jar "${DIR}/application/app.jar"
+promedio "AOT + CDS" -XX:SharedArchiveFile="${DIR}/application/app.jsa" -Dspring.aot.enabled=true \
+  -jar "${DIR}/application/app.jar"
@@ -0,0 +1,56 @@
+-- ============================================================
+-- Migracion: datos de cliente de citas -> tabla clientes
+-- ============================================================
+-- Para BDs creadas antes de la tabla clientes (citas con nombre_cliente, email y telefono).
+-- Ejecutar una vez, con la aplicacion detenida, ANTES de desplegar la version que usa clientes
+-- (en cada shard si hay sucursales):
+--
+--   mysql -u root -p citas_db < scripts/migracion-clientes.sql
+--
+-- MySQL 8 (ROW_NUMBER). Las sentencias DDL confirman por si mismas: si falla un paso,
+-- corregir la causa y continuar desde ese paso.
+
+-- 1. tabla clientes (misma definicion que genera Hibernate para la entidad Cliente)
+CREATE TABLE IF NOT EXISTS clientes (
+    id         BIGINT       NOT NULL AUTO_INCREMENT,
+    email      VARCHAR(254) NOT NULL,
+    nombre     VARCHAR(100) NOT NULL,
+    telefono   VARCHAR(255) NOT NULL,
+    created_at DATETIME(6)  NOT NULL,
+    updated_at DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_clientes_email UNIQUE (email)
+) ENGINE = InnoDB;
+
+-- 2. un cliente por email normalizado (sin espacios, en minusculas, como Cliente.normalizarEmail)
+--    nombre y telefono de su reserva mas reciente
+INSERT INTO clientes (email, nombre, telefono, created_at, updated_at)
+SELECT email, nombre_cliente, telefono, NOW(6), NOW(6)
+FROM (SELECT LOWER(TRIM(email)) AS email, nombre_cliente, telefono,
+             ROW_NUMBER() OVER (PARTITION BY LOWER(TRIM(email)) ORDER BY fecha DESC, id DESC) AS n
+      FROM citas) ultimas
+WHERE n = 1
+ON DUPLICATE KEY UPDATE nombre = VALUES(nombre), telefono = VALUES(telefono);
+
+-- 3. referencia de cada cita a su cliente; se añade nullable para poder rellenarla
+ALTER TABLE citas ADD COLUMN cliente_id BIGINT NULL;
+
+UPDATE citas c
+    JOIN clientes cl ON cl.email = LOWER(TRIM(c.email))
+SET c.cliente_id = cl.id;
+
+-- 4. comprobacion: debe devolver 0 antes de seguir
+SELECT COUNT(*) AS citas_sin_cliente FROM citas WHERE cliente_id IS NULL;
+
+-- 5. restricciones e indice de la entidad Cita
+ALTER TABLE citas
+    MODIFY cliente_id BIGINT NOT NULL,
+    ADD CONSTRAINT fk_citas_cliente FOREIGN KEY (cliente_id) REFERENCES clientes (id),
+    ADD INDEX idx_citas_cliente (cliente_id);
+
+-- 6. columnas que ya no mapea la aplicacion
+--    (citas_historico conserva su copia plana: no se toca)
+ALTER TABLE citas
+    DROP COLUMN nombre_cliente,
+    DROP COLUMN email,
+    DROP COLUMN telefono;
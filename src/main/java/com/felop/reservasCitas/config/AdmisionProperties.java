@@ -0,0 +1,35 @@
+package com.felop.reservasCitas.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.Map;
+
+/*Configuracion del control de admision de escrituras (prefijo reservas.admision)
+ *
+ * cada cliente (API key, email o IP) tiene su propio token bucket
+ * los limites dependen del nivel asignado:
+ * - los clientes con API key registrada en api-keys usan el nivel indicado
+ * - el resto usa el nivel por defecto*/
+@ConfigurationProperties(prefix = "reservas.admision")
+public record AdmisionProperties(
+
+        //permite desactivar el control de admision (ej: pruebas de carga)
+        @DefaultValue("true") boolean habilitada,
+
+        //nivel asignado a clientes sin API key registrada
+        @DefaultValue("estandar") String nivelPorDefecto,
+
+        //limites por nivel: nombre -> capacidad y recarga
+        @DefaultValue Map<String, Nivel> niveles,
+
+        //API keys de integraciones: api key -> nombre del nivel
+        @DefaultValue Map<String, String> apiKeys
+) {
+
+    /*limites de un nivel
+     * capacidad: peticiones permitidas en rafaga
+     * tokensPorSegundo: ritmo sostenido de peticiones*/
+    public record Nivel(long capacidad, double tokensPorSegundo) {
+    }
+}
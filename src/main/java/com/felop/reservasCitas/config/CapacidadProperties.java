@@ -0,0 +1,32 @@
+package com.felop.reservasCitas.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalTime;
+import java.util.List;
+
+/*Configuracion de la capacidad de atencion (prefijo reservas.capacidad)
+ *
+ * plazas: citas que pueden coincidir en un mismo minuto (ej: sillas o puestos iguales)
+ * ventanas: franjas con otra capacidad (ej: mas personal por la tarde);
+ * si varias se cruzan, manda la ultima de la lista
+ *
+ * con 1 plaza (valor por defecto) cualquier cruce de horarios es un conflicto*/
+@ConfigurationProperties(prefix = "reservas.capacidad")
+public record CapacidadProperties(
+
+        //plazas fuera de las ventanas
+        @DefaultValue("1") int plazas,
+
+        //franjas con capacidad propia
+        @DefaultValue List<Ventana> ventanas
+) {
+
+    //plazas en [desde, hasta)
+    public record Ventana(@DateTimeFormat(pattern = "HH:mm") LocalTime desde,
+                          @DateTimeFormat(pattern = "HH:mm") LocalTime hasta,
+                          int plazas) {
+    }
+}
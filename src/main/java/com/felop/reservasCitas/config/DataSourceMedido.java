@@ -0,0 +1,135 @@
+package com.felop.reservasCitas.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+
+/*DataSource que mide cada sentencia ejecutada por las conexiones que entrega
+ *
+ * conexiones y sentencias se envuelven con proxies dinamicos (sin dependencias externas):
+ * - prepareStatement/prepareCall/createStatement devuelven una sentencia medida
+ * - los setX(indice, valor) anotan el tipo de cada parametro (nunca el valor): la forma de la sentencia
+ * - cada execute* se cronometra, se suma a la medicion del hilo (MedicionSql) y se notifica al observador
+ *
+ * un batch cuenta como una sentencia*/
+public class DataSourceMedido extends DelegatingDataSource {
+
+    //recibe cada sentencia ejecutada, en el hilo que la ejecuta
+    @FunctionalInterface
+    public interface Observador {
+        void sentenciaEjecutada(String sql, String parametros, long nanos, String origen);
+    }
+
+    private final Observador observador;
+
+    public DataSourceMedido(DataSource target, Observador observador) {
+        super(target);
+        this.observador = observador;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return medir(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return medir(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    private Connection medir(Connection conexion) {
+        return proxy(Connection.class, conexion, (proxy, metodo, args) -> {
+            Object resultado = invocar(conexion, metodo, args);
+            return switch (metodo.getName()) {
+                case "prepareStatement", "prepareCall" ->
+                        proxy(metodo.getReturnType(), resultado, new SentenciaMedida((Statement) resultado, (String) args[0]));
+                case "createStatement" -> proxy(Statement.class, resultado, new SentenciaMedida((Statement) resultado, null));
+                default -> resultado;
+            };
+        });
+    }
+
+    private void registrar(String sql, String parametros, long nanos) {
+        MedicionSql.Medicion medicion = MedicionSql.actual();
+        if (medicion != null) {
+            medicion.registrar(nanos);
+        }
+        observador.sentenciaEjecutada(sql, parametros, nanos, medicion != null ? medicion.getOrigen() : null);
+    }
+
+    //sentencia envuelta: la usa un solo hilo a la vez (la sesion de Hibernate que la preparo)
+    private final class SentenciaMedida implements InvocationHandler {
+
+        private final Statement sentencia;
+        private final String sql;
+
+        //indice -> tipo del parametro enlazado
+        private final Map<Integer, String> parametros = new TreeMap<>();
+
+        private SentenciaMedida(Statement sentencia, String sql) {
+            this.sentencia = sentencia;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method metodo, Object[] args) throws Throwable {
+            String nombre = metodo.getName();
+            if (nombre.startsWith("execute")) {
+                //Statement.execute(sql) / addBatch(sql) traen el SQL como argumento
+                String texto = args != null && args.length > 0 && args[0] instanceof String s ? s : sql;
+                long inicio = System.nanoTime();
+                try {
+                    return invocar(sentencia, metodo, args);
+                } finally {
+                    registrar(texto, forma(), System.nanoTime() - inicio);
+                }
+            }
+            if (nombre.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer indice) {
+                parametros.put(indice, nombre.equals("setNull") || args[1] == null
+                        ? "null" : args[1].getClass().getSimpleName());
+            } else if (nombre.equals("clearParameters")) {
+                parametros.clear();
+            }
+            return invocar(sentencia, metodo, args);
+        }
+
+        //ej: (LocalDate, String, null)
+        private String forma() {
+            StringJoiner forma = new StringJoiner(", ", "(", ")");
+            parametros.values().forEach(forma::add);
+            return forma.toString();
+        }
+    }
+
+    // ==== proxies ====
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> tipo, Object destino, InvocationHandler handler) {
+        //equals/hashCode por identidad del proxy: Hibernate guarda las sentencias en mapas
+        return (T) Proxy.newProxyInstance(DataSourceMedido.class.getClassLoader(), new Class<?>[]{tipo},
+                (proxy, metodo, args) -> switch (metodo.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "toString" -> destino.toString();
+                    default -> handler.invoke(proxy, metodo, args);
+                });
+    }
+
+    private static Object invocar(Object destino, Method metodo, Object[] args) throws Throwable {
+        try {
+            return metodo.invoke(destino, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getCause();
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.felop.reservasCitas.config;
+
+import com.felop.reservasCitas.dto.SerializadoresJson;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import tools.jackson.databind.JacksonModule;
+
+//Configuracion de JSON: Spring Boot registra los modulos declarados como bean en el JsonMapper
+//(respuestas de los controllers y eventos del outbox)
+@Configuration
+public class JsonConfig {
+
+    @Bean
+    public JacksonModule serializadoresDto() {
+        return SerializadoresJson.modulo();
+    }
+}
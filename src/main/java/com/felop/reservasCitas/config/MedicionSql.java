@@ -0,0 +1,78 @@
+package com.felop.reservasCitas.config;
+
+/*Sentencias SQL de la peticion o tarea en curso (hilo actual)
+ *
+ * la inicia MedicionSqlInterceptor al recibir cada peticion y la alimenta DataSourceMedido
+ * con cada sentencia ejecutada en el hilo; fuera de una medicion las sentencias solo cuentan
+ * para las estadisticas globales (sentencias lentas)
+ *
+ * medir() permite contar las sentencias de cualquier accion (ej: pruebas de un metodo de servicio)*/
+public final class MedicionSql {
+
+    private static final ThreadLocal<Medicion> ACTUAL = new ThreadLocal<>();
+
+    private MedicionSql() {
+    }
+
+    //medicion del hilo actual, null si no hay ninguna en curso
+    public static Medicion actual() {
+        return ACTUAL.get();
+    }
+
+    static void iniciar(String origen) {
+        ACTUAL.set(new Medicion(origen));
+    }
+
+    static Medicion terminar() {
+        Medicion medicion = ACTUAL.get();
+        ACTUAL.remove();
+        return medicion;
+    }
+
+    //ejecuta la accion con una medicion propia y restaura la anterior
+    public static Medicion medir(String origen, Runnable accion) {
+        Medicion anterior = ACTUAL.get();
+        Medicion medicion = new Medicion(origen);
+        ACTUAL.set(medicion);
+        try {
+            accion.run();
+            return medicion;
+        } finally {
+            if (anterior != null) {
+                ACTUAL.set(anterior);
+            } else {
+                ACTUAL.remove();
+            }
+        }
+    }
+
+    //sentencias y tiempo JDBC acumulados; solo la modifica el hilo que la creo
+    public static final class Medicion {
+
+        private final String origen;
+        private int sentencias;
+        private long nanos;
+
+        private Medicion(String origen) {
+            this.origen = origen;
+        }
+
+        void registrar(long nanosSentencia) {
+            sentencias++;
+            nanos += nanosSentencia;
+        }
+
+        //endpoint u operacion medida
+        public String getOrigen() {
+            return origen;
+        }
+
+        public int getSentencias() {
+            return sentencias;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.felop.reservasCitas.config;
+
+import com.felop.reservasCitas.service.EstadisticasSqlService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/*Mide las sentencias SQL de cada peticion
+ *
+ * el endpoint se identifica por metodo y patron de la ruta (GET /api/v1/citas/{id}),
+ * no por la URI: todas las citas suman en la misma fila
+ * afterCompletion tambien corre si la peticion termino con excepcion
+ * con reservas.sql.medicion-habilitada=false no inicia mediciones (se lee en ejecucion, ver AOT)*/
+@Component
+public class MedicionSqlInterceptor implements HandlerInterceptor {
+
+    private final EstadisticasSqlService estadisticasSqlService;
+    private final boolean habilitada;
+
+    public MedicionSqlInterceptor(EstadisticasSqlService estadisticasSqlService,
+                                  @Value("${reservas.sql.medicion-habilitada:true}") boolean habilitada) {
+        this.estadisticasSqlService = estadisticasSqlService;
+        this.habilitada = habilitada;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!habilitada) {
+            return true;
+        }
+        Object patron = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        MedicionSql.iniciar(request.getMethod() + " " + (patron != null ? patron : request.getRequestURI()));
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        MedicionSql.Medicion medicion = MedicionSql.terminar();
+        if (medicion != null) {
+            estadisticasSqlService.registrarPeticion(medicion);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.felop.reservasCitas.config;
+
+import com.felop.reservasCitas.service.EstadisticasSqlService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/*Envuelve los DataSource de la aplicacion con DataSourceMedido
+ *
+ * funciona igual con spring.datasource que con el DataSource enrutado por sucursal
+ * (quien necesite el original lo obtiene con unwrap())
+ * el servicio de estadisticas se resuelve en la primera sentencia: un BeanPostProcessor
+ * no debe forzar la creacion temprana de otros beans
+ *
+ * el interruptor se lee en ejecucion (no con @ConditionalOnProperty): con AOT la condicion
+ * quedaria fijada en el build*/
+@Component
+public class MedicionSqlPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<EstadisticasSqlService> estadisticasSqlService;
+    private final boolean habilitada;
+
+    public MedicionSqlPostProcessor(ObjectProvider<EstadisticasSqlService> estadisticasSqlService,
+                                    @Value("${reservas.sql.medicion-habilitada:true}") boolean habilitada) {
+        this.estadisticasSqlService = estadisticasSqlService;
+        this.habilitada = habilitada;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (habilitada && bean instanceof DataSource dataSource && !(bean instanceof DataSourceMedido)) {
+            return new DataSourceMedido(dataSource, (sql, parametros, nanos, origen) ->
+                    estadisticasSqlService.getObject().registrarSentencia(sql, parametros, nanos, origen));
+        }
+        return bean;
+    }
+}
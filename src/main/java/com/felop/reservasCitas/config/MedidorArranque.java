@@ -0,0 +1,48 @@
+package com.felop.reservasCitas.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/*Mide el tiempo de arranque desde el inicio de la JVM:
+ * - hasta que la aplicacion esta lista (ApplicationReadyEvent)
+ * - hasta que se responde la primera peticion (time-to-first-request)
+ *
+ * sirve para comparar el arranque normal con AOT + CDS (scripts/medir-arranque.sh)*/
+@Slf4j
+@Component
+public class MedidorArranque extends OncePerRequestFilter {
+
+    private final AtomicBoolean primeraPeticion = new AtomicBoolean(true);
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        log.info("Aplicacion lista a los {} ms desde el inicio de la JVM", uptime());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        chain.doFilter(request, response);
+
+        //solo la primera peticion paga el compareAndSet exitoso
+        if (primeraPeticion.get() && primeraPeticion.compareAndSet(true, false)) {
+            log.info("Primera peticion ({} {}) respondida a los {} ms desde el inicio de la JVM",
+                    request.getMethod(), request.getRequestURI(), uptime());
+        }
+    }
+
+    private long uptime() {
+        return ManagementFactory.getRuntimeMXBean().getUptime();
+    }
+}
@@ -0,0 +1,102 @@
+package com.felop.reservasCitas.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.hibernate.autoconfigure.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*Enrutado de datos por sucursal (reservas.sucursales.habilitado=true)
+ *
+ * - un pool Hikari por shard, detras de un unico DataSource que enruta por la sucursal actual
+ *   (repositorios y servicios no cambian: solo ven un DataSource)
+ * - la sesion de Hibernate lleva la sucursal como tenant para separar la cache de segundo nivel
+ * - ddl-auto se aplica al shard por defecto; los shards sin tablas reciben el esquema al arrancar*/
+@Slf4j
+@Configuration
+@ConditionalOnProperty(prefix = "reservas.sucursales", name = "habilitado", havingValue = "true")
+public class ShardingConfig {
+
+    @Bean
+    @Primary
+    public DataSource dataSource(SucursalProperties properties, Sucursales sucursales) {
+        Map<Object, Object> shards = new LinkedHashMap<>();
+        properties.shards().forEach((nombre, shard) -> shards.put(nombre, crearPool(nombre, shard)));
+
+        SucursalRoutingDataSource routing = new SucursalRoutingDataSource();
+        routing.setTargetDataSources(shards);
+        routing.setDefaultTargetDataSource(shards.get(sucursales.getPorDefecto()));
+        //una sucursal sin shard es un error, nunca se cae al shard por defecto
+        routing.setLenientFallback(false);
+        return routing;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer tenantPorSucursal(Sucursales sucursales) {
+        return props -> props.put(AvailableSettings.MULTI_TENANT_IDENTIFIER_RESOLVER,
+                new SucursalTenantResolver(sucursales));
+    }
+
+    //crea las tablas en los shards que todavia no las tienen, antes de los listeners de arranque
+    @Bean
+    public SmartInitializingSingleton esquemaShards(EntityManagerFactory entityManagerFactory,
+                                                     DataSource dataSource, Sucursales sucursales) {
+        return () -> {
+            //el DataSource puede llegar envuelto (DataSourceMedido)
+            SucursalRoutingDataSource routing;
+            try {
+                routing = dataSource.unwrap(SucursalRoutingDataSource.class);
+            } catch (SQLException ex) {
+                throw new IllegalStateException("El DataSource principal no enruta por sucursal", ex);
+            }
+            for (String sucursal : sucursales.nombres()) {
+                if (sucursal.equals(sucursales.getPorDefecto())
+                        || tieneEsquema(routing.getResolvedDataSources().get(sucursal))) {
+                    continue;
+                }
+                SucursalContext.ejecutar(sucursal, () -> entityManagerFactory.unwrap(SessionFactory.class)
+                        .getSchemaManager()
+                        .exportMappedObjects(false));
+                log.info("Esquema creado en el shard de la sucursal {}", sucursal);
+            }
+        };
+    }
+
+    private static HikariDataSource crearPool(String nombre, SucursalProperties.Shard shard) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("shard-" + nombre);
+        config.setJdbcUrl(shard.url());
+        config.setUsername(shard.username());
+        config.setPassword(shard.password());
+        config.setMaximumPoolSize(shard.maxConexiones());
+        return new HikariDataSource(config);
+    }
+
+    private static boolean tieneEsquema(DataSource shard) {
+        try (Connection c = shard.getConnection();
+             ResultSet tablas = c.getMetaData().getTables(c.getCatalog(), null, "%", new String[]{"TABLE"})) {
+            while (tablas.next()) {
+                if (tablas.getString("TABLE_NAME").equalsIgnoreCase("citas")) {
+                    return true;
+                }
+            }
+            return false;
+        } catch (SQLException ex) {
+            throw new IllegalStateException("No se pudo inspeccionar el shard", ex);
+        }
+    }
+}
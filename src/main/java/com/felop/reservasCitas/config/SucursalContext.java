@@ -0,0 +1,61 @@
+package com.felop.reservasCitas.config;
+
+import java.util.function.Supplier;
+
+/*Sucursal de la peticion o tarea en curso (hilo actual)
+ *
+ * la fija SucursalInterceptor con el header X-Sucursal y la leen:
+ * - SucursalRoutingDataSource para elegir el shard al pedir una conexion
+ * - SucursalTenantResolver para separar la cache de segundo nivel por sucursal
+ * - las caches en memoria (via Sucursales.actual())
+ *
+ * las tareas en segundo plano (jobs, hilos virtuales) no heredan la sucursal:
+ * se ejecutan con ejecutar() o se envuelven con propagar()*/
+public final class SucursalContext {
+
+    private static final ThreadLocal<String> ACTUAL = new ThreadLocal<>();
+
+    private SucursalContext() {
+    }
+
+    //sucursal del hilo actual, null si no se fijo ninguna (se usa la sucursal por defecto)
+    public static String actual() {
+        return ACTUAL.get();
+    }
+
+    static void establecer(String sucursal) {
+        ACTUAL.set(sucursal);
+    }
+
+    static void limpiar() {
+        ACTUAL.remove();
+    }
+
+    //ejecuta la accion en la sucursal indicada y restaura la anterior
+    public static <T> T ejecutar(String sucursal, Supplier<T> accion) {
+        String anterior = ACTUAL.get();
+        ACTUAL.set(sucursal);
+        try {
+            return accion.get();
+        } finally {
+            if (anterior != null) {
+                ACTUAL.set(anterior);
+            } else {
+                ACTUAL.remove();
+            }
+        }
+    }
+
+    public static void ejecutar(String sucursal, Runnable accion) {
+        ejecutar(sucursal, () -> {
+            accion.run();
+            return null;
+        });
+    }
+
+    //tarea para otro hilo que se ejecuta en la sucursal del hilo que la crea
+    public static Runnable propagar(Runnable tarea) {
+        String sucursal = ACTUAL.get();
+        return () -> ejecutar(sucursal, tarea);
+    }
+}
@@ -0,0 +1,43 @@
+package com.felop.reservasCitas.config;
+
+import com.felop.reservasCitas.exceptions.UnknownBranchException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/*Fija la sucursal de cada peticion a partir del header X-Sucursal
+ *
+ * sin header se usa la sucursal por defecto
+ * una sucursal desconocida se rechaza antes de llegar al controller (400, GlobalExceptionHandler)
+ * al terminar la peticion se limpia: los hilos del servidor se reutilizan*/
+@Component
+@RequiredArgsConstructor
+public class SucursalInterceptor implements HandlerInterceptor {
+
+    public static final String HEADER = "X-Sucursal";
+
+    private final Sucursales sucursales;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String sucursal = request.getHeader(HEADER);
+        if (sucursal == null || sucursal.isBlank()) {
+            SucursalContext.limpiar();
+            return true;
+        }
+        if (!sucursales.existe(sucursal)) {
+            throw new UnknownBranchException("Sucursal desconocida: " + sucursal
+                    + ". Sucursales validas: " + String.join(",", sucursales.nombres()));
+        }
+        SucursalContext.establecer(sucursal);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        SucursalContext.limpiar();
+    }
+}
@@ -0,0 +1,31 @@
+package com.felop.reservasCitas.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.Map;
+
+/*Configuracion de sucursales y shards (prefijo reservas.sucursales)
+ *
+ * deshabilitado: una sola BD (spring.datasource.*) y una unica sucursal por defecto
+ * habilitado: cada sucursal tiene su propia BD y su propio pool de conexiones;
+ * las peticiones eligen la sucursal con el header X-Sucursal (sin header: la sucursal por defecto)*/
+@ConfigurationProperties(prefix = "reservas.sucursales")
+public record SucursalProperties(
+
+        //activa el enrutado por sucursal
+        @DefaultValue("false") boolean habilitado,
+
+        //sucursal de las peticiones sin header (y la que recibe el esquema de ddl-auto)
+        @DefaultValue("principal") String porDefecto,
+
+        //BD de cada sucursal: nombre -> conexion
+        @DefaultValue Map<String, Shard> shards
+) {
+
+    /*conexion a la BD de una sucursal
+     * maxConexiones: tamano del pool propio del shard*/
+    public record Shard(String url, String username, String password,
+                       @DefaultValue("10") int maxConexiones) {
+    }
+}
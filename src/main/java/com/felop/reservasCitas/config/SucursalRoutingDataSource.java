@@ -0,0 +1,29 @@
+package com.felop.reservasCitas.config;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+
+/*DataSource que entrega conexiones del shard de la sucursal actual
+ *
+ * la clave se resuelve al pedir la conexion (al empezar la transaccion):
+ * una transaccion nunca mezcla sucursales
+ * sin sucursal en el hilo se usa el shard por defecto*/
+public class SucursalRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return SucursalContext.actual();
+    }
+
+    //cierra el pool de cada shard
+    @Override
+    public void destroy() throws Exception {
+        for (DataSource shard : getResolvedDataSources().values()) {
+            if (shard instanceof AutoCloseable pool) {
+                pool.close();
+            }
+        }
+    }
+}
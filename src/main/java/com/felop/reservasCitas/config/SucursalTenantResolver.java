@@ -0,0 +1,27 @@
+package com.felop.reservasCitas.config;
+
+import org.hibernate.context.spi.CurrentTenantIdentifierResolver;
+
+/*Identifica la sesion de Hibernate con la sucursal actual
+ *
+ * los ids de cada shard son independientes (la cita 1 existe en varias sucursales):
+ * con el tenant en las claves de la cache de segundo nivel (entidades y consultas)
+ * cada sucursal solo ve sus propias entradas*/
+public class SucursalTenantResolver implements CurrentTenantIdentifierResolver<String> {
+
+    private final Sucursales sucursales;
+
+    public SucursalTenantResolver(Sucursales sucursales) {
+        this.sucursales = sucursales;
+    }
+
+    @Override
+    public String resolveCurrentTenantIdentifier() {
+        return sucursales.actual();
+    }
+
+    @Override
+    public boolean validateExistingCurrentSessions() {
+        return false;
+    }
+}
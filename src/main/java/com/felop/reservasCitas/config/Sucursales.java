@@ -0,0 +1,73 @@
+package com.felop.reservasCitas.config;
+
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/*Sucursales configuradas y sucursal actual
+ *
+ * sin sharding hay una unica sucursal (la por defecto), asi el resto del codigo
+ * no distingue entre ambos modos: las caches en memoria se separan por actual()
+ * y los jobs recorren nombres() con enCada()*/
+@Component
+public class Sucursales {
+
+    private final boolean habilitado;
+    private final String porDefecto;
+    private final List<String> nombres;
+
+    public Sucursales(SucursalProperties properties, ListableBeanFactory beanFactory) {
+        this.habilitado = properties.habilitado();
+        //con AOT la condicion de ShardingConfig se fijo en el build: si el valor en ejecucion
+        //no coincide se arrancaria sin enrutado (o con enrutado sin shards), mejor no arrancar
+        boolean enrutado = beanFactory.getBeanNamesForType(ShardingConfig.class, false, false).length > 0;
+        if (habilitado != enrutado) {
+            throw new IllegalStateException("reservas.sucursales.habilitado=" + habilitado
+                    + " no coincide con el valor usado al construir con -Paot: reconstruir la imagen");
+        }
+        this.porDefecto = properties.porDefecto();
+        this.nombres = habilitado ? List.copyOf(properties.shards().keySet()) : List.of(porDefecto);
+        if (habilitado && !nombres.contains(porDefecto)) {
+            throw new IllegalStateException(
+                    "La sucursal por defecto '" + porDefecto + "' no tiene shard configurado");
+        }
+    }
+
+    public boolean isHabilitado() {
+        return habilitado;
+    }
+
+    public String getPorDefecto() {
+        return porDefecto;
+    }
+
+    public List<String> nombres() {
+        return nombres;
+    }
+
+    public boolean existe(String sucursal) {
+        return nombres.contains(sucursal);
+    }
+
+    //sucursal del hilo actual o la por defecto
+    public String actual() {
+        String sucursal = SucursalContext.actual();
+        return sucursal != null ? sucursal : porDefecto;
+    }
+
+    //ejecuta la accion una vez por sucursal (jobs programados, cargas al arrancar)
+    public void enCada(Runnable accion) {
+        nombres.forEach(s -> SucursalContext.ejecutar(s, accion));
+    }
+
+    //ejecuta la accion en cada sucursal y suma los resultados
+    public int sumarEnCada(ToIntFunction<String> accion) {
+        int total = 0;
+        for (String s : nombres) {
+            total += SucursalContext.ejecutar(s, () -> accion.applyAsInt(s));
+        }
+        return total;
+    }
+}
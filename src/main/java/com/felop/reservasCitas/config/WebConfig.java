@@ -0,0 +1,24 @@
+package com.felop.reservasCitas.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+//Configuracion de Spring MVC: interceptores aplicados a todas las peticiones
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+
+    private final SucursalInterceptor sucursalInterceptor;
+
+    private final MedicionSqlInterceptor medicionSqlInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        //antes que open-in-view: la sesion de Hibernate se abre ya con la sucursal de la peticion
+        registry.addInterceptor(sucursalInterceptor).order(Ordered.HIGHEST_PRECEDENCE);
+        registry.addInterceptor(medicionSqlInterceptor).order(Ordered.HIGHEST_PRECEDENCE + 1);
+    }
+}
@@ -1,19 +1,37 @@
 package com.felop.reservasCitas.controller;
 
+import com.felop.reservasCitas.dto.BloqueoRequestDTO;
+import com.felop.reservasCitas.dto.BloqueoResponseDTO;
 import com.felop.reservasCitas.dto.CitaConfirmacionDTO;
 import com.felop.reservasCitas.dto.CitaRequestDTO;
 import com.felop.reservasCitas.dto.CitaResponseDTO;
 import com.felop.reservasCitas.dto.DisponibilidadCitaDTO;
+import com.felop.reservasCitas.dto.DisponibilidadDuracionDTO;
+import com.felop.reservasCitas.dto.FiltroCitasDTO;
+import com.felop.reservasCitas.dto.OcupacionMesDTO;
+import com.felop.reservasCitas.dto.PaginaCitasDTO;
+import com.felop.reservasCitas.dto.ResultadoBusquedaDTO;
+import com.felop.reservasCitas.dto.SerieCitaRequestDTO;
+import com.felop.reservasCitas.dto.SerieCitaResponseDTO;
+import com.felop.reservasCitas.exceptions.PreconditionFailedException;
+import com.felop.reservasCitas.exceptions.PreconditionRequiredException;
 import com.felop.reservasCitas.model.EstadoCita;
+import com.felop.reservasCitas.service.AdmisionService;
+import com.felop.reservasCitas.service.BusquedaService;
+import com.felop.reservasCitas.service.CalendarioService;
 import com.felop.reservasCitas.service.CitaService;
+import com.felop.reservasCitas.service.IdempotenciaService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
 
 @RestController
@@ -25,6 +43,27 @@ public class CitaController {
      * final garantiza inmutabilidad y RequiredArgsConstructor genera el contructor*/
     private final CitaService citaService;
 
+    //evita repetir operaciones de escritura cuando el cliente reintenta con el mismo Idempotency-Key
+    private final IdempotenciaService idempotenciaService;
+
+    //busqueda por prefijo sobre un indice en memoria
+    private final BusquedaService busquedaService;
+
+    //ocupacion mensual para el calendario (cacheada por mes)
+    private final CalendarioService calendarioService;
+
+    //limita las escrituras por cliente (token bucket) antes de llegar al service
+    private final AdmisionService admisionService;
+
+    //peticion actual (proxy de Spring), usada para identificar al cliente
+    private final HttpServletRequest request;
+
+    //header opcional enviado por los clientes que reintentan peticiones
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
+    //header opcional con la API key de integraciones
+    private static final String API_KEY = "X-API-Key";
+
     // ====== operaciones crud ======
 
     /*Crear una nueva cita
@@ -32,23 +71,63 @@ public class CitaController {
      * @Valid activa las validaciones del bean validation del DTO
      *
      * si las validaciones fallan se lanza un MethodArgumentNotValidException
-     * que es capturado y manejado por el GlobalExceptionHandler */
+     * que es capturado y manejado por el GlobalExceptionHandler
+     *
+     * si se envia Idempotency-Key, un reintento con la misma clave devuelve
+     * la cita ya creada sin volver a validar ni insertar */
     @PostMapping
-    public ResponseEntity<CitaConfirmacionDTO> createCita(@Valid @RequestBody CitaRequestDTO dto) {
+    public ResponseEntity<CitaConfirmacionDTO> createCita(
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+            @Valid @RequestBody CitaRequestDTO dto) {
+
+        //control de admision por API key o IP del cliente
+        String llamante = admitir();
+
+        return idempotenciaService.ejecutar(llamante, idempotencyKey, "createCita", dto, () -> {
+            CitaConfirmacionDTO created = citaService.createCita(dto);
+
+            //201 created: rrecurso creado exitosamente
+            return ResponseEntity.status(HttpStatus.CREATED).body(created);
+        });
+    }
+
+    /*Crea una serie de citas recurrentes
+     * POST /api/v1/citas/series
+     *
+     * repite el horario de la cita base cada semana o cada dos semanas
+     * hasta fechaFin o hasta completar las repeticiones (maximo 52)
+     *
+     * 201 created: con las citas creadas y las ocurrencias que no se pudieron reservar
+     * 409 conflict: no se creo ninguna cita (todas ocupadas o todasONinguna con conflictos) */
+    @PostMapping("/series")
+    public ResponseEntity<SerieCitaResponseDTO> createSerie(
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+            @Valid @RequestBody SerieCitaRequestDTO dto) {
 
-        CitaConfirmacionDTO created = citaService.createCita(dto);
+        //una sola admision para toda la serie
+        String llamante = admitir();
 
-        //201 created: rrecurso creado exitosamente
-        return ResponseEntity.status(HttpStatus.CREATED).body(created);
+        return idempotenciaService.ejecutar(llamante, idempotencyKey, "createSerie", dto, () -> {
+            SerieCitaResponseDTO serie = citaService.createSerie(dto);
+            HttpStatus status = serie.getCreadas().isEmpty() ? HttpStatus.CONFLICT : HttpStatus.CREATED;
+            return ResponseEntity.status(status).body(serie);
+        });
     }
 
     /*Obtiene todas la citas del sistema
      *
      * GET /api/v1/citas
      *
-     * 200 ok: con lista de citas (vacia si no existe ninguna)*/
+     * 200 ok: con lista de citas (vacia si no existe ninguna)
+     *
+     * fields (opcional) en este y el resto de listados: solo los campos indicados,
+     * ej: ?fields=id,fecha,horaInicio,horaFin,estado (la consulta lee solo esas columnas)
+     * 400 si algun campo no existe*/
     @GetMapping
-    public ResponseEntity<List<CitaResponseDTO>> getAllCitas() {
+    public ResponseEntity<List<?>> getAllCitas(@RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return ResponseEntity.ok(citaService.getAllCitas(fields));
+        }
 
         List<CitaResponseDTO> citas = citaService.getAllCitas();
 
@@ -61,11 +140,14 @@ public class CitaController {
      *
      * @PathVariable extrae el id de la url
      *
-     * AppointmentNotFoundException si no existe (manejada por GlobalExceptionHandler)*/
+     * AppointmentNotFoundException si no existe (manejada por GlobalExceptionHandler)
+     *
+     * incluye la version de la cita en el header ETag (necesario para el If-Match del PUT);
+     * con If-None-Match igual al ETag Spring responde 304 Not Modified sin cuerpo*/
     @GetMapping("/{id}")
     public ResponseEntity<CitaResponseDTO> getCitaById(@PathVariable Long id) {
         CitaResponseDTO cita = citaService.getCitaById(id);
-        return ResponseEntity.ok(cita);
+        return conETag(cita);
     }
 
     /*Actualiza una cita existente
@@ -77,11 +159,21 @@ public class CitaController {
      * tienen endpoints diferentes
      *
      * si las validaciones fallan se lanza un MethodArgumentNotValidException
-     * que es capturado y manejado por el GlobalExceptionHandler*/
+     * que es capturado y manejado por el GlobalExceptionHandler
+     *
+     * exige If-Match con el ETag obtenido al leer la cita (o * para cualquier version):
+     * 428 Precondition Required si falta el header
+     * 412 Precondition Failed si otro cliente la modifico entretanto (se pierde la escritura, no la del otro)
+     * 200 OK con la cita actualizada y su nuevo ETag*/
     @PutMapping("/{id}")
-    public ResponseEntity<CitaResponseDTO> updateCita(@PathVariable Long id, @Valid @RequestBody CitaRequestDTO dto) {
-        CitaResponseDTO updated = citaService.updateCita(id, dto);
-        return ResponseEntity.ok(updated);
+    public ResponseEntity<CitaResponseDTO> updateCita(
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @PathVariable Long id,
+            @Valid @RequestBody CitaRequestDTO dto) {
+        Long versionEsperada = versionEsperada(ifMatch);
+        admitir();
+        CitaResponseDTO updated = citaService.updateCita(id, dto, versionEsperada);
+        return conETag(updated);
     }
 
     /*Elimina una cita
@@ -91,6 +183,7 @@ public class CitaController {
      * 204 No Content (eliminación exitosa sin cuerpo de respuesta)*/
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteCita(@PathVariable Long id) {
+        admitir();
         citaService.deleteCita(id);
 
         return ResponseEntity.noContent().build();
@@ -118,7 +211,11 @@ public class CitaController {
      *
      * 200 OK con lista de citas del cliente*/
     @GetMapping("/cliente/email/{email}")
-    public ResponseEntity<List<CitaResponseDTO>> getCitasByEmail(@PathVariable String email) {
+    public ResponseEntity<List<?>> getCitasByEmail(@PathVariable String email,
+                                                   @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return ResponseEntity.ok(citaService.getCitasByEmail(email, fields));
+        }
         List<CitaResponseDTO> citas = citaService.getCitasByEmail(email);
         return ResponseEntity.ok(citas);
     }
@@ -132,7 +229,11 @@ public class CitaController {
      *
      * 200 OK con lista de citas con ese estado*/
     @GetMapping("/estado/{estado}")
-    public ResponseEntity<List<CitaResponseDTO>> getCitasByEstado(@PathVariable EstadoCita estado) {
+    public ResponseEntity<List<?>> getCitasByEstado(@PathVariable EstadoCita estado,
+                                                    @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return ResponseEntity.ok(citaService.getCitasByEstado(estado, fields));
+        }
         List<CitaResponseDTO> citas = citaService.getCitasByEstado(estado);
         return ResponseEntity.ok(citas);
     }
@@ -146,11 +247,49 @@ public class CitaController {
      *
      * 200 OK con lista de citas de ese día*/
     @GetMapping("/fecha/{fecha}")
-    public ResponseEntity<List<CitaResponseDTO>> getCitasByFecha(@PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fecha) {
+    public ResponseEntity<List<?>> getCitasByFecha(@PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fecha,
+                                                   @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return ResponseEntity.ok(citaService.getCitasByFecha(fecha, fields));
+        }
         List<CitaResponseDTO> citas = citaService.getCitasByFecha(fecha);
         return ResponseEntity.ok(citas);
     }
 
+    /*Filtra citas combinando varios criterios en una sola consulta
+     *
+     * GET /api/v1/citas/filtro?desde=2025-06-01&hasta=2025-06-30&estados=CONFIRMADA&servicio=Consulta
+     *
+     * todos los filtros son opcionales: desde, hasta, estados (lista), servicio, email, precioMin, precioMax
+     * resultados ordenados por fecha y hora de inicio; para la pagina siguiente
+     * se envia en despues el cursor recibido en siguiente
+     *
+     * 200 OK con la pagina de citas
+     * 400 si un rango no es valido (desde > hasta, precioMin > precioMax) o el cursor esta alterado*/
+    @GetMapping("/filtro")
+    public ResponseEntity<PaginaCitasDTO> getCitasFiltradas(
+            @Valid @ModelAttribute FiltroCitasDTO filtro,
+            @RequestParam(required = false) String despues,
+            @RequestParam(defaultValue = "20") int tamano) {
+        return ResponseEntity.ok(citaService.getCitasFiltradas(filtro, despues, tamano));
+    }
+
+    /*Busca citas por nombre del cliente, servicio o email
+     *
+     * GET /api/v1/citas/buscar?q=texto&pagina=0&tamano=20
+     *
+     * cada palabra de q se busca como prefijo (ej: "mar cor" -> "Maria", "Corte")
+     * y deben coincidir todas; resultados ordenados por relevancia y fecha
+     *
+     * 200 OK con la pagina de resultados */
+    @GetMapping("/buscar")
+    public ResponseEntity<ResultadoBusquedaDTO> buscarCitas(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") int pagina,
+            @RequestParam(defaultValue = "20") int tamano) {
+        return ResponseEntity.ok(busquedaService.buscar(q, pagina, tamano));
+    }
+
     /*Obtiee la disponibilidad de horarios para una fecha
      *
      * GET /api/v1/citas/disponibilidad/{fecha}
@@ -165,6 +304,63 @@ public class CitaController {
         return ResponseEntity.ok(disponibilidad);
     }
 
+    /*Obtiene las horas de inicio en las que cabe una cita de la duracion indicada
+     *
+     * GET /api/v1/citas/disponibilidad/{fecha}/inicios?duracion=90
+     *
+     * a diferencia de /disponibilidad/{fecha} (bloques fijos de 30m) comprueba
+     * que la cita completa quepa sin cruzarse con citas ni bloqueos
+     *
+     * 200 OK con las horas de inicio posibles
+     * 400 bad request si la duracion no esta entre 15 y 480 minutos*/
+    @GetMapping("/disponibilidad/{fecha}/inicios")
+    public ResponseEntity<DisponibilidadDuracionDTO> getDisponibilidadDuracion(
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fecha,
+            @RequestParam int duracion) {
+        return ResponseEntity.ok(citaService.getDisponibilidad(fecha, duracion));
+    }
+
+    /*Obtiene la ocupacion de cada dia de un mes (mapa de calor del calendario)
+     *
+     * GET /api/v1/citas/disponibilidad/mes/{mes}   ej: /disponibilidad/mes/2025-06
+     *
+     * por dia: citas activas, minutos reservados y minutos libres
+     * sustituye a consultar /disponibilidad/{fecha} para cada dia del mes
+     *
+     * 200 OK con un elemento por cada dia del mes*/
+    @GetMapping("/disponibilidad/mes/{mes}")
+    public ResponseEntity<OcupacionMesDTO> getOcupacionMes(@PathVariable @DateTimeFormat(pattern = "yyyy-MM") YearMonth mes) {
+        return ResponseEntity.ok(calendarioService.getOcupacionMes(mes));
+    }
+
+    // ====== bloqueos temporales ======
+
+    /*Retiene un horario mientras el cliente completa la reserva
+     *
+     * POST /api/v1/citas/bloqueos
+     *
+     * el horario deja de aparecer como disponible y nadie mas puede reservarlo
+     * hasta que expire (reservas.bloqueos.ttl) o se reserve enviando el token en tokenBloqueo
+     *
+     * 201 created con el token y la hora de expiracion
+     * 409 conflict si el horario ya esta ocupado o retenido*/
+    @PostMapping("/bloqueos")
+    public ResponseEntity<BloqueoResponseDTO> bloquearHorario(@Valid @RequestBody BloqueoRequestDTO dto) {
+        admitir();
+        return ResponseEntity.status(HttpStatus.CREATED).body(citaService.bloquearHorario(dto));
+    }
+
+    /*Libera un bloqueo antes de que expire (ej: el cliente abandona el formulario)
+     *
+     * DELETE /api/v1/citas/bloqueos/{token}
+     *
+     * 204 No Content (tambien si el bloqueo ya habia expirado)*/
+    @DeleteMapping("/bloqueos/{token}")
+    public ResponseEntity<Void> liberarBloqueo(@PathVariable String token) {
+        citaService.liberarBloqueo(token);
+        return ResponseEntity.noContent().build();
+    }
+
     // ====== transiciones de estado ======
 
     /*Confirma una cita: pendiente -> confirmada
@@ -177,9 +373,12 @@ public class CitaController {
      *
      * 200 OK con datos actualizados (estado CONFIRMADA)*/
     @PatchMapping("/{id}/confirmar")
-    public ResponseEntity<CitaResponseDTO> confirmarCita(@PathVariable Long id) {
-        CitaResponseDTO confirmed = citaService.confirmarCita(id);
-        return ResponseEntity.ok(confirmed);
+    public ResponseEntity<CitaResponseDTO> confirmarCita(
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+            @PathVariable Long id) {
+        String llamante = admitir();
+        return idempotenciaService.ejecutar(llamante, idempotencyKey, "confirmarCita", id,
+                () -> conETag(citaService.confirmarCita(id)));
     }
 
     /*Cancela una cita
@@ -194,9 +393,12 @@ public class CitaController {
      *
      * 200 OK con datos actualizados (estado CANCELADA) */
     @PatchMapping("/{id}/cancelar")
-    public ResponseEntity<CitaResponseDTO> cancelarCita(@PathVariable Long id) {
-        CitaResponseDTO cancelled = citaService.cancelarCita(id);
-        return ResponseEntity.ok(cancelled);
+    public ResponseEntity<CitaResponseDTO> cancelarCita(
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+            @PathVariable Long id) {
+        String llamante = admitir();
+        return idempotenciaService.ejecutar(llamante, idempotencyKey, "cancelarCita", id,
+                () -> conETag(citaService.cancelarCita(id)));
     }
 
     /*Marca una cita como completada: confirmada -> completada
@@ -207,10 +409,57 @@ public class CitaController {
      *
      * 200 OK con datos actualizados (estado COMPLETADA) */
     @PatchMapping("/{id}/completar")
-    public ResponseEntity<CitaResponseDTO> completarCita(@PathVariable Long id){
-        CitaResponseDTO completed = citaService.completarCita(id);
-        return ResponseEntity.ok(completed);
+    public ResponseEntity<CitaResponseDTO> completarCita(
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+            @PathVariable Long id) {
+        String llamante = admitir();
+        return idempotenciaService.ejecutar(llamante, idempotencyKey, "completarCita", id,
+                () -> conETag(citaService.completarCita(id)));
+    }
+
+    // ====== helpers ======
+
+    //200 OK con la version de la cita como ETag (las citas archivadas no tienen version)
+    private static ResponseEntity<CitaResponseDTO> conETag(CitaResponseDTO cita) {
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok();
+        if (cita.getVersion() != null) {
+            ok.eTag(String.valueOf(cita.getVersion()));
+        }
+        return ok.body(cita);
     }
 
+    /*interpreta el header If-Match
+     * "3" -> version 3
+     * *   -> null (cualquier version)
+     *
+     * los ETag debiles (W/"3"), las listas o los valores que no son una version de cita
+     * nunca coinciden (comparacion fuerte) -> 412*/
+    private static Long versionEsperada(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank()) {
+            throw new PreconditionRequiredException(
+                    "Se requiere el header If-Match con el ETag de la cita (o * para cualquier version)");
+        }
+        String valor = ifMatch.strip();
+        if (valor.equals("*")) {
+            return null;
+        }
+        if (valor.length() > 2 && valor.startsWith("\"") && valor.endsWith("\"")) {
+            try {
+                return Long.valueOf(valor.substring(1, valor.length() - 1));
+            } catch (NumberFormatException ignored) {
+                //cae al 412
+            }
+        }
+        throw new PreconditionFailedException("If-Match no coincide con ninguna version de la cita: " + valor);
+    }
 
+    /*control de admision de escrituras
+     * identifica al cliente por su API key registrada o, si no la tiene, por su IP
+     * (nunca por datos del body: el email lo elige quien llama)
+     *
+     * RateLimitExceededException -> 429 con Retry-After (GlobalExceptionHandler)
+     * return: identidad del llamante, tambien separa sus Idempotency-Key de las de otros*/
+    private String admitir() {
+        return admisionService.admitir(request.getHeader(API_KEY), request.getRemoteAddr());
+    }
 }
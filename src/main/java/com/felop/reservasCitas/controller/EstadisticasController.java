@@ -0,0 +1,83 @@
+package com.felop.reservasCitas.controller;
+
+import com.felop.reservasCitas.dto.EstadisticasAdmisionDTO;
+import com.felop.reservasCitas.dto.EstadisticasCacheDTO;
+import com.felop.reservasCitas.dto.EstadisticasSqlDTO;
+import com.felop.reservasCitas.service.AdmisionService;
+import com.felop.reservasCitas.service.EstadisticasService;
+import com.felop.reservasCitas.service.EstadisticasSqlService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("api/v1/estadisticas")
+@RequiredArgsConstructor
+public class EstadisticasController {
+
+    private final EstadisticasService estadisticasService;
+
+    private final AdmisionService admisionService;
+
+    private final EstadisticasSqlService estadisticasSqlService;
+
+    /*Obtiene las estadisticas de la cache de segundo nivel
+     *
+     * GET /api/v1/estadisticas/cache
+     *
+     * muestra hits/misses de entidades y consultas y el total de sentencias JDBC,
+     * para comparar una mezcla de lecturas con y sin cache
+     *
+     * 200 OK con DTO de estadisticas*/
+    @GetMapping("/cache")
+    public ResponseEntity<EstadisticasCacheDTO> getEstadisticasCache() {
+        return ResponseEntity.ok(estadisticasService.getEstadisticasCache());
+    }
+
+    /*Reinicia los contadores de estadisticas
+     *
+     * DELETE /api/v1/estadisticas/cache
+     *
+     * 204 No Content*/
+    @DeleteMapping("/cache")
+    public ResponseEntity<Void> resetEstadisticas() {
+        estadisticasService.resetEstadisticas();
+        return ResponseEntity.noContent().build();
+    }
+
+    /*Obtiene las metricas del control de admision de escrituras
+     *
+     * GET /api/v1/estadisticas/admision
+     *
+     * peticiones admitidas vs rechazadas (429) por nivel
+     *
+     * 200 OK con DTO de metricas*/
+    @GetMapping("/admision")
+    public ResponseEntity<EstadisticasAdmisionDTO> getEstadisticasAdmision() {
+        return ResponseEntity.ok(admisionService.getEstadisticas());
+    }
+
+    /*Obtiene las sentencias SQL por endpoint y las sentencias mas lentas
+     *
+     * GET /api/v1/estadisticas/sql
+     *
+     * sentencias y tiempo JDBC por peticion (media y maximo) de cada endpoint,
+     * y las reservas.sql.sentencias-lentas sentencias mas lentas con la forma de sus parametros
+     *
+     * 200 OK con DTO de metricas*/
+    @GetMapping("/sql")
+    public ResponseEntity<EstadisticasSqlDTO> getEstadisticasSql() {
+        return ResponseEntity.ok(estadisticasSqlService.getEstadisticas());
+    }
+
+    /*Reinicia las metricas SQL
+     *
+     * DELETE /api/v1/estadisticas/sql
+     *
+     * 204 No Content*/
+    @DeleteMapping("/sql")
+    public ResponseEntity<Void> resetEstadisticasSql() {
+        estadisticasSqlService.reset();
+        return ResponseEntity.noContent().build();
+    }
+}
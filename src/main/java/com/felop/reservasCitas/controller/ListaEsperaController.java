@@ -0,0 +1,80 @@
+package com.felop.reservasCitas.controller;
+
+import com.felop.reservasCitas.dto.EntradaEsperaRequestDTO;
+import com.felop.reservasCitas.dto.EntradaEsperaResponseDTO;
+import com.felop.reservasCitas.service.AdmisionService;
+import com.felop.reservasCitas.service.ListaEsperaService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("api/v1/lista-espera")
+@RequiredArgsConstructor
+public class ListaEsperaController {
+
+    private final ListaEsperaService listaEsperaService;
+
+    //limita las escrituras por cliente (token bucket), igual que en citas
+    private final AdmisionService admisionService;
+
+    //peticion actual (proxy de Spring), usada para identificar al cliente
+    private final HttpServletRequest request;
+
+    //header opcional con la API key de integraciones
+    private static final String API_KEY = "X-API-Key";
+
+    /*Inscribe a un cliente en la lista de espera de una fecha
+     *
+     * POST /api/v1/lista-espera
+     *
+     * cuando se cancela una cita de esa fecha, el primer inscrito cuya franja y duracion
+     * caben en el hueco recibe un aviso o, con autoReservar=true, la cita reservada
+     *
+     * 201 created con la inscripcion y su posicion en la cola*/
+    @PostMapping
+    public ResponseEntity<EntradaEsperaResponseDTO> inscribir(@Valid @RequestBody EntradaEsperaRequestDTO dto) {
+        admisionService.admitir(request.getHeader(API_KEY), request.getRemoteAddr());
+        return ResponseEntity.status(HttpStatus.CREATED).body(listaEsperaService.inscribir(dto));
+    }
+
+    /*Obtiene una inscripcion
+     *
+     * GET /api/v1/lista-espera/{id}
+     *
+     * 200 OK con estado y posicion actual*/
+    @GetMapping("/{id}")
+    public ResponseEntity<EntradaEsperaResponseDTO> getEntrada(@PathVariable Long id) {
+        return ResponseEntity.ok(listaEsperaService.getEntrada(id));
+    }
+
+    /*Lista de espera de una fecha en orden de llegada
+     *
+     * GET /api/v1/lista-espera/fecha/{fecha}
+     *
+     * 200 OK con todas las inscripciones de la fecha (cualquier estado)*/
+    @GetMapping("/fecha/{fecha}")
+    public ResponseEntity<List<EntradaEsperaResponseDTO>> getListaByFecha(
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fecha) {
+        return ResponseEntity.ok(listaEsperaService.getListaByFecha(fecha));
+    }
+
+    /*Saca a un cliente de la lista de espera
+     *
+     * DELETE /api/v1/lista-espera/{id}
+     *
+     * 200 OK con la inscripcion en estado RETIRADA
+     * (si ya fue ofrecida o asignada se devuelve sin cambios)*/
+    @DeleteMapping("/{id}")
+    public ResponseEntity<EntradaEsperaResponseDTO> retirar(@PathVariable Long id) {
+        admisionService.admitir(request.getHeader(API_KEY), request.getRemoteAddr());
+        return ResponseEntity.ok(listaEsperaService.retirar(id));
+    }
+}
@@ -0,0 +1,70 @@
+package com.felop.reservasCitas.controller;
+
+import com.felop.reservasCitas.dto.IngresosDiariosDTO;
+import com.felop.reservasCitas.dto.OcupacionDiariaDTO;
+import com.felop.reservasCitas.dto.ResumenDiarioDTO;
+import com.felop.reservasCitas.service.ReporteService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("api/v1/reportes")
+@RequiredArgsConstructor
+public class ReporteController {
+
+    private final ReporteService reporteService;
+
+    /*Resumen por dia, servicio y estado
+     *
+     * GET /api/v1/reportes/resumen?desde=yyyy-MM-dd&hasta=yyyy-MM-dd
+     *
+     * 200 OK con las filas del resumen en el rango*/
+    @GetMapping("/resumen")
+    public ResponseEntity<List<ResumenDiarioDTO>> getResumen(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+        return ResponseEntity.ok(reporteService.getResumen(desde, hasta));
+    }
+
+    /*Ingresos por dia (sin citas canceladas)
+     *
+     * GET /api/v1/reportes/ingresos?desde=yyyy-MM-dd&hasta=yyyy-MM-dd
+     *
+     * 200 OK con un elemento por dia con citas*/
+    @GetMapping("/ingresos")
+    public ResponseEntity<List<IngresosDiariosDTO>> getIngresos(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+        return ResponseEntity.ok(reporteService.getIngresos(desde, hasta));
+    }
+
+    /*Ocupacion por dia respecto al horario laboral
+     *
+     * GET /api/v1/reportes/ocupacion?desde=yyyy-MM-dd&hasta=yyyy-MM-dd
+     *
+     * 200 OK con un elemento por dia con citas*/
+    @GetMapping("/ocupacion")
+    public ResponseEntity<List<OcupacionDiariaDTO>> getOcupacion(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+        return ResponseEntity.ok(reporteService.getOcupacion(desde, hasta));
+    }
+
+    /*Reconstruye el resumen desde la tabla citas
+     *
+     * POST /api/v1/reportes/reconstruir
+     *
+     * reparacion ante inconsistencias, recorre todas las citas
+     *
+     * 204 No Content*/
+    @PostMapping("/reconstruir")
+    public ResponseEntity<Void> reconstruir() {
+        reporteService.reconstruir();
+        return ResponseEntity.noContent().build();
+    }
+}
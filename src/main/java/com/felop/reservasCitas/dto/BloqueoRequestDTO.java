@@ -0,0 +1,44 @@
+package com.felop.reservasCitas.dto;
+//DTO para retener temporalmente un horario mientras el cliente completa la reserva
+//Este DTO se usa en:
+//POST /api/v1/citas/bloqueos
+
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.FutureOrPresent;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BloqueoRequestDTO {
+
+    //fecha del horario a retener
+    @NotNull(message = "La fecha es obligatoria")
+    @FutureOrPresent(message = "La fecha no puede ser anterior a hoy")
+    private LocalDate fecha;
+
+    //horario a retener (el mismo que se enviara luego en POST /api/v1/citas)
+    @NotNull(message = "La hora de inicio es obligatoria")
+    private LocalTime horaInicio;
+
+    @NotNull(message = "La hora de fin es obligatoria")
+    private LocalTime horaFin;
+
+    //==== VALIDACIONES PERSONALIZADAS ====
+    //la hora de fin debe ser posterior a la hora de inicio
+    @AssertTrue(message = "La hora de fin debe ser posterior a la hora de inicio")
+    public boolean isHoraFinPosterior(){
+        if (horaInicio == null || horaFin == null){
+            return true;
+        }
+        return horaFin.isAfter(horaInicio);
+    }
+}
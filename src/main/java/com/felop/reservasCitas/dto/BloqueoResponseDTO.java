@@ -0,0 +1,33 @@
+package com.felop.reservasCitas.dto;
+//DTO con el bloqueo temporal creado
+//el token se envia en tokenBloqueo al crear la cita para consumir el bloqueo
+//Este DTO se usa en:
+//POST /api/v1/citas/bloqueos
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BloqueoResponseDTO {
+
+    //token del bloqueo
+    private String token;
+
+    private LocalDate fecha;
+
+    private LocalTime horaInicio;
+
+    private LocalTime horaFin;
+
+    //momento en el que el horario vuelve a quedar libre si no se reserva
+    private LocalDateTime expiraEn;
+}
@@ -0,0 +1,106 @@
+package com.felop.reservasCitas.dto;
+//Campos de CitaResponseDTO que se pueden pedir con fields= en los listados
+//ej: GET /api/v1/citas/fecha/2025-06-01?fields=id,fecha,horaInicio,horaFin,estado
+//el orden del enum es el orden de los campos en el JSON (el mismo que CitaResponseDTO)
+
+import com.felop.reservasCitas.exceptions.InvalidFieldSelectionException;
+
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+public enum CampoCita {
+    ID("id"),
+    NOMBRE_CLIENTE("nombreCliente"),
+    EMAIL("email"),
+    TELEFONO("telefono"),
+    FECHA("fecha"),
+    HORA_INICIO("horaInicio"),
+    HORA_FIN("horaFin"),
+    SERVICIO("servicio"),
+    ESTADO("estado"),
+    PRECIO("precio"),
+    NOTAS("notas"),
+    CODIGO_CONFIRMACION("codigoConfirmacion"),
+    //calculado: necesita las dos horas
+    DURACION_MINUTOS("duracionMinutos", List.of("horaInicio", "horaFin"), fila -> ChronoUnit.MINUTES.between(
+            (LocalTime) fila.get("horaInicio"), (LocalTime) fila.get("horaFin"))),
+    CREATED_AT("createdAt"),
+    UPDATED_AT("updatedAt"),
+    VERSION("version");
+
+    //busqueda por nombre del campo en el JSON
+    private static final Map<String, CampoCita> POR_NOMBRE = Arrays.stream(values())
+            .collect(Collectors.toMap(CampoCita::getNombre, Function.identity(), (a, b) -> a, LinkedHashMap::new));
+
+    //nombre del campo en el JSON
+    private final String nombre;
+
+    //atributos de la entidad que hay que seleccionar para obtenerlo
+    private final List<String> atributos;
+
+    //obtiene el valor a partir de la fila leida (atributo -> valor)
+    private final Function<Map<String, Object>, Object> valor;
+
+    CampoCita(String nombre) {
+        this(nombre, List.of(nombre), fila -> fila.get(nombre));
+    }
+
+    CampoCita(String nombre, List<String> atributos, Function<Map<String, Object>, Object> valor) {
+        this.nombre = nombre;
+        this.atributos = atributos;
+        this.valor = valor;
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    /*interpreta el parametro fields (nombres separados por comas)
+     * InvalidFieldSelectionException (400) si no hay campos o alguno no existe*/
+    public static Set<CampoCita> parse(String fields) {
+        Set<CampoCita> campos = EnumSet.noneOf(CampoCita.class);
+        for (String nombre : fields.split(",")) {
+            String limpio = nombre.strip();
+            if (limpio.isEmpty()) {
+                continue;
+            }
+            CampoCita campo = POR_NOMBRE.get(limpio);
+            if (campo == null) {
+                throw new InvalidFieldSelectionException("Campo desconocido en fields: " + limpio
+                        + ". Campos validos: " + String.join(",", POR_NOMBRE.keySet()));
+            }
+            campos.add(campo);
+        }
+        if (campos.isEmpty()) {
+            throw new InvalidFieldSelectionException("fields debe indicar al menos un campo");
+        }
+        return campos;
+    }
+
+    //atributos a seleccionar para los campos pedidos, mas los extra (ej: los del orden)
+    public static Set<String> atributos(Collection<CampoCita> campos, String... extra) {
+        Set<String> atributos = new LinkedHashSet<>();
+        campos.forEach(c -> atributos.addAll(c.atributos));
+        atributos.addAll(Arrays.asList(extra));
+        return atributos;
+    }
+
+    //fila leida -> objeto JSON con solo los campos pedidos, en el orden de CitaResponseDTO
+    public static Map<String, Object> proyectar(Collection<CampoCita> campos, Map<String, Object> fila) {
+        Map<String, Object> json = new LinkedHashMap<>(campos.size() * 2);
+        for (CampoCita c : campos) {
+            json.put(c.nombre, c.valor.apply(fila));
+        }
+        return json;
+    }
+}
@@ -0,0 +1,47 @@
+package com.felop.reservasCitas.dto;
+//DTO con un resultado de la busqueda por nombre, servicio o email
+//Este DTO se usa en:
+//GET /api/v1/citas/buscar
+
+import com.felop.reservasCitas.model.EstadoCita;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class CitaBusquedaDTO {
+
+    //identificador de la cita
+    private Long id;
+
+    //nombre del cliente
+    private String nombreCliente;
+
+    //email del cliente
+    private String email;
+
+    //servicio reservado
+    private String servicio;
+
+    //fecha de la cita
+    private LocalDate fecha;
+
+    //hora de inicio de la cita
+    private LocalTime horaInicio;
+
+    //estado actual
+    private EstadoCita estado;
+
+    //codigo de confirmacion
+    private String codigoConfirmacion;
+
+    //relevancia del resultado (mayor es mejor)
+    private Integer puntuacion;
+}
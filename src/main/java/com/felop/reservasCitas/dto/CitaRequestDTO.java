@@ -70,6 +70,10 @@ public class CitaRequestDTO {
     @Size(max = 500, message = "Las notas no puede exceder 500 caracteres")
     private String notas;
 
+    //token de un bloqueo temporal del horario (opcional)
+    //si se envia, el bloqueo propio no cuenta como conflicto y se consume al guardar la cita
+    private String tokenBloqueo;
+
     //==== VALIDACIONES PERSONALIZADAS ====
     //la hora de fin debe ser posterior a la hora de inicio de la cita
     //@AssertTrue se evalúa después de las validaciones individuales (@NotNull)
@@ -71,4 +71,7 @@ public class CitaResponseDTO {
 
     //Timestamp de ultima actualizacion del registro
     private LocalDateTime updatedAt;
+
+    //version de la cita (null en citas archivadas), se envia tambien como ETag
+    private Long version;
 }
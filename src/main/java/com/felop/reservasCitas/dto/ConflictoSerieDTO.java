@@ -0,0 +1,29 @@
+package com.felop.reservasCitas.dto;
+//DTO con una ocurrencia de una serie que no se pudo reservar
+//Este DTO se usa en:
+//POST /api/v1/citas/series
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConflictoSerieDTO {
+
+    //fecha de la ocurrencia
+    private LocalDate fecha;
+
+    //horario solicitado
+    private LocalTime horaInicio;
+    private LocalTime horaFin;
+
+    //motivo por el que no se reservo
+    private String motivo;
+}
@@ -10,6 +10,7 @@ import lombok.NoArgsConstructor;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 @Data
 @Builder
@@ -28,6 +29,14 @@ public class DisponibilidadCitaDTO {
     //muestra al cliente que franjas estan reservadas
     private List<String> horariosOcupados;
 
+    //horarios retenidos temporalmente por clientes que estan completando su reserva
+    //no estan disponibles, pero pueden liberarse en unos minutos
+    private List<String> horariosBloqueados;
+
+    //plazas que quedan en cada bloque de 30 minutos (el minimo entre sus minutos)
+    //con capacidad 1 es 1 si el bloque esta disponible y 0 si no
+    private Map<String, Integer> plazasLibres;
+
     //contador horarios disponibles
     private Integer totalDisponibles;
 }
@@ -0,0 +1,36 @@
+package com.felop.reservasCitas.dto;
+//DTO con las horas de inicio en las que cabe una cita de la duracion pedida
+//Este DTO se usa en:
+//GET /api/v1/citas/disponibilidad/{fecha}/inicios?duracion=90
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DisponibilidadDuracionDTO {
+
+    //fecha consultada
+    private LocalDate fecha;
+
+    //duracion de la cita que se quiere reservar
+    private Integer duracionMinutos;
+
+    //separacion entre horas de inicio candidatas (reservas.disponibilidad.paso-minutos)
+    private Integer pasoMinutos;
+
+    //horas de inicio en las que la cita completa cabe sin cruzarse con citas ni bloqueos
+    //horaFin = horaInicio + duracionMinutos
+    private List<LocalTime> horasInicio;
+
+    //contador de horas de inicio
+    private Integer totalDisponibles;
+}
@@ -0,0 +1,35 @@
+package com.felop.reservasCitas.dto;
+//DTO con las sentencias SQL de un endpoint
+//Este DTO se usa en:
+//GET /api/v1/estadisticas/sql (dentro de EstadisticasSqlDTO)
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EndpointSqlDTO {
+
+    //metodo y patron de la ruta, ej: GET /api/v1/citas/{id}
+    private String endpoint;
+
+    private Long peticiones;
+
+    //sentencias de todas sus peticiones
+    private Long sentencias;
+
+    //sentencias por peticion (un N+1 se ve como una media que crece con los datos)
+    private Double mediaSentencias;
+
+    //peticion con mas sentencias
+    private Long maxSentencias;
+
+    //tiempo JDBC acumulado
+    private Double milisJdbc;
+
+    private Double mediaMilisJdbc;
+}
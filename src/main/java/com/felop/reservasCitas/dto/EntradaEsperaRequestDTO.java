@@ -0,0 +1,78 @@
+package com.felop.reservasCitas.dto;
+//DTO para inscribirse en la lista de espera de una fecha
+//Este DTO se usa en:
+//POST /api/v1/lista-espera
+
+import jakarta.validation.constraints.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EntradaEsperaRequestDTO {
+
+    //datos del cliente, con las mismas reglas que una cita
+    @NotBlank(message = "El nombre del cliente es obligatorio")
+    @Size(min = 2, max = 100, message = "El nombre debe tener entre 2 y 100 caracteres")
+    private String nombreCliente;
+
+    @NotBlank(message = "El email es obligatorio")
+    @Email(message = "El formato de email es invalido")
+    private String email;
+
+    @NotBlank(message = "El telefono es obligatorio")
+    @Pattern(regexp = "^\\+?[0-9\\s-]{9,15}$", message = "El formato del telefono es invalido")
+    private String telefono;
+
+    //fecha deseada
+    @NotNull(message = "La fecha es obligatoria")
+    @FutureOrPresent(message = "La fecha no puede ser anterior a hoy")
+    private LocalDate fecha;
+
+    //franja en la que le sirve cualquier hueco (ej: 16:00 - 20:00)
+    @NotNull(message = "El inicio de la franja es obligatorio")
+    private LocalTime desde;
+
+    @NotNull(message = "El fin de la franja es obligatorio")
+    private LocalTime hasta;
+
+    //duracion de la cita deseada
+    @NotNull(message = "La duracion es obligatoria")
+    @Min(value = 15, message = "La duracion minima es de 15 minutos")
+    @Max(value = 480, message = "La duracion maxima es de 8 horas")
+    private Integer duracionMinutos;
+
+    @NotBlank(message = "El servicio es obligatorio")
+    @Size(min = 2, max = 100, message = "El servicio debe tener entre 2 y 100 caracteres")
+    private String servicio;
+
+    @NotNull(message = "El precio es obligatorio")
+    @DecimalMin(value = "0.0", inclusive = true, message = "El precio debe ser mayor o igual a 0")
+    private BigDecimal precio;
+
+    @Size(max = 500, message = "Las notas no puede exceder 500 caracteres")
+    private String notas;
+
+    //true: reservar automaticamente el primer hueco compatible
+    //false (por defecto): solo avisar al cliente
+    private boolean autoReservar;
+
+    //==== VALIDACIONES PERSONALIZADAS ====
+    //la duracion pedida debe caber en la franja
+    @AssertTrue(message = "La duracion debe caber en la franja indicada")
+    public boolean isDuracionEnFranja(){
+        if (desde == null || hasta == null || duracionMinutos == null){
+            return true;
+        }
+        return ChronoUnit.MINUTES.between(desde, hasta) >= duracionMinutos;
+    }
+}
@@ -0,0 +1,52 @@
+package com.felop.reservasCitas.dto;
+//DTO con el estado de una inscripcion en la lista de espera
+//Este DTO se usa en:
+//POST /api/v1/lista-espera
+//GET /api/v1/lista-espera/{id}
+//GET /api/v1/lista-espera/fecha/{fecha}
+
+import com.felop.reservasCitas.model.EstadoEspera;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EntradaEsperaResponseDTO {
+
+    private Long id;
+
+    private String nombreCliente;
+
+    private String email;
+
+    private LocalDate fecha;
+
+    //franja aceptable
+    private LocalTime desde;
+    private LocalTime hasta;
+
+    private Integer duracionMinutos;
+
+    private String servicio;
+
+    private Boolean autoReservar;
+
+    //ESPERANDO, OFRECIDA, ASIGNADA o RETIRADA
+    private EstadoEspera estado;
+
+    //posicion en la cola de su fecha (1 = la siguiente), solo mientras espera
+    private Integer posicion;
+
+    //codigo de la cita reservada automaticamente
+    private String codigoConfirmacion;
+
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,33 @@
+package com.felop.reservasCitas.dto;
+//DTO con las metricas del control de admision de escrituras
+//Este DTO se usa en:
+//GET /api/v1/estadisticas/admision
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EstadisticasAdmisionDTO {
+
+    //peticiones admitidas por nivel
+    private Map<String, Long> admitidas;
+
+    //peticiones rechazadas (429) por nivel
+    private Map<String, Long> rechazadas;
+
+    //total de peticiones admitidas
+    private Long totalAdmitidas;
+
+    //total de peticiones rechazadas
+    private Long totalRechazadas;
+
+    //clientes con bucket activo en memoria
+    private Long clientesActivos;
+}
@@ -0,0 +1,41 @@
+package com.felop.reservasCitas.dto;
+//DTO con las estadisticas de la cache de segundo nivel de Hibernate
+//Este DTO se usa en:
+//GET /api/v1/estadisticas/cache
+//permite comparar sentencias JDBC ejecutadas vs lecturas servidas desde cache
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EstadisticasCacheDTO {
+
+    //entidades Cita servidas desde la cache de segundo nivel
+    private Long entidadesHits;
+
+    //entidades Cita que no estaban en cache y se leyeron de la BD
+    private Long entidadesMisses;
+
+    //entidades Cita almacenadas en la cache
+    private Long entidadesPuts;
+
+    //consultas resueltas desde la cache de consultas
+    private Long consultasHits;
+
+    //consultas cacheables que tuvieron que ejecutarse en BD
+    private Long consultasMisses;
+
+    //total de consultas ejecutadas contra la BD
+    private Long consultasEjecutadas;
+
+    //total de sentencias JDBC preparadas desde el ultimo reinicio de estadisticas
+    private Long sentenciasJdbc;
+
+    //porcentaje de lecturas (entidades + consultas) servidas desde cache
+    private Double ratioAciertos;
+}
@@ -0,0 +1,34 @@
+package com.felop.reservasCitas.dto;
+//DTO con las metricas de sentencias SQL por peticion
+//Este DTO se usa en:
+//GET /api/v1/estadisticas/sql
+//a diferencia de /estadisticas/cache, reparte las sentencias por endpoint y guarda las mas lentas
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EstadisticasSqlDTO {
+
+    //sentencias ejecutadas desde el ultimo reinicio (incluye tareas programadas y arranque)
+    private Long totalSentencias;
+
+    //tiempo JDBC acumulado de todas las sentencias
+    private Double totalMilisJdbc;
+
+    //peticiones HTTP medidas
+    private Long totalPeticiones;
+
+    //metricas por endpoint, de mayor a menor numero de sentencias
+    private List<EndpointSqlDTO> endpoints;
+
+    //sentencias mas lentas, de mayor a menor duracion
+    private List<SentenciaLentaDTO> sentenciasLentas;
+}
@@ -0,0 +1,55 @@
+package com.felop.reservasCitas.dto;
+//DTO con los filtros combinables del listado de citas (parametros de la query)
+//Este DTO se usa en:
+//GET /api/v1/citas/filtro
+
+import com.felop.reservasCitas.model.EstadoCita;
+import jakarta.validation.constraints.AssertTrue;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FiltroCitasDTO {
+
+    //rango de fechas (ambos incluidos), cualquiera de los dos puede faltar
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate desde;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate hasta;
+
+    //estados aceptados, ej: ?estados=PENDIENTE,CONFIRMADA (vacio: todos)
+    private List<EstadoCita> estados;
+
+    //servicio exacto
+    private String servicio;
+
+    //email exacto del cliente
+    private String email;
+
+    //rango de precio (ambos incluidos)
+    private BigDecimal precioMin;
+
+    private BigDecimal precioMax;
+
+    //==== VALIDACIONES PERSONALIZADAS ====
+    @AssertTrue(message = "La fecha desde no puede ser posterior a la fecha hasta")
+    public boolean isRangoFechasValido() {
+        return desde == null || hasta == null || !desde.isAfter(hasta);
+    }
+
+    @AssertTrue(message = "El precio minimo no puede ser mayor que el precio maximo")
+    public boolean isRangoPreciosValido() {
+        return precioMin == null || precioMax == null || precioMin.compareTo(precioMax) <= 0;
+    }
+}
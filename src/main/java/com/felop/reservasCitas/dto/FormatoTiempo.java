@@ -0,0 +1,131 @@
+package com.felop.reservasCitas.dto;
+//Escritura rapida de LocalDate, LocalTime y LocalDateTime en JSON
+//mismo texto que los serializadores por defecto de Jackson (ISO_LOCAL_DATE, ISO_LOCAL_TIME, ISO_LOCAL_DATE_TIME)
+//sin pasar por DateTimeFormatter en el caso habitual
+
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.core.io.SerializedString;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+
+final class FormatoTiempo {
+
+    //"HH:mm:ss" ya codificado de cada minuto del dia: las horas de las citas caen en minutos exactos
+    private static final SerializedString[] MINUTOS = new SerializedString[24 * 60];
+
+    /*ultimas fechas escritas, por dia (cache de mapeo directo: dia % tamano)
+     * los listados repiten pocas fechas (las de un dia, un mes...), asi casi siempre
+     * se reutiliza el texto ya codificado; cada entrada es inmutable, no hace falta sincronizar*/
+    private static final int TAMANO_CACHE_FECHAS = 1024;
+    private static final Fecha[] FECHAS = new Fecha[TAMANO_CACHE_FECHAS];
+
+    static {
+        for (int m = 0; m < MINUTOS.length; m++) {
+            MINUTOS[m] = new SerializedString(LocalTime.of(m / 60, m % 60).format(DateTimeFormatter.ISO_LOCAL_TIME));
+        }
+    }
+
+    private FormatoTiempo() {
+    }
+
+    static void escribir(LocalDate fecha, JsonGenerator g) {
+        long dia = fecha.toEpochDay();
+        int i = (int) Math.floorMod(dia, TAMANO_CACHE_FECHAS);
+        Fecha cacheada = FECHAS[i];
+        if (cacheada == null || cacheada.dia() != dia) {
+            cacheada = new Fecha(dia, new SerializedString(texto(fecha)));
+            FECHAS[i] = cacheada;
+        }
+        g.writeString(cacheada.texto());
+    }
+
+    static void escribir(LocalTime hora, JsonGenerator g) {
+        if (hora.getSecond() == 0 && hora.getNano() == 0) {
+            g.writeString(MINUTOS[hora.getHour() * 60 + hora.getMinute()]);
+            return;
+        }
+        char[] buffer = new char[18];
+        int n = hora(hora, buffer, 0);
+        g.writeString(buffer, 0, n);
+    }
+
+    static void escribir(LocalDateTime fechaHora, JsonGenerator g) {
+        LocalDate fecha = fechaHora.toLocalDate();
+        if (!anioDeCuatroCifras(fecha)) {
+            g.writeString(fechaHora.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+            return;
+        }
+        char[] buffer = new char[29];
+        fecha(fecha, buffer);
+        buffer[10] = 'T';
+        int n = hora(fechaHora.toLocalTime(), buffer, 11);
+        g.writeString(buffer, 0, n);
+    }
+
+    // ==== formato ====
+
+    private static String texto(LocalDate fecha) {
+        if (!anioDeCuatroCifras(fecha)) {
+            return fecha.format(DateTimeFormatter.ISO_LOCAL_DATE);
+        }
+        char[] buffer = new char[10];
+        fecha(fecha, buffer);
+        return new String(buffer);
+    }
+
+    //yyyy-MM-dd en las posiciones 0..9
+    private static void fecha(LocalDate fecha, char[] b) {
+        int anio = fecha.getYear();
+        b[0] = digito(anio / 1000);
+        b[1] = digito(anio / 100 % 10);
+        b[2] = digito(anio / 10 % 10);
+        b[3] = digito(anio % 10);
+        b[4] = '-';
+        dosCifras(fecha.getMonthValue(), b, 5);
+        b[7] = '-';
+        dosCifras(fecha.getDayOfMonth(), b, 8);
+    }
+
+    //HH:mm:ss[.fraccion] desde la posicion indicada, devuelve la posicion final
+    //ISO_LOCAL_TIME escribe la fraccion sin ceros a la derecha (ej: .5, .123456)
+    private static int hora(LocalTime hora, char[] b, int p) {
+        dosCifras(hora.getHour(), b, p);
+        b[p + 2] = ':';
+        dosCifras(hora.getMinute(), b, p + 3);
+        b[p + 5] = ':';
+        dosCifras(hora.getSecond(), b, p + 6);
+        p += 8;
+
+        int nanos = hora.getNano();
+        if (nanos == 0) {
+            return p;
+        }
+        b[p++] = '.';
+        int divisor = 100_000_000;
+        while (nanos > 0) {
+            b[p++] = digito(nanos / divisor);
+            nanos %= divisor;
+            divisor /= 10;
+        }
+        return p;
+    }
+
+    private static boolean anioDeCuatroCifras(LocalDate fecha) {
+        return fecha.getYear() >= 0 && fecha.getYear() <= 9999;
+    }
+
+    private static void dosCifras(int valor, char[] b, int p) {
+        b[p] = digito(valor / 10);
+        b[p + 1] = digito(valor % 10);
+    }
+
+    private static char digito(int valor) {
+        return (char) ('0' + valor);
+    }
+
+    private record Fecha(long dia, SerializedString texto) {
+    }
+}
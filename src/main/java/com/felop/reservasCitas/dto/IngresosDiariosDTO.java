@@ -0,0 +1,28 @@
+package com.felop.reservasCitas.dto;
+//DTO con los ingresos de un dia (sin contar citas canceladas)
+//Este DTO se usa en:
+//GET /api/v1/reportes/ingresos
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IngresosDiariosDTO {
+
+    //fecha consultada
+    private LocalDate fecha;
+
+    //numero de citas no canceladas
+    private Long totalCitas;
+
+    //suma de precios de las citas no canceladas
+    private BigDecimal totalIngresos;
+}
@@ -0,0 +1,38 @@
+package com.felop.reservasCitas.dto;
+//DTO con la ocupacion de un dia respecto al horario laboral
+//Este DTO se usa en:
+//GET /api/v1/reportes/ocupacion
+//GET /api/v1/citas/disponibilidad/mes/{mes} (dentro de OcupacionMesDTO)
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OcupacionDiariaDTO {
+
+    //fecha consultada
+    private LocalDate fecha;
+
+    //numero de citas no canceladas
+    private Long totalCitas;
+
+    //minutos reservados por citas no canceladas
+    private Long minutosReservados;
+
+    //minutos de plaza sin reservar
+    private Long minutosLibres;
+
+    //minutos de plaza del horario laboral (08:00 a 20:00): minutos x plazas de cada minuto
+    //(reservas.capacidad); con una sola plaza, los minutos del horario
+    private Long minutosLaborables;
+
+    //porcentaje de ocupacion del dia respecto a los minutos de plaza
+    private Double porcentajeOcupacion;
+}
@@ -0,0 +1,26 @@
+package com.felop.reservasCitas.dto;
+//DTO con la ocupacion de cada dia de un mes (mapa de calor del calendario)
+//Este DTO se usa en:
+//GET /api/v1/citas/disponibilidad/mes/{mes}
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.YearMonth;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OcupacionMesDTO {
+
+    //mes consultado, formato yyyy-MM
+    private YearMonth mes;
+
+    //un elemento por cada dia del mes (tambien los dias sin citas)
+    //solo cuentan las citas activas (PENDIENTE o CONFIRMADA)
+    private List<OcupacionDiariaDTO> dias;
+}
@@ -0,0 +1,24 @@
+package com.felop.reservasCitas.dto;
+//DTO con una pagina del listado filtrado, ordenada por fecha y hora de inicio
+//Este DTO se usa en:
+//GET /api/v1/citas/filtro
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaginaCitasDTO {
+
+    //citas de la pagina
+    private List<CitaResponseDTO> citas;
+
+    //cursor para pedir la pagina siguiente (?despues=...), null si es la ultima
+    private String siguiente;
+}
@@ -0,0 +1,33 @@
+package com.felop.reservasCitas.dto;
+//DTO con una pagina de resultados de busqueda ordenados por relevancia
+//Este DTO se usa en:
+//GET /api/v1/citas/buscar
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoBusquedaDTO {
+
+    //texto buscado
+    private String consulta;
+
+    //numero de pagina (empieza en 0)
+    private Integer pagina;
+
+    //tamaño de pagina
+    private Integer tamano;
+
+    //total de citas que coinciden
+    private Integer total;
+
+    //resultados de la pagina
+    private List<CitaBusquedaDTO> resultados;
+}
@@ -0,0 +1,38 @@
+package com.felop.reservasCitas.dto;
+//DTO con una fila del resumen diario (fecha, servicio, estado)
+//Este DTO se usa en:
+//GET /api/v1/reportes/resumen
+
+import com.felop.reservasCitas.model.EstadoCita;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResumenDiarioDTO {
+
+    //fecha de las citas
+    private LocalDate fecha;
+
+    //tipo de servicio
+    private String servicio;
+
+    //estado de las citas
+    private EstadoCita estado;
+
+    //numero de citas
+    private Long totalCitas;
+
+    //suma de precios
+    private BigDecimal totalIngresos;
+
+    //suma de duraciones en minutos
+    private Long minutosReservados;
+}
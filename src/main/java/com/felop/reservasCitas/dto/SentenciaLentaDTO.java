@@ -0,0 +1,31 @@
+package com.felop.reservasCitas.dto;
+//DTO con una de las sentencias SQL mas lentas
+//Este DTO se usa en:
+//GET /api/v1/estadisticas/sql (dentro de EstadisticasSqlDTO)
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SentenciaLentaDTO {
+
+    //SQL con los espacios normalizados (recortado si es muy largo)
+    private String sql;
+
+    //tipos de los parametros enlazados, nunca los valores, ej: (LocalDate, String)
+    private String parametros;
+
+    private Double milis;
+
+    //endpoint que la ejecuto, null fuera de una peticion (tareas programadas)
+    private String origen;
+
+    private LocalDateTime fechaHora;
+}
@@ -0,0 +1,238 @@
+package com.felop.reservasCitas.dto;
+//Serializadores escritos a mano para los DTOs de respuesta mas voluminosos
+//y para los tipos java.time de todos los DTOs
+
+import com.felop.reservasCitas.model.EstadoCita;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.core.io.SerializedString;
+import tools.jackson.databind.JacksonModule;
+import tools.jackson.databind.SerializationContext;
+import tools.jackson.databind.module.SimpleModule;
+import tools.jackson.databind.ser.std.StdSerializer;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/*el serializador por defecto de un DTO recorre sus propiedades por reflexion
+ * (descubiertas una vez, pero invocadas getter a getter con su serializador de tipo)
+ * y formatea cada fecha y hora con un DateTimeFormatter
+ *
+ * estos serializadores escriben cada campo directamente:
+ * - nombres de campo y estados ya codificados (SerializedString)
+ * - fechas y horas desde el texto cacheado de FormatoTiempo
+ *
+ * producen exactamente el mismo JSON que el ObjectMapper por defecto (mismo orden de campos,
+ * nulls incluidos); al agregar un campo al DTO hay que agregarlo tambien aqui*/
+public final class SerializadoresJson {
+
+    private SerializadoresJson() {
+    }
+
+    //modulo con todos los serializadores, se registra en el JsonMapper de la aplicacion
+    public static JacksonModule modulo() {
+        return new SimpleModule("serializadores-dto")
+                .addSerializer(LocalDate.class, new LocalDateSerializer())
+                .addSerializer(LocalTime.class, new LocalTimeSerializer())
+                .addSerializer(LocalDateTime.class, new LocalDateTimeSerializer())
+                .addSerializer(CitaResponseDTO.class, new CitaResponseSerializer())
+                .addSerializer(CitaBusquedaDTO.class, new CitaBusquedaSerializer());
+    }
+
+    // ==== nombres de campo ya codificados ====
+
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString NOMBRE_CLIENTE = new SerializedString("nombreCliente");
+    private static final SerializedString EMAIL = new SerializedString("email");
+    private static final SerializedString TELEFONO = new SerializedString("telefono");
+    private static final SerializedString FECHA = new SerializedString("fecha");
+    private static final SerializedString HORA_INICIO = new SerializedString("horaInicio");
+    private static final SerializedString HORA_FIN = new SerializedString("horaFin");
+    private static final SerializedString SERVICIO = new SerializedString("servicio");
+    private static final SerializedString ESTADO = new SerializedString("estado");
+    private static final SerializedString PRECIO = new SerializedString("precio");
+    private static final SerializedString NOTAS = new SerializedString("notas");
+    private static final SerializedString CODIGO_CONFIRMACION = new SerializedString("codigoConfirmacion");
+    private static final SerializedString DURACION_MINUTOS = new SerializedString("duracionMinutos");
+    private static final SerializedString CREATED_AT = new SerializedString("createdAt");
+    private static final SerializedString UPDATED_AT = new SerializedString("updatedAt");
+    private static final SerializedString VERSION = new SerializedString("version");
+    private static final SerializedString PUNTUACION = new SerializedString("puntuacion");
+
+    //nombre de cada estado, por ordinal
+    private static final SerializedString[] ESTADOS = new SerializedString[EstadoCita.values().length];
+
+    static {
+        for (EstadoCita e : EstadoCita.values()) {
+            ESTADOS[e.ordinal()] = new SerializedString(e.name());
+        }
+    }
+
+    // ==== DTOs ====
+
+    //mismo orden que los campos de CitaResponseDTO
+    static final class CitaResponseSerializer extends StdSerializer<CitaResponseDTO> {
+
+        CitaResponseSerializer() {
+            super(CitaResponseDTO.class);
+        }
+
+        @Override
+        public void serialize(CitaResponseDTO c, JsonGenerator g, SerializationContext ctxt) {
+            g.writeStartObject(c);
+            numero(g, ID, c.getId());
+            texto(g, NOMBRE_CLIENTE, c.getNombreCliente());
+            texto(g, EMAIL, c.getEmail());
+            texto(g, TELEFONO, c.getTelefono());
+            fecha(g, FECHA, c.getFecha());
+            hora(g, HORA_INICIO, c.getHoraInicio());
+            hora(g, HORA_FIN, c.getHoraFin());
+            texto(g, SERVICIO, c.getServicio());
+            estado(g, c.getEstado());
+            decimal(g, PRECIO, c.getPrecio());
+            texto(g, NOTAS, c.getNotas());
+            texto(g, CODIGO_CONFIRMACION, c.getCodigoConfirmacion());
+            numero(g, DURACION_MINUTOS, c.getDuracionMinutos());
+            fechaHora(g, CREATED_AT, c.getCreatedAt());
+            fechaHora(g, UPDATED_AT, c.getUpdatedAt());
+            numero(g, VERSION, c.getVersion());
+            g.writeEndObject();
+        }
+    }
+
+    //mismo orden que los campos de CitaBusquedaDTO
+    static final class CitaBusquedaSerializer extends StdSerializer<CitaBusquedaDTO> {
+
+        CitaBusquedaSerializer() {
+            super(CitaBusquedaDTO.class);
+        }
+
+        @Override
+        public void serialize(CitaBusquedaDTO c, JsonGenerator g, SerializationContext ctxt) {
+            g.writeStartObject(c);
+            numero(g, ID, c.getId());
+            texto(g, NOMBRE_CLIENTE, c.getNombreCliente());
+            texto(g, EMAIL, c.getEmail());
+            texto(g, SERVICIO, c.getServicio());
+            fecha(g, FECHA, c.getFecha());
+            hora(g, HORA_INICIO, c.getHoraInicio());
+            estado(g, c.getEstado());
+            texto(g, CODIGO_CONFIRMACION, c.getCodigoConfirmacion());
+            entero(g, PUNTUACION, c.getPuntuacion());
+            g.writeEndObject();
+        }
+    }
+
+    // ==== java.time (tambien para los DTOs sin serializador propio y los listados con fields=) ====
+
+    static final class LocalDateSerializer extends StdSerializer<LocalDate> {
+
+        LocalDateSerializer() {
+            super(LocalDate.class);
+        }
+
+        @Override
+        public void serialize(LocalDate valor, JsonGenerator g, SerializationContext ctxt) {
+            FormatoTiempo.escribir(valor, g);
+        }
+    }
+
+    static final class LocalTimeSerializer extends StdSerializer<LocalTime> {
+
+        LocalTimeSerializer() {
+            super(LocalTime.class);
+        }
+
+        @Override
+        public void serialize(LocalTime valor, JsonGenerator g, SerializationContext ctxt) {
+            FormatoTiempo.escribir(valor, g);
+        }
+    }
+
+    static final class LocalDateTimeSerializer extends StdSerializer<LocalDateTime> {
+
+        LocalDateTimeSerializer() {
+            super(LocalDateTime.class);
+        }
+
+        @Override
+        public void serialize(LocalDateTime valor, JsonGenerator g, SerializationContext ctxt) {
+            FormatoTiempo.escribir(valor, g);
+        }
+    }
+
+    // ==== campos ====
+
+    private static void texto(JsonGenerator g, SerializedString nombre, String valor) {
+        g.writeName(nombre);
+        if (valor == null) {
+            g.writeNull();
+        } else {
+            g.writeString(valor);
+        }
+    }
+
+    private static void numero(JsonGenerator g, SerializedString nombre, Long valor) {
+        g.writeName(nombre);
+        if (valor == null) {
+            g.writeNull();
+        } else {
+            g.writeNumber(valor);
+        }
+    }
+
+    private static void entero(JsonGenerator g, SerializedString nombre, Integer valor) {
+        g.writeName(nombre);
+        if (valor == null) {
+            g.writeNull();
+        } else {
+            g.writeNumber(valor);
+        }
+    }
+
+    private static void decimal(JsonGenerator g, SerializedString nombre, BigDecimal valor) {
+        g.writeName(nombre);
+        if (valor == null) {
+            g.writeNull();
+        } else {
+            g.writeNumber(valor);
+        }
+    }
+
+    private static void estado(JsonGenerator g, EstadoCita valor) {
+        g.writeName(ESTADO);
+        if (valor == null) {
+            g.writeNull();
+        } else {
+            g.writeString(ESTADOS[valor.ordinal()]);
+        }
+    }
+
+    private static void fecha(JsonGenerator g, SerializedString nombre, LocalDate valor) {
+        g.writeName(nombre);
+        if (valor == null) {
+            g.writeNull();
+        } else {
+            FormatoTiempo.escribir(valor, g);
+        }
+    }
+
+    private static void hora(JsonGenerator g, SerializedString nombre, LocalTime valor) {
+        g.writeName(nombre);
+        if (valor == null) {
+            g.writeNull();
+        } else {
+            FormatoTiempo.escribir(valor, g);
+        }
+    }
+
+    private static void fechaHora(JsonGenerator g, SerializedString nombre, LocalDateTime valor) {
+        g.writeName(nombre);
+        if (valor == null) {
+            g.writeNull();
+        } else {
+            FormatoTiempo.escribir(valor, g);
+        }
+    }
+}
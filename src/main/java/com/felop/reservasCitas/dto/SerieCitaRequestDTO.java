@@ -0,0 +1,62 @@
+package com.felop.reservasCitas.dto;
+//DTO para crear una serie de citas recurrentes
+//la cita base define la primera ocurrencia; las demas repiten el mismo horario
+//Este DTO se usa en:
+//POST /api/v1/citas/series
+
+import com.felop.reservasCitas.model.FrecuenciaSerie;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SerieCitaRequestDTO {
+
+    //datos de la primera cita de la serie (mismas validaciones que una cita individual)
+    @Valid
+    @NotNull(message = "Los datos de la cita son obligatorios")
+    private CitaRequestDTO cita;
+
+    //SEMANAL o QUINCENAL
+    @NotNull(message = "La frecuencia es obligatoria")
+    private FrecuenciaSerie frecuencia;
+
+    //ultima fecha posible de la serie (inclusive), alternativa a repeticiones
+    private LocalDate fechaFin;
+
+    //numero total de citas de la serie, alternativa a fechaFin
+    @Min(value = 1, message = "La serie debe tener al menos una cita")
+    @Max(value = 52, message = "La serie no puede tener mas de 52 citas")
+    private Integer repeticiones;
+
+    //true: si alguna ocurrencia no esta disponible no se crea ninguna
+    //false (por defecto): se crean las disponibles y se informan los conflictos
+    private boolean todasONinguna;
+
+    //==== VALIDACIONES PERSONALIZADAS ====
+    //se debe indicar exactamente uno de fechaFin o repeticiones
+    @AssertTrue(message = "Debe indicar fechaFin o repeticiones, pero no ambos")
+    public boolean isFinUnico(){
+        return (fechaFin == null) != (repeticiones == null);
+    }
+
+    //la fecha de fin no puede ser anterior a la primera cita
+    @AssertTrue(message = "La fecha de fin debe ser posterior a la primera cita")
+    public boolean isFechaFinPosterior(){
+        if (fechaFin == null || cita == null || cita.getFecha() == null){
+            return true;
+        }
+        return !fechaFin.isBefore(cita.getFecha());
+    }
+}
@@ -0,0 +1,31 @@
+package com.felop.reservasCitas.dto;
+//DTO de respuesta tras crear una serie de citas recurrentes
+//Este DTO se usa en:
+//POST /api/v1/citas/series
+
+import com.felop.reservasCitas.model.FrecuenciaSerie;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SerieCitaResponseDTO {
+
+    //frecuencia de la serie
+    private FrecuenciaSerie frecuencia;
+
+    //numero de ocurrencias calculadas
+    private Integer totalOcurrencias;
+
+    //citas creadas, en orden de fecha
+    private List<CitaConfirmacionDTO> creadas;
+
+    //ocurrencias no reservadas y su motivo
+    private List<ConflictoSerieDTO> conflictos;
+}
@@ -0,0 +1,20 @@
+package com.felop.reservasCitas.exceptions;
+
+/*Base de las excepciones de negocio (errores esperados que terminan en 4xx)
+ *
+ * son muy frecuentes (ej: 409 en picos de reservas) y nunca se loguean con traza,
+ * por eso son baratas de crear: sin stack trace (writableStackTrace = false) ni excepciones suprimidas
+ *
+ * el mensaje se construye siempre: GlobalExceptionHandler lo devuelve en cada respuesta de error*/
+public abstract class BusinessException extends RuntimeException {
+
+//    constructor con mensaje ya construido
+    protected BusinessException(String message){
+        super(message, null, false, false);
+    }
+
+//    constructor con mensaje y causa raiz (la traza queda en la causa)
+    protected BusinessException(String message, Throwable cause){
+        super(message, cause, false, false);
+    }
+}
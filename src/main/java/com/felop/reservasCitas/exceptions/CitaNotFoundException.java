@@ -2,7 +2,7 @@ package com.felop.reservasCitas.exceptions;
 
 //excepcion lansada cuando no se encuentra una cita solicitada
 //se mapea a http 404 not found en el GlobalExceptionHandler
-public class CitaNotFoundException extends RuntimeException{
+public class CitaNotFoundException extends BusinessException {
 
 //    Constructor con mensaje personalizado
     public CitaNotFoundException(String message){
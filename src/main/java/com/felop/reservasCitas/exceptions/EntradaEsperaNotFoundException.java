@@ -0,0 +1,11 @@
+package com.felop.reservasCitas.exceptions;
+
+//excepcion lanzada cuando no existe la inscripcion de lista de espera solicitada
+//se mapea a http 404 not found en el GlobalExceptionHandler
+public class EntradaEsperaNotFoundException extends BusinessException {
+
+//    constructor con mensaje personalizado
+    public EntradaEsperaNotFoundException(String message){
+        super(message);
+    }
+}
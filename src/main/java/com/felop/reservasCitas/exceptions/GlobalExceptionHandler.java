@@ -6,6 +6,8 @@ package com.felop.reservasCitas.exceptions;
 * devuelve las respuestas automaticamente como json
 * centraliza el manejo de errores en un unico punto*/
 
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -32,17 +34,17 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler(CitaNotFoundException.class)
     public ResponseEntity<ErrorResponse> handleCitaNotFound(CitaNotFoundException ex){
+        return buildError(HttpStatus.NOT_FOUND, ex.getMessage());
+    }
 
-        ErrorResponse error = ErrorResponse.builder()
-                .timestamp(LocalDateTime.now())
-                .status(HttpStatus.NOT_FOUND.value())
-                .error(HttpStatus.NOT_FOUND.getReasonPhrase())//Not Found
-                .mensaje(ex.getMessage())
-                .build();
-
-        return ResponseEntity
-                .status(HttpStatus.NOT_FOUND)
-                .body(error);
+    /*maneja EntradaEsperaNotFoundException
+    * se lanza cuando:
+    * GET/DELETE -> sobre una inscripcion de lista de espera inexistente
+    *
+    * HTTP Status: 404 Not Found*/
+    @ExceptionHandler(EntradaEsperaNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleEntradaEsperaNotFound(EntradaEsperaNotFoundException ex){
+        return buildError(HttpStatus.NOT_FOUND, ex.getMessage());
     }
 
     /*Maneja InvalidTimeRangeException
@@ -55,17 +57,40 @@ public class GlobalExceptionHandler {
     * HTTP Status: 400 Bad Request*/
     @ExceptionHandler(InvalidTimeRangeException.class)
     public ResponseEntity<ErrorResponse> handleInvalidTimeRange(InvalidTimeRangeException ex){
+        return buildError(HttpStatus.BAD_REQUEST, ex.getMessage());
+    }
 
-        ErrorResponse error = ErrorResponse.builder()
-                .timestamp(LocalDateTime.now())
-                .status(HttpStatus.BAD_REQUEST.value())
-                .error(HttpStatus.BAD_REQUEST.getReasonPhrase())//BAD_REQUEST
-                .mensaje(ex.getMessage())
-                .build();
+    /*maneja InvalidFieldSelectionException
+    *
+    * se lanza cuando:
+    * GET (listados) -> fields con un campo que no existe o sin campos
+    *
+    * HTTP Status: 400 Bad Request*/
+    @ExceptionHandler(InvalidFieldSelectionException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidFieldSelection(InvalidFieldSelectionException ex){
+        return buildError(HttpStatus.BAD_REQUEST, ex.getMessage());
+    }
 
-        return ResponseEntity
-                .status(HttpStatus.BAD_REQUEST)
-                .body(error);
+    /*maneja InvalidCursorException
+    *
+    * se lanza cuando:
+    * GET /filtro -> despues con un cursor alterado o que no devolvio la API
+    *
+    * HTTP Status: 400 Bad Request*/
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidCursor(InvalidCursorException ex){
+        return buildError(HttpStatus.BAD_REQUEST, ex.getMessage());
+    }
+
+    /*maneja UnknownBranchException
+    *
+    * se lanza cuando:
+    * cualquier peticion -> header X-Sucursal con una sucursal no configurada
+    *
+    * HTTP Status: 400 Bad Request*/
+    @ExceptionHandler(UnknownBranchException.class)
+    public ResponseEntity<ErrorResponse> handleUnknownBranch(UnknownBranchException ex){
+        return buildError(HttpStatus.BAD_REQUEST, ex.getMessage());
     }
 
     /*maneja TimeSlotNotAvailableException
@@ -78,17 +103,7 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler(TimeSlotNotAvailableException.class)
     public ResponseEntity<ErrorResponse> handleTimeSlotNotAvailable(TimeSlotNotAvailableException ex){
-
-        ErrorResponse error = ErrorResponse.builder()
-                .timestamp(LocalDateTime.now())
-                .status(HttpStatus.CONFLICT.value())
-                .error(HttpStatus.CONFLICT.getReasonPhrase())//CONFLICT
-                .mensaje(ex.getMessage())
-                .build();
-
-        return ResponseEntity
-                .status(HttpStatus.CONFLICT)
-                .body(error);
+        return buildError(HttpStatus.CONFLICT, ex.getMessage());
     }
 
     /*maneja InvalidStateTransitionException
@@ -101,17 +116,72 @@ public class GlobalExceptionHandler {
     * HTTP Status: 400 Bad Request*/
     @ExceptionHandler(InvalidStateTransitionException.class)
     public ResponseEntity<ErrorResponse> handleInvalidStateTransition(InvalidStateTransitionException ex){
+        return buildError(HttpStatus.BAD_REQUEST, ex.getMessage());
+    }
 
-        ErrorResponse error = ErrorResponse.builder()
-                .timestamp(LocalDateTime.now())
-                .status(HttpStatus.BAD_REQUEST.value())
-                .error(HttpStatus.BAD_REQUEST.getReasonPhrase())//BAD_REQUEST
-                .mensaje(ex.getMessage())
-                .build();
+    /*maneja IdempotencyKeyReuseException
+    *
+    * se lanza cuando:
+    * POST/PATCH -> reutiliza un Idempotency-Key con un body o id diferente
+    *
+    * HTTP Status: 422 Unprocessable Entity*/
+    @ExceptionHandler(IdempotencyKeyReuseException.class)
+    public ResponseEntity<ErrorResponse> handleIdempotencyKeyReuse(IdempotencyKeyReuseException ex){
+        return buildError(HttpStatus.UNPROCESSABLE_ENTITY, ex.getMessage());
+    }
+
+    /*maneja PreconditionFailedException
+    *
+    * se lanza cuando:
+    * PUT -> la version de If-Match no coincide con la version actual de la cita
+    *
+    * HTTP Status: 412 Precondition Failed*/
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<ErrorResponse> handlePreconditionFailed(PreconditionFailedException ex){
+        return buildError(HttpStatus.PRECONDITION_FAILED, ex.getMessage());
+    }
+
+    /*maneja OptimisticLockingFailureException (columna @Version)
+    *
+    * se lanza cuando:
+    * PUT/PATCH -> otra transaccion modifico la cita entre la lectura y la escritura
+    * (el UPDATE ... where version = ? no afecto ninguna fila)
+    *
+    * el cliente debe volver a leer la cita y reintentar con el nuevo ETag
+    *
+    * HTTP Status: 412 Precondition Failed*/
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> handleOptimisticLockingFailure(OptimisticLockingFailureException ex){
+        return buildError(HttpStatus.PRECONDITION_FAILED,
+                "La cita fue modificada por otra peticion. Vuelva a consultarla y reintente");
+    }
+
+    /*maneja PreconditionRequiredException
+    *
+    * se lanza cuando:
+    * PUT -> sin header If-Match
+    *
+    * HTTP Status: 428 Precondition Required*/
+    @ExceptionHandler(PreconditionRequiredException.class)
+    public ResponseEntity<ErrorResponse> handlePreconditionRequired(PreconditionRequiredException ex){
+        return buildError(HttpStatus.PRECONDITION_REQUIRED, ex.getMessage());
+    }
+
+    /*maneja RateLimitExceededException
+    *
+    * se lanza cuando:
+    * POST/PUT/PATCH/DELETE -> el cliente agoto los tokens de su nivel
+    *
+    * incluye el header Retry-After con los segundos a esperar
+    *
+    * HTTP Status: 429 Too Many Requests*/
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<ErrorResponse> handleRateLimitExceeded(RateLimitExceededException ex){
 
         return ResponseEntity
-                .status(HttpStatus.BAD_REQUEST)
-                .body(error);
+                .status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSegundos()))
+                .body(errorResponse(HttpStatus.TOO_MANY_REQUESTS, ex.getMessage()));
     }
 
     //==== validaciones bean validation ====
@@ -181,4 +251,23 @@ public class GlobalExceptionHandler {
                 .status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(error);
     }
+
+    // ==== construccion de respuestas ====
+
+    /*camino corto para los rechazos del negocio (404/400/409/412/422/428):
+    * sin logging ni stack trace*/
+    private static ResponseEntity<ErrorResponse> buildError(HttpStatus status, String mensaje){
+        return ResponseEntity
+                .status(status)
+                .body(errorResponse(status, mensaje));
+    }
+
+    private static ErrorResponse errorResponse(HttpStatus status, String mensaje){
+        return ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(status.value())
+                .error(status.getReasonPhrase())
+                .mensaje(mensaje)
+                .build();
+    }
 }
@@ -0,0 +1,17 @@
+package com.felop.reservasCitas.exceptions;
+
+//Excepcion lanzada cuando se reutiliza un Idempotency-Key con una peticion distinta
+//se mapea a http 422 unprocessable entity en el GlobalExceptionHandler
+
+public class IdempotencyKeyReuseException extends BusinessException {
+
+//    constructor con mensaje personalizado
+    public IdempotencyKeyReuseException(String message){
+        super(message);
+    }
+
+//    constructor con mensaje y causa raiz
+    public IdempotencyKeyReuseException(String message, Throwable cause){
+        super(message, cause);
+    }
+}
@@ -0,0 +1,11 @@
+package com.felop.reservasCitas.exceptions;
+
+//Excepcion lanzada cuando el cursor de paginacion (despues=) no es uno devuelto por la API
+
+public class InvalidCursorException extends BusinessException {
+
+//    constructor con mensaje personalizado
+    public InvalidCursorException(String message){
+        super(message);
+    }
+}
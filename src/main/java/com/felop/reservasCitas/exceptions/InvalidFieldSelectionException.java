@@ -0,0 +1,11 @@
+package com.felop.reservasCitas.exceptions;
+
+//Excepcion lanzada cuando el parametro fields pide un campo que no existe en la cita
+
+public class InvalidFieldSelectionException extends BusinessException {
+
+//    constructor con mensaje personalizado
+    public InvalidFieldSelectionException(String message){
+        super(message);
+    }
+}
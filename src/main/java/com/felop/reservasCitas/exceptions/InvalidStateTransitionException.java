@@ -13,7 +13,7 @@ cancelada -> completada
 completada -> cualquiera
 cancelada -> cancelada*/
 
-public class InvalidStateTransitionException extends RuntimeException{
+public class InvalidStateTransitionException extends BusinessException {
 
 //    constructor mensaje personalizado
     public InvalidStateTransitionException(String message){
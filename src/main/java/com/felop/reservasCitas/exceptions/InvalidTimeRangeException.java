@@ -2,7 +2,7 @@ package com.felop.reservasCitas.exceptions;
 
 //Excepcion lanzada cuando el rango de horario de una cita es invalido
 
-public class InvalidTimeRangeException extends RuntimeException {
+public class InvalidTimeRangeException extends BusinessException {
 
 //    constructor con mensaje personalizado
     public InvalidTimeRangeException(String message){
@@ -0,0 +1,12 @@
+package com.felop.reservasCitas.exceptions;
+
+//excepcion lanzada cuando la version enviada en If-Match no coincide con la version actual de la cita
+//(otro cliente la modifico despues de que se leyera)
+
+public class PreconditionFailedException extends BusinessException {
+
+//    constructor mensaje personalizado
+    public PreconditionFailedException(String message){
+        super(message);
+    }
+}
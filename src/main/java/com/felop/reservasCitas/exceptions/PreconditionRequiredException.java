@@ -0,0 +1,11 @@
+package com.felop.reservasCitas.exceptions;
+
+//excepcion lanzada cuando una actualizacion que exige If-Match llega sin ese header
+
+public class PreconditionRequiredException extends BusinessException {
+
+//    constructor mensaje personalizado
+    public PreconditionRequiredException(String message){
+        super(message);
+    }
+}
@@ -0,0 +1,19 @@
+package com.felop.reservasCitas.exceptions;
+
+import lombok.Getter;
+
+//Excepcion lanzada cuando un cliente supera su limite de peticiones de escritura
+//se mapea a http 429 too many requests en el GlobalExceptionHandler
+
+@Getter
+public class RateLimitExceededException extends BusinessException {
+
+//    segundos que el cliente debe esperar antes de reintentar (header Retry-After)
+    private final long retryAfterSegundos;
+
+//    constructor con mensaje personalizado y tiempo de espera
+    public RateLimitExceededException(String message, long retryAfterSegundos){
+        super(message);
+        this.retryAfterSegundos = retryAfterSegundos;
+    }
+}
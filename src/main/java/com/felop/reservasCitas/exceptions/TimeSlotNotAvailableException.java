@@ -2,7 +2,7 @@ package com.felop.reservasCitas.exceptions;
 
 //Excepcion lanzada cuando se intenta reservar un horario ya ocupado
 
-public class TimeSlotNotAvailableException extends RuntimeException{
+public class TimeSlotNotAvailableException extends BusinessException {
 
 //    constructor con mensaje personalizado
     public TimeSlotNotAvailableException(String message){
@@ -0,0 +1,11 @@
+package com.felop.reservasCitas.exceptions;
+
+//Excepcion lanzada cuando el header X-Sucursal indica una sucursal que no esta configurada
+
+public class UnknownBranchException extends BusinessException {
+
+//    constructor con mensaje personalizado
+    public UnknownBranchException(String message){
+        super(message);
+    }
+}
@@ -5,6 +5,8 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -14,28 +16,33 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 
 @Entity
-@Table(name = "citas")
+//el indice por fecha sigue el orden del listado filtrado: rango de fechas y keyset sin ordenar en memoria
+//el indice por cliente resuelve el historial de un cliente (join desde clientes por email)
+@Table(name = "citas", indexes = {
+        @Index(name = "idx_citas_fecha_hora", columnList = "fecha, horaInicio, id"),
+        @Index(name = "idx_citas_cliente", columnList = "cliente_id")
+})
+//cache de segundo nivel: READ_WRITE mantiene la cache consistente al actualizar o cambiar de estado
+//region sin puntos: Caffeine busca su configuracion como ruta caffeine.jcache.<region> (ver application.conf)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Cita.REGION_CACHE)
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 public class Cita {
 
+    public static final String REGION_CACHE = "citas";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    //nombre del cliente que reserva
-    @Column(nullable = false, length = 100)
-    private String nombreCliente;
-
-    //email de contacto del cliente
-    @Column(nullable = false, length = 20)
-    private String email;
-
-    //telefono de contacto del cliente
-    @Column(nullable = false)
-    private String telefono;
+    //cliente que reserva (nombre, email y telefono viven en la tabla clientes)
+    //LAZY: los listados que lo necesitan lo traen con un join, el resto lo lee de la cache de segundo nivel
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "cliente_id", nullable = false)
+    private Cliente cliente;
 
     //Fecha de la cita
     @Column(nullable = false)
@@ -79,4 +86,12 @@ public class Cita {
     @UpdateTimestamp//@UpdateTimestamp actualiza automáticamente en cada modificación.
     @Column(nullable = false)
     private LocalDateTime updatedAt;
+
+    /*version para control de concurrencia optimista
+     * Hibernate la incrementa en cada UPDATE y lo condiciona con "where version = ?":
+     * si otra transaccion modifico la cita antes, la escritura falla en lugar de pisarla
+     * se expone a los clientes como ETag (If-Match en PUT)*/
+    @Version
+    @Column(nullable = false)
+    private Long version;
 }
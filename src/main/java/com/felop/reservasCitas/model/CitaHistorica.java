@@ -0,0 +1,75 @@
+package com.felop.reservasCitas.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+//Cita finalizada (COMPLETADA o CANCELADA) movida a la tabla historica
+//conserva el id original; la tabla citas solo guarda citas "calientes"
+@Entity
+@Table(name = "citas_historico", indexes = {
+        @Index(name = "idx_historico_email", columnList = "email"),
+        @Index(name = "idx_historico_codigo", columnList = "codigoConfirmacion")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CitaHistorica {
+
+    //mismo id que tenia en la tabla citas
+    @Id
+    private Long id;
+
+    @Column(nullable = false, length = 100)
+    private String nombreCliente;
+
+    //copia del email normalizado del cliente al archivar
+    @Column(nullable = false, length = 254)
+    private String email;
+
+    @Column(nullable = false)
+    private String telefono;
+
+    @Column(nullable = false)
+    private LocalDate fecha;
+
+    @Column(nullable = false)
+    private LocalTime horaInicio;
+
+    @Column(nullable = false)
+    private LocalTime horaFin;
+
+    @Column(nullable = false, length = 100)
+    private String servicio;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private EstadoCita estado;
+
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal precio;
+
+    @Column(length = 500)
+    private String notas;
+
+    @Column(nullable = false, length = 10)
+    private String codigoConfirmacion;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    //Timestamp del archivado
+    @Column(nullable = false)
+    private LocalDateTime archivadaEn;
+}
@@ -0,0 +1,60 @@
+package com.felop.reservasCitas.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.Locale;
+
+//Cliente que reserva citas (tabla clientes)
+//una fila por email normalizado: las citas lo referencian por id en lugar de repetir sus datos
+@Entity
+@Table(name = "clientes")
+//cache de segundo nivel: cada cita que se lee necesita los datos de su cliente
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Cliente.REGION_CACHE)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class Cliente {
+
+    public static final String REGION_CACHE = "clientes";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    //email normalizado (ver normalizarEmail), identifica al cliente
+    //254: longitud maxima de una direccion de email (RFC 5321)
+    @Column(unique = true, nullable = false, length = 254)
+    private String email;
+
+    //nombre y telefono de la ultima reserva del cliente
+    @Column(nullable = false, length = 100)
+    private String nombre;
+
+    @Column(nullable = false)
+    private String telefono;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    //forma canonica del email: sin espacios y en minusculas
+    //"Ana@Mail.com " y "ana@mail.com" son el mismo cliente
+    public static String normalizarEmail(String email) {
+        return email == null ? null : email.strip().toLowerCase(Locale.ROOT);
+    }
+}
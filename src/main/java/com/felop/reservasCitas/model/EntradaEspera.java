@@ -0,0 +1,80 @@
+package com.felop.reservasCitas.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+//Inscripcion de un cliente en la lista de espera de una fecha
+//el cliente indica la franja en la que le sirve cualquier hueco de la duracion pedida
+@Entity
+@Table(name = "lista_espera", indexes = @Index(name = "idx_lista_espera_fecha_estado", columnList = "fecha, estado"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class EntradaEspera {
+
+    //el id autoincremental define el orden de llegada en la cola de su fecha
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    //datos del cliente (los mismos que pide una cita)
+    @Column(nullable = false, length = 100)
+    private String nombreCliente;
+
+    @Column(nullable = false, length = 100)
+    private String email;
+
+    @Column(nullable = false)
+    private String telefono;
+
+    //fecha deseada
+    @Column(nullable = false)
+    private LocalDate fecha;
+
+    //franja aceptable: la cita debe empezar y terminar dentro de ella
+    @Column(nullable = false)
+    private LocalTime desde;
+
+    @Column(nullable = false)
+    private LocalTime hasta;
+
+    //duracion de la cita deseada
+    @Column(nullable = false)
+    private int duracionMinutos;
+
+    @Column(nullable = false, length = 100)
+    private String servicio;
+
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal precio;
+
+    @Column(length = 500)
+    private String notas;
+
+    //true: se reserva la cita directamente; false: solo se avisa al cliente
+    @Column(nullable = false)
+    private boolean autoReservar;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private EstadoEspera estado;
+
+    //codigo de la cita reservada automaticamente (estado ASIGNADA)
+    @Column(length = 10)
+    private String codigoConfirmacion;
+
+    //Timestamp de la inscripcion
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,16 @@
+package com.felop.reservasCitas.model;
+
+//estado de una inscripcion en la lista de espera
+public enum EstadoEspera {
+    //esperando a que se libere un horario compatible
+    ESPERANDO,
+
+    //se libero un horario y se aviso al cliente para que lo reserve
+    OFRECIDA,
+
+    //se reservo automaticamente la cita liberada
+    ASIGNADA,
+
+    //el cliente salio de la lista de espera
+    RETIRADA
+}
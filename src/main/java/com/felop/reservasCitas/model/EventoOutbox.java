@@ -0,0 +1,50 @@
+package com.felop.reservasCitas.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+//Evento pendiente de publicar (patron transactional outbox)
+//se inserta en la misma transaccion que el cambio de la Cita
+//y un relay en segundo plano lo publica y lo elimina
+@Entity
+@Table(name = "outbox_eventos")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventoOutbox {
+
+    //el id autoincremental define el orden de publicacion
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    //id de la cita a la que se refiere el evento
+    @Column(nullable = false)
+    private Long citaId;
+
+    //tipo de cambio
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    private TipoEventoCita tipo;
+
+    //estado de la cita tras el cambio, serializado en JSON
+    @Lob
+    @Column(nullable = false)
+    private String payload;
+
+    //Timestamp del cambio
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    //intentos de publicacion fallidos
+    @Column(nullable = false)
+    private int intentos;
+}
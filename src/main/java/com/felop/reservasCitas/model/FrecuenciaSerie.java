@@ -0,0 +1,21 @@
+package com.felop.reservasCitas.model;
+
+//frecuencia de repeticion de una serie de citas
+public enum FrecuenciaSerie {
+    //la misma hora cada semana
+    SEMANAL(1),
+
+    //la misma hora cada dos semanas
+    QUINCENAL(2);
+
+    private final int semanas;
+
+    FrecuenciaSerie(int semanas) {
+        this.semanas = semanas;
+    }
+
+    //semanas entre dos ocurrencias consecutivas
+    public int getSemanas() {
+        return semanas;
+    }
+}
@@ -0,0 +1,53 @@
+package com.felop.reservasCitas.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+//Resumen agregado de citas por dia, servicio y estado
+//se mantiene de forma incremental en cada escritura de CitaServiceImpl
+//para que los reportes recorran dias y no todas las citas
+@Entity
+@Table(name = "resumen_diario",
+        uniqueConstraints = @UniqueConstraint(name = "uk_resumen_fecha_servicio_estado",
+                columnNames = {"fecha", "servicio", "estado"}))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResumenDiario {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    //fecha de las citas agregadas
+    @Column(nullable = false)
+    private LocalDate fecha;
+
+    //tipo de servicio
+    @Column(nullable = false, length = 100)
+    private String servicio;
+
+    //estado de las citas agregadas
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private EstadoCita estado;
+
+    //numero de citas
+    @Column(nullable = false)
+    private Long totalCitas;
+
+    //suma de precios
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal totalIngresos;
+
+    //suma de la duracion de las citas en minutos
+    @Column(nullable = false)
+    private Long minutosReservados;
+}
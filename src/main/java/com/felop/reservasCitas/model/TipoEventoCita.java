@@ -0,0 +1,22 @@
+package com.felop.reservasCitas.model;
+
+//tipos de eventos de cambio de una cita publicados a sistemas externos
+public enum TipoEventoCita {
+    //cita creada (estado PENDIENTE)
+    CITA_CREADA,
+
+    //datos de la cita modificados (PUT)
+    CITA_ACTUALIZADA,
+
+    //pendiente -> confirmada
+    CITA_CONFIRMADA,
+
+    //pendiente/confirmada -> cancelada
+    CITA_CANCELADA,
+
+    //confirmada -> completada
+    CITA_COMPLETADA,
+
+    //cita eliminada
+    CITA_ELIMINADA
+}
@@ -0,0 +1,19 @@
+package com.felop.reservasCitas.model;
+
+//tipos de mensajes enviados al cliente
+public enum TipoNotificacion {
+    //cita reservada, pendiente de que el cliente confirme su asistencia
+    RESERVA_CREADA,
+
+    //el cliente confirmo su asistencia
+    CITA_CONFIRMADA,
+
+    //la cita fue cancelada
+    CITA_CANCELADA,
+
+    //recordatorio de una cita confirmada proxima
+    RECORDATORIO,
+
+    //se libero un horario compatible con una inscripcion de la lista de espera
+    HUECO_DISPONIBLE
+}
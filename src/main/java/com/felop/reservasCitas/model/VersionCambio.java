@@ -0,0 +1,52 @@
+package com.felop.reservasCitas.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+//Version de cambios de una fecha o de una cita (tabla versiones_cambio)
+//se incrementa en la misma transaccion que cada escritura de citas;
+//cada instancia consulta las filas modificadas recientemente para invalidar sus caches locales
+@Entity
+@Table(name = "versiones_cambio",
+        indexes = @Index(name = "idx_versiones_cambio_modificado", columnList = "modificado"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class VersionCambio {
+
+    public static final String PREFIJO_FECHA = "fecha:";
+    public static final String PREFIJO_CITA = "cita:";
+    public static final String PREFIJO_CLIENTE = "cliente:";
+
+    //elemento cambiado: "fecha:2026-03-15", "cita:42" o "cliente:7"
+    @Id
+    @Column(length = 40)
+    private String clave;
+
+    //numero de cambios confirmados del elemento
+    @Column(nullable = false)
+    private long version;
+
+    //instante del ultimo cambio, indexado para consultar solo lo reciente
+    @Column(nullable = false)
+    private LocalDateTime modificado;
+
+    public static String claveFecha(LocalDate fecha) {
+        return PREFIJO_FECHA + fecha;
+    }
+
+    public static String claveCita(Long id) {
+        return PREFIJO_CITA + id;
+    }
+
+    public static String claveCliente(Long id) {
+        return PREFIJO_CLIENTE + id;
+    }
+}
@@ -0,0 +1,18 @@
+package com.felop.reservasCitas.repository;
+//Fragmento de repositorio para consultas que seleccionan solo algunas columnas
+//(fields= en los listados de citas), compartido por citas y citas archivadas
+import org.springframework.data.domain.Sort;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public interface CamposRepository {
+
+    /*filas de la entidad con solo los atributos indicados (nombre del atributo -> valor)
+     * filtros: atributo = valor combinados con AND (vacio: todas las filas)
+     * los atributos que la entidad no tiene se ignoran (ej: version en el historico)
+     * nombreCliente, email y telefono de una cita se leen de su cliente (join con clientes)*/
+    List<Map<String, Object>> findCampos(Class<?> entidad, Collection<String> atributos,
+                                         Map<String, Object> filtros, Sort orden);
+}
@@ -0,0 +1,92 @@
+package com.felop.reservasCitas.repository;
+//Implementacion del fragmento CamposRepository con Criteria API
+//el SELECT solo contiene las columnas pedidas: no se cargan entidades
+//ni se leen columnas grandes (notas) que la vista no necesita
+import com.felop.reservasCitas.model.Cita;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TupleElement;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import jakarta.persistence.metamodel.Attribute;
+import org.springframework.data.domain.Sort;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public class CamposRepositoryImpl implements CamposRepository {
+
+    //atributos de la vista que la entidad guarda en otra tabla: alias -> ruta desde la entidad
+    //(la cita referencia al cliente; el historico conserva una copia en la propia fila)
+    private static final Map<Class<?>, Map<String, String>> RUTAS = Map.of(
+            Cita.class, Map.of(
+                    "nombreCliente", "cliente.nombre",
+                    "email", "cliente.email",
+                    "telefono", "cliente.telefono"));
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Map<String, Object>> findCampos(Class<?> entidad, Collection<String> atributos,
+                                                Map<String, Object> filtros, Sort orden) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<?> root = query.from(entidad);
+
+        //solo los atributos que existen en la entidad, cada uno con su nombre como alias
+        Map<String, String> rutas = RUTAS.getOrDefault(entidad, Map.of());
+        Set<String> existentes = entityManager.getMetamodel().entity(entidad).getAttributes().stream()
+                .map(Attribute::getName)
+                .collect(Collectors.toSet());
+        List<Selection<?>> seleccion = atributos.stream()
+                .distinct()
+                .filter(a -> existentes.contains(a) || rutas.containsKey(a))
+                .<Selection<?>>map(a -> ruta(root, rutas, a).alias(a))
+                .toList();
+        query.multiselect(seleccion);
+
+        query.where(filtros.entrySet().stream()
+                .map(f -> cb.equal(ruta(root, rutas, f.getKey()), f.getValue()))
+                .toArray(Predicate[]::new));
+
+        List<Order> orders = orden.stream()
+                .map(o -> o.isAscending()
+                        ? cb.asc(ruta(root, rutas, o.getProperty()))
+                        : cb.desc(ruta(root, rutas, o.getProperty())))
+                .toList();
+        query.orderBy(orders);
+
+        return entityManager.createQuery(query).getResultStream()
+                .map(CamposRepositoryImpl::aMapa)
+                .toList();
+    }
+
+    //atributo propio o ruta a otra entidad (ej: cliente.email -> join implicito con clientes)
+    private static Path<?> ruta(Root<?> root, Map<String, String> rutas, String atributo) {
+        Path<?> path = root;
+        for (String parte : rutas.getOrDefault(atributo, atributo).split("\\.")) {
+            path = path.get(parte);
+        }
+        return path;
+    }
+
+    private static Map<String, Object> aMapa(Tuple tupla) {
+        List<TupleElement<?>> elementos = tupla.getElements();
+        Map<String, Object> fila = new HashMap<>(elementos.size() * 2);
+        for (TupleElement<?> e : elementos) {
+            fila.put(e.getAlias(), tupla.get(e));
+        }
+        return fila;
+    }
+}
@@ -0,0 +1,24 @@
+package com.felop.reservasCitas.repository;
+//Fragmento de repositorio para el listado de citas con filtros combinables
+//paginado por keyset: cada pagina continua despues de la ultima cita de la anterior
+import com.felop.reservasCitas.dto.FiltroCitasDTO;
+import com.felop.reservasCitas.model.Cita;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+public interface CitaFiltroRepository {
+
+    /*citas que cumplen todos los filtros informados, ordenadas por fecha, horaInicio e id
+     * despues: posicion de la ultima cita ya devuelta (null: desde el principio)*/
+    List<Cita> findFiltradas(FiltroCitasDTO filtro, Posicion despues, int limite);
+
+    //clave de ordenacion de una cita: el id desempata citas a la misma hora (ej: canceladas)
+    record Posicion(LocalDate fecha, LocalTime horaInicio, Long id) {
+
+        public static Posicion of(Cita cita) {
+            return new Posicion(cita.getFecha(), cita.getHoraInicio(), cita.getId());
+        }
+    }
+}
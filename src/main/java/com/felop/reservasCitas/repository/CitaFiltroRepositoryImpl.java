@@ -0,0 +1,84 @@
+package com.felop.reservasCitas.repository;
+//Implementacion del fragmento CitaFiltroRepository con Criteria API
+//una sola consulta tipada: solo se agregan los predicados de los filtros informados
+//y el orden coincide con el indice (fecha, horaInicio, id), asi la BD filtra y corta la pagina
+import com.felop.reservasCitas.dto.FiltroCitasDTO;
+import com.felop.reservasCitas.model.Cita;
+import com.felop.reservasCitas.model.Cliente;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class CitaFiltroRepositoryImpl implements CitaFiltroRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Cita> findFiltradas(FiltroCitasDTO filtro, Posicion despues, int limite) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Cita> query = cb.createQuery(Cita.class);
+        Root<Cita> root = query.from(Cita.class);
+        //el cliente se trae en la misma consulta y el mismo join sirve para filtrar por email
+        @SuppressWarnings("unchecked")
+        Join<Cita, Cliente> cliente = (Join<Cita, Cliente>) root.<Cita, Cliente>fetch("cliente");
+
+        List<Predicate> predicados = new ArrayList<>();
+        if (filtro.getDesde() != null) {
+            predicados.add(cb.greaterThanOrEqualTo(root.get("fecha"), filtro.getDesde()));
+        }
+        if (filtro.getHasta() != null) {
+            predicados.add(cb.lessThanOrEqualTo(root.get("fecha"), filtro.getHasta()));
+        }
+        if (filtro.getEstados() != null && !filtro.getEstados().isEmpty()) {
+            predicados.add(root.get("estado").in(filtro.getEstados()));
+        }
+        if (filtro.getServicio() != null) {
+            predicados.add(cb.equal(root.get("servicio"), filtro.getServicio()));
+        }
+        if (filtro.getEmail() != null) {
+            predicados.add(cb.equal(cliente.get("email"), Cliente.normalizarEmail(filtro.getEmail())));
+        }
+        if (filtro.getPrecioMin() != null) {
+            predicados.add(cb.greaterThanOrEqualTo(root.get("precio"), filtro.getPrecioMin()));
+        }
+        if (filtro.getPrecioMax() != null) {
+            predicados.add(cb.lessThanOrEqualTo(root.get("precio"), filtro.getPrecioMax()));
+        }
+        if (despues != null) {
+            predicados.add(despuesDe(cb, root, despues));
+        }
+
+        query.where(predicados.toArray(Predicate[]::new));
+        query.orderBy(cb.asc(root.get("fecha")), cb.asc(root.get("horaInicio")), cb.asc(root.get("id")));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limite)
+                .getResultList();
+    }
+
+    /*(fecha, horaInicio, id) > (f, h, i) escrito por columnas:
+     * fecha > f OR (fecha = f AND (horaInicio > h OR (horaInicio = h AND id > i)))
+     * el primer termino (fecha >= f) deja a la BD empezar el recorrido del indice en f*/
+    private static Predicate despuesDe(CriteriaBuilder cb, Root<Cita> root, Posicion p) {
+        Path<LocalDate> fecha = root.get("fecha");
+        Path<LocalTime> hora = root.get("horaInicio");
+        Path<Long> id = root.get("id");
+        return cb.and(
+                cb.greaterThanOrEqualTo(fecha, p.fecha()),
+                cb.or(
+                        cb.greaterThan(fecha, p.fecha()),
+                        cb.greaterThan(hora, p.horaInicio()),
+                        cb.and(cb.equal(hora, p.horaInicio()), cb.greaterThan(id, p.id()))));
+    }
+}
@@ -0,0 +1,40 @@
+package com.felop.reservasCitas.repository;
+//Repositorio de citas archivadas (tabla citas_historico)
+import com.felop.reservasCitas.model.CitaHistorica;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface CitaHistoricaRepository extends JpaRepository<CitaHistorica, Long>, CamposRepository {
+
+    //busca una cita archivada por su codigo de confirmacion
+    //puede haber varias si el codigo se reutilizo antes de existir el historico
+    Optional<CitaHistorica> findFirstByCodigoConfirmacionOrderByFechaDesc(String codigo);
+
+    //verifica si un codigo ya fue usado por una cita archivada
+    boolean existsByCodigoConfirmacion(String codigo);
+
+    //codigos de confirmacion (de entre los indicados) usados por citas archivadas
+    @Query("SELECT h.codigoConfirmacion FROM CitaHistorica h WHERE h.codigoConfirmacion IN :codigos")
+    List<String> findExistingCodigos(@Param("codigos") Collection<String> codigos);
+
+    //citas archivadas de un cliente por su email (normalizado)
+    List<CitaHistorica> findByEmailOrderByFechaDesc(String email);
+
+    //copia las citas indicadas de la tabla citas al historico en una sola sentencia
+    //el historico guarda los datos del cliente en la propia fila (se conservan aunque el cliente cambie)
+    @Modifying
+    @Query("INSERT INTO CitaHistorica (id, nombreCliente, email, telefono, fecha, horaInicio, horaFin, " +
+            "servicio, estado, precio, notas, codigoConfirmacion, createdAt, updatedAt, archivadaEn) " +
+            "SELECT a.id, c.nombre, c.email, c.telefono, a.fecha, a.horaInicio, a.horaFin, " +
+            "a.servicio, a.estado, a.precio, a.notas, a.codigoConfirmacion, a.createdAt, a.updatedAt, " +
+            "LOCAL DATETIME FROM Cita a JOIN a.cliente c WHERE a.id IN :ids")
+    int copyFromCitas(@Param("ids") List<Long> ids);
+}
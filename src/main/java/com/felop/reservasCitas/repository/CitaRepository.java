@@ -4,50 +4,135 @@ package com.felop.reservasCitas.repository;
 //y consultaspersonalizadas con @Query
 import com.felop.reservasCitas.model.Cita;
 import com.felop.reservasCitas.model.EstadoCita;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface CitaRepository extends JpaRepository<Cita, Long> {
+public interface CitaRepository extends JpaRepository<Cita, Long>, CamposRepository, CitaFiltroRepository {
 
     //busca cita por su codigo unico de confirmacion
+    @EntityGraph(attributePaths = "cliente")
     Optional<Cita> findByCodigoConfirmacion(String codigo);
 
     //verifica si existe una cita con el codigo de confirmacion dado
     boolean existsByCodigoConfirmacion(String codigo);
 
-    //obtiene todas la citas de un cliente por su email
-    List<Cita> findByEmailOrderByFechaDesc(String email);
+    //todas las citas con su cliente en la misma consulta (sin una lectura por cita)
+    @Override
+    @EntityGraph(attributePaths = "cliente")
+    List<Cita> findAll();
+
+    //obtiene todas la citas de un cliente por su email (normalizado)
+    //join con clientes: indice unico del email y luego indice de citas por cliente_id
+    @EntityGraph(attributePaths = "cliente")
+    List<Cita> findByClienteEmailOrderByFechaDesc(String email);
 
     //filtra citas por estado
+    @EntityGraph(attributePaths = "cliente")
     List<Cita> findByEstadoOrderByFechaAsc(EstadoCita estado);
 
+    //recorre por bloques las citas de una fecha y estado (keyset por id)
+    //usado por el job de recordatorios para no cargar el dia completo
+    @EntityGraph(attributePaths = "cliente")
+    List<Cita> findByFechaAndEstadoAndIdGreaterThanOrderByIdAsc(
+            LocalDate fecha, EstadoCita estado, Long id, Limit limit);
+
     //obtiene todas las citas de una fecha especifica
+    //cacheable: Hibernate invalida el resultado cuando se modifica la tabla citas
+    //con el cliente en la misma consulta; desde la cache cita y cliente salen de sus regiones
+    @EntityGraph(attributePaths = "cliente")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Cita> findByFechaOrderByHoraInicioAsc(LocalDate fecha);
 
-    //detecta si hay cruce de horarios para una nueva cita
-    //solo considera citas pendiente o confirmadas
-    //las citas canceladas o completadas no bloquean horarios
-    @Query("SELECT a FROM Cita a WHERE a.fecha = :fecha " +
+    //codigos de confirmacion (de entre los indicados) que ya estan en uso
+    @Query("SELECT a.codigoConfirmacion FROM Cita a WHERE a.codigoConfirmacion IN :codigos")
+    List<String> findExistingCodigos(@Param("codigos") Collection<String> codigos);
+
+    //ids de citas finalizadas (completadas o canceladas) anteriores a una fecha
+    //usado por el archivado para mover bloques al historico
+    @Query("SELECT a.id FROM Cita a WHERE a.fecha < :fecha " +
+            "AND a.estado IN ('COMPLETADA', 'CANCELADA') " +
+            "ORDER BY a.id ASC")
+    List<Long> findFinishedIdsBefore(@Param("fecha") LocalDate fecha, Limit limit);
+
+    //rango de ids existentes, usado para repartir la carga del indice de busqueda
+    @Query("SELECT MIN(a.id) FROM Cita a")
+    Long findMinId();
+
+    @Query("SELECT MAX(a.id) FROM Cita a")
+    Long findMaxId();
+
+    //citas de un rango de ids con solo los campos del indice de busqueda
+    //(proyeccion: no carga entidades ni llena la cache de segundo nivel)
+    @Query("SELECT a.id AS id, c.nombre AS nombreCliente, c.email AS email, a.servicio AS servicio, " +
+            "a.fecha AS fecha, a.horaInicio AS horaInicio, a.estado AS estado, " +
+            "a.codigoConfirmacion AS codigoConfirmacion " +
+            "FROM Cita a JOIN a.cliente c WHERE a.id BETWEEN :desde AND :hasta")
+    List<CitaIndexable> findByIdBetween(@Param("desde") Long desde, @Param("hasta") Long hasta);
+
+    //citas indicadas con los campos del indice de busqueda (reindexado tras cambios de otras instancias)
+    @Query("SELECT a.id AS id, c.nombre AS nombreCliente, c.email AS email, a.servicio AS servicio, " +
+            "a.fecha AS fecha, a.horaInicio AS horaInicio, a.estado AS estado, " +
+            "a.codigoConfirmacion AS codigoConfirmacion " +
+            "FROM Cita a JOIN a.cliente c WHERE a.id IN :ids")
+    List<CitaIndexable> findByIdIn(@Param("ids") Collection<Long> ids);
+
+    //proyeccion con los campos indexados por la busqueda
+    interface CitaIndexable {
+        Long getId();
+        String getNombreCliente();
+        String getEmail();
+        String getServicio();
+        LocalDate getFecha();
+        LocalTime getHoraInicio();
+        EstadoCita getEstado();
+        String getCodigoConfirmacion();
+    }
+
+    //citas activas y minutos reservados por dia en un rango (calendario mensual)
+    //un solo GROUP BY en lugar de calcular la disponibilidad de cada dia
+    @Query("SELECT a.fecha AS fecha, COUNT(a) AS totalCitas, " +
+            "SUM((EXTRACT(HOUR FROM a.horaFin) - EXTRACT(HOUR FROM a.horaInicio)) * 60 " +
+            "+ EXTRACT(MINUTE FROM a.horaFin) - EXTRACT(MINUTE FROM a.horaInicio)) AS minutosReservados " +
+            "FROM Cita a WHERE a.fecha BETWEEN :desde AND :hasta " +
             "AND a.estado IN ('PENDIENTE', 'CONFIRMADA') " +
-            "AND ((a.horaInicio < :horaFin AND a.horaFin > :horaInicio))")
-    List<Cita> findOverlappingAppointments(
-            @Param("fecha") LocalDate fecha,
-            @Param("horaInicio")LocalTime horaInicio,
-            @Param("horaFin") LocalTime horaFin
-    );
+            "GROUP BY a.fecha ORDER BY a.fecha ASC")
+    List<OcupacionDia> findOcupacionPorDia(@Param("desde") LocalDate desde, @Param("hasta") LocalDate hasta);
+
+    //proyeccion: citas activas y minutos reservados de un dia
+    interface OcupacionDia {
+        LocalDate getFecha();
+        Long getTotalCitas();
+        Long getMinutosReservados();
+    }
+
+    //citas activas de una fecha con lectura bloqueante (FOR SHARE): ve la ultima version confirmada
+    //y no la instantanea de la transaccion; reconstruye el contador de plazas del dia (CapacidadService)
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT a FROM Cita a WHERE a.fecha = :fecha " +
+            "AND a.estado IN ('PENDIENTE','CONFIRMADA')")
+    List<Cita> findActiveAppointmentsByDateForUpdate(@Param("fecha") LocalDate fecha);
 
     //obtiene todas las citas activas (Pendientes o Completadas) de una fecha en especifico
     @Query("SELECT a FROM Cita a WHERE a.fecha = :fecha " +
             "AND a.estado IN ('PENDIENTE','CONFIRMADA') " +
             "ORDER BY a.horaInicio ASC")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Cita> findActiveAppointmentsByDate(
             @Param("fecha") LocalDate fecha
     );
@@ -0,0 +1,36 @@
+package com.felop.reservasCitas.repository;
+//Repositorio de clientes (tabla clientes)
+import com.felop.reservasCitas.model.Cliente;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface ClienteRepository extends JpaRepository<Cliente, Long> {
+
+    //busca el cliente por su email normalizado (indice unico)
+    //cacheable: el mismo cliente reserva varias veces; Hibernate invalida el resultado al cambiar la tabla clientes
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    Optional<Cliente> findByEmail(String email);
+
+    //crea el cliente o, si otra transaccion lo creo entretanto, actualiza sus datos de contacto
+    //(el indice unico del email decide: dos altas simultaneas no crean dos clientes)
+    //NATIVE_SPACES: sin declarar la tabla afectada Hibernate vaciaria toda la cache de segundo nivel
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "clientes"))
+    @Query(value = "INSERT INTO clientes (email, nombre, telefono, created_at, updated_at) " +
+            "VALUES (:email, :nombre, :telefono, :ahora, :ahora) " +
+            "ON DUPLICATE KEY UPDATE nombre = VALUES(nombre), telefono = VALUES(telefono), " +
+            "updated_at = VALUES(updated_at)",
+            nativeQuery = true)
+    void upsert(@Param("email") String email, @Param("nombre") String nombre,
+                @Param("telefono") String telefono, @Param("ahora") LocalDateTime ahora);
+}
@@ -0,0 +1,19 @@
+package com.felop.reservasCitas.repository;
+//Repositorio de la lista de espera
+import com.felop.reservasCitas.model.EntradaEspera;
+import com.felop.reservasCitas.model.EstadoEspera;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface EntradaEsperaRepository extends JpaRepository<EntradaEspera, Long> {
+
+    //inscripciones en un estado desde una fecha, usado para cargar la cola en memoria al arrancar
+    List<EntradaEspera> findByEstadoAndFechaGreaterThanEqual(EstadoEspera estado, LocalDate fecha);
+
+    //inscripciones de una fecha en orden de llegada
+    List<EntradaEspera> findByFechaOrderByIdAsc(LocalDate fecha);
+}
@@ -0,0 +1,23 @@
+package com.felop.reservasCitas.repository;
+//Repositorio de eventos pendientes de publicar (outbox)
+import com.felop.reservasCitas.model.EventoOutbox;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface EventoOutboxRepository extends JpaRepository<EventoOutbox, Long> {
+
+    //siguiente lote de eventos en orden de insercion
+    List<EventoOutbox> findAllByOrderByIdAsc(Limit limit);
+
+    //registra un intento fallido de publicacion del lote
+    @Modifying
+    @Query("UPDATE EventoOutbox e SET e.intentos = e.intentos + 1 WHERE e.id IN :ids")
+    void incrementIntentos(@Param("ids") List<Long> ids);
+}
@@ -0,0 +1,105 @@
+package com.felop.reservasCitas.repository;
+//Repositorio del resumen diario de citas (tabla resumen_diario)
+//las actualizaciones son incrementales (upsert con deltas) y atomicas en BD
+import com.felop.reservasCitas.model.EstadoCita;
+import com.felop.reservasCitas.model.ResumenDiario;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface ResumenDiarioRepository extends JpaRepository<ResumenDiario, Long> {
+
+    //suma los deltas a la fila (fecha, servicio, estado), creandola si no existe
+    //ON DUPLICATE KEY UPDATE evita la carrera entre dos inserts concurrentes del mismo grupo
+    //NATIVE_SPACES: sin declarar la tabla afectada Hibernate vaciaria toda la cache de segundo nivel
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "resumen_diario"))
+    @Query(value = "INSERT INTO resumen_diario (fecha, servicio, estado, total_citas, total_ingresos, minutos_reservados) " +
+            "VALUES (:fecha, :servicio, :estado, :citas, :ingresos, :minutos) " +
+            "ON DUPLICATE KEY UPDATE total_citas = total_citas + VALUES(total_citas), " +
+            "total_ingresos = total_ingresos + VALUES(total_ingresos), " +
+            "minutos_reservados = minutos_reservados + VALUES(minutos_reservados)",
+            nativeQuery = true)
+    void aplicarDelta(
+            @Param("fecha") LocalDate fecha,
+            @Param("servicio") String servicio,
+            @Param("estado") String estado,
+            @Param("citas") long citas,
+            @Param("ingresos") BigDecimal ingresos,
+            @Param("minutos") long minutos
+    );
+
+    //filas del resumen en un rango de fechas
+    List<ResumenDiario> findByFechaBetweenOrderByFechaAscServicioAsc(LocalDate desde, LocalDate hasta);
+
+    //ingresos por dia (las citas canceladas no suman ingresos)
+    @Query("SELECT r.fecha AS fecha, SUM(r.totalCitas) AS totalCitas, SUM(r.totalIngresos) AS totalIngresos " +
+            "FROM ResumenDiario r WHERE r.fecha BETWEEN :desde AND :hasta " +
+            "AND r.estado <> 'CANCELADA' " +
+            "GROUP BY r.fecha ORDER BY r.fecha ASC")
+    List<IngresosDiarios> findIngresosDiarios(@Param("desde") LocalDate desde, @Param("hasta") LocalDate hasta);
+
+    //minutos reservados por dia (las citas canceladas liberan su horario)
+    @Query("SELECT r.fecha AS fecha, SUM(r.totalCitas) AS totalCitas, SUM(r.minutosReservados) AS minutosReservados " +
+            "FROM ResumenDiario r WHERE r.fecha BETWEEN :desde AND :hasta " +
+            "AND r.estado <> 'CANCELADA' " +
+            "GROUP BY r.fecha ORDER BY r.fecha ASC")
+    List<OcupacionDiaria> findOcupacionDiaria(@Param("desde") LocalDate desde, @Param("hasta") LocalDate hasta);
+
+    //==== reconstruccion completa ====
+
+    @Modifying
+    @Query("DELETE FROM ResumenDiario r")
+    void deleteAllInBulk();
+
+    //recalcula el resumen completo a partir de la tabla citas en una sola sentencia
+    @Modifying
+    @Query("INSERT INTO ResumenDiario (fecha, servicio, estado, totalCitas, totalIngresos, minutosReservados) " +
+            "SELECT a.fecha, a.servicio, a.estado, COUNT(a), SUM(a.precio), " +
+            "SUM((EXTRACT(HOUR FROM a.horaFin) - EXTRACT(HOUR FROM a.horaInicio)) * 60 " +
+            "+ EXTRACT(MINUTE FROM a.horaFin) - EXTRACT(MINUTE FROM a.horaInicio)) " +
+            "FROM Cita a GROUP BY a.fecha, a.servicio, a.estado")
+    int rebuildFromCitas();
+
+    //agregados de las citas archivadas, se suman al resumen tras rebuildFromCitas
+    @Query("SELECT h.fecha AS fecha, h.servicio AS servicio, h.estado AS estado, COUNT(h) AS totalCitas, " +
+            "SUM(h.precio) AS totalIngresos, " +
+            "SUM((EXTRACT(HOUR FROM h.horaFin) - EXTRACT(HOUR FROM h.horaInicio)) * 60 " +
+            "+ EXTRACT(MINUTE FROM h.horaFin) - EXTRACT(MINUTE FROM h.horaInicio)) AS minutosReservados " +
+            "FROM CitaHistorica h GROUP BY h.fecha, h.servicio, h.estado")
+    List<GrupoResumen> aggregateHistorico();
+
+    //proyeccion: un grupo (fecha, servicio, estado) agregado
+    interface GrupoResumen {
+        LocalDate getFecha();
+        String getServicio();
+        EstadoCita getEstado();
+        Long getTotalCitas();
+        BigDecimal getTotalIngresos();
+        Long getMinutosReservados();
+    }
+
+    //proyeccion: ingresos agregados de un dia
+    interface IngresosDiarios {
+        LocalDate getFecha();
+        Long getTotalCitas();
+        BigDecimal getTotalIngresos();
+    }
+
+    //proyeccion: ocupacion agregada de un dia
+    interface OcupacionDiaria {
+        LocalDate getFecha();
+        Long getTotalCitas();
+        Long getMinutosReservados();
+    }
+}
@@ -0,0 +1,40 @@
+package com.felop.reservasCitas.repository;
+//Repositorio de versiones de cambio (tabla versiones_cambio)
+//usado para invalidar las caches locales de todas las instancias
+import com.felop.reservasCitas.model.VersionCambio;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface VersionCambioRepository extends JpaRepository<VersionCambio, String> {
+
+    //incrementa la version de la clave, creandola si no existe
+    //NATIVE_SPACES: sin declarar la tabla afectada Hibernate vaciaria toda la cache de segundo nivel
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "versiones_cambio"))
+    @Query(value = "INSERT INTO versiones_cambio (clave, version, modificado) VALUES (:clave, 1, :ahora) " +
+            "ON DUPLICATE KEY UPDATE version = version + 1, modificado = VALUES(modificado)",
+            nativeQuery = true)
+    void incrementar(@Param("clave") String clave, @Param("ahora") LocalDateTime ahora);
+
+    //version actual de una clave
+    @Query("SELECT v.version FROM VersionCambio v WHERE v.clave = :clave")
+    long findVersion(@Param("clave") String clave);
+
+    //claves modificadas desde un instante (usa el indice por modificado)
+    List<VersionCambio> findByModificadoGreaterThanEqual(LocalDateTime desde);
+
+    //elimina las versiones que ya ninguna instancia necesita consultar
+    @Modifying
+    @Query("DELETE FROM VersionCambio v WHERE v.modificado < :limite")
+    int deleteOlderThan(@Param("limite") LocalDateTime limite);
+}
@@ -0,0 +1,20 @@
+package com.felop.reservasCitas.service;
+//Interfaz de servicio para el control de admision de escrituras por cliente
+
+import com.felop.reservasCitas.dto.EstadisticasAdmisionDTO;
+
+public interface AdmisionService {
+
+    /*consume un token del bucket del cliente
+     * apiKey: header X-API-Key (puede ser null); solo cuenta si esta registrada
+     * cliente: identificador si no hay API key registrada (IP remota)
+     *
+     * return: identidad del llamante ("api:<key>" o "cliente:<ip>"), tambien con la admision
+     * deshabilitada; sirve para separar por llamante otros estados (ej: idempotencia)
+     *
+     * RateLimitExceededException si el cliente supero su limite*/
+    String admitir(String apiKey, String cliente);
+
+    //metricas de peticiones admitidas y rechazadas
+    EstadisticasAdmisionDTO getEstadisticas();
+}
@@ -0,0 +1,106 @@
+package com.felop.reservasCitas.service;
+
+import com.felop.reservasCitas.config.AdmisionProperties;
+import com.felop.reservasCitas.dto.EstadisticasAdmisionDTO;
+import com.felop.reservasCitas.exceptions.RateLimitExceededException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+//Implementacion del control de admision con un token bucket por cliente
+
+@Service
+public class AdmisionServiceImpl implements AdmisionService {
+
+    //un bucket inactivo este tiempo ya estaria lleno, se puede descartar
+    private static final Duration EXPIRACION_BUCKET = Duration.ofMinutes(10);
+
+    private final AdmisionProperties properties;
+
+    //clientes recordados a la vez; al superarlo se descartan los menos usados
+    private static final long MAX_BUCKETS = 100_000;
+
+    //buckets por cliente, acotados para no crecer con cada IP nueva
+    private final Cache<String, TokenBucket> buckets;
+
+    //contadores por nivel
+    private final Map<String, LongAdder> admitidas = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> rechazadas = new ConcurrentHashMap<>();
+
+    public AdmisionServiceImpl(AdmisionProperties properties) {
+        if (!properties.niveles().containsKey(properties.nivelPorDefecto())) {
+            throw new IllegalStateException(
+                    "El nivel por defecto '" + properties.nivelPorDefecto() + "' no esta configurado");
+        }
+        this.properties = properties;
+        this.buckets = Caffeine.newBuilder()
+                .expireAfterAccess(EXPIRACION_BUCKET)
+                .maximumSize(MAX_BUCKETS)
+                .build();
+    }
+
+    @Override
+    public String admitir(String apiKey, String cliente) {
+        //las API keys registradas tienen su propio nivel y bucket; una key desconocida se ignora
+        //(si no, cambiar el header en cada peticion daria un bucket nuevo cada vez)
+        String nivelRegistrado = apiKey != null ? properties.apiKeys().get(apiKey) : null;
+        String clave = nivelRegistrado != null ? "api:" + apiKey : "cliente:" + cliente;
+        if (!properties.habilitada()) {
+            return clave;
+        }
+        String nivelNombre = nivelRegistrado != null ? nivelRegistrado : properties.nivelPorDefecto();
+
+        AdmisionProperties.Nivel nivel = properties.niveles().get(nivelNombre);
+        if (nivel == null) {
+            nivelNombre = properties.nivelPorDefecto();
+            nivel = properties.niveles().get(nivelNombre);
+        }
+        AdmisionProperties.Nivel limites = nivel;
+
+        TokenBucket bucket = buckets.get(clave,
+                k -> new TokenBucket(limites.capacidad(), limites.tokensPorSegundo()));
+
+        long esperaNanos = bucket.tryConsume();
+        if (esperaNanos == 0) {
+            contador(admitidas, nivelNombre).increment();
+            return clave;
+        }
+
+        contador(rechazadas, nivelNombre).increment();
+        //Retry-After se expresa en segundos enteros, redondeando hacia arriba
+        long retryAfter = Math.max(1, (esperaNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        throw new RateLimitExceededException(
+                "Demasiadas peticiones. Intente de nuevo en " + retryAfter + " segundos", retryAfter);
+    }
+
+    @Override
+    public EstadisticasAdmisionDTO getEstadisticas() {
+        Map<String, Long> admitidasPorNivel = snapshot(admitidas);
+        Map<String, Long> rechazadasPorNivel = snapshot(rechazadas);
+
+        return EstadisticasAdmisionDTO.builder()
+                .admitidas(admitidasPorNivel)
+                .rechazadas(rechazadasPorNivel)
+                .totalAdmitidas(admitidasPorNivel.values().stream().mapToLong(Long::longValue).sum())
+                .totalRechazadas(rechazadasPorNivel.values().stream().mapToLong(Long::longValue).sum())
+                .clientesActivos(buckets.estimatedSize())
+                .build();
+    }
+
+    private LongAdder contador(Map<String, LongAdder> contadores, String nivel) {
+        return contadores.computeIfAbsent(nivel, k -> new LongAdder());
+    }
+
+    private Map<String, Long> snapshot(Map<String, LongAdder> contadores) {
+        Map<String, Long> resultado = new TreeMap<>();
+        contadores.forEach((nivel, adder) -> resultado.put(nivel, adder.sum()));
+        return resultado;
+    }
+}
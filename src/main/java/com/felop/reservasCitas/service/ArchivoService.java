@@ -0,0 +1,9 @@
+package com.felop.reservasCitas.service;
+//Interfaz de servicio para el archivado de citas finalizadas
+
+public interface ArchivoService {
+
+    //mueve al historico las citas finalizadas mas antiguas que la edad configurada
+    //return numero de citas archivadas
+    int archivarFinalizadas();
+}
@@ -0,0 +1,84 @@
+package com.felop.reservasCitas.service;
+
+import com.felop.reservasCitas.config.Sucursales;
+import com.felop.reservasCitas.repository.CitaHistoricaRepository;
+import com.felop.reservasCitas.repository.CitaRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/*Implementacion del archivado de citas
+ *
+ * cada bloque se mueve en una transaccion corta (INSERT ... SELECT + DELETE),
+ * para no bloquear la tabla citas ni generar una transaccion enorme
+ * el resumen diario no cambia: las citas archivadas siguen contando en los reportes
+ * con sucursales se archiva cada shard por separado*/
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ArchivoServiceImpl implements ArchivoService {
+
+    private final CitaRepository citaRepository;
+    private final CitaHistoricaRepository historicoRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final VersionCambioService versionCambioService;
+    private final Sucursales sucursales;
+
+    //edad minima (en dias desde la fecha de la cita) para archivar
+    @Value("${reservas.archivado.edad-dias:90}")
+    private int edadDias;
+
+    @Value("${reservas.archivado.tamano-bloque:500}")
+    private int tamanoBloque;
+
+    @Override
+    @Scheduled(cron = "${reservas.archivado.cron:0 30 2 * * *}")
+    public int archivarFinalizadas() {
+        LocalDate limite = LocalDate.now().minusDays(edadDias);
+        return sucursales.sumarEnCada(sucursal -> archivarSucursal(sucursal, limite));
+    }
+
+    private int archivarSucursal(String sucursal, LocalDate limite) {
+        int total = 0;
+
+        while (true) {
+            Integer movidas = transactionTemplate.execute(tx -> archivarBloque(limite));
+            if (movidas == null || movidas == 0) {
+                break;
+            }
+            total += movidas;
+            if (movidas < tamanoBloque) {
+                break;
+            }
+        }
+
+        log.info("Archivadas {} citas finalizadas anteriores a {} (sucursal {})", total, limite, sucursal);
+        return total;
+    }
+
+    //mueve un bloque: las filas movidas desaparecen de citas, el siguiente bloque empieza de nuevo por el menor id
+    private int archivarBloque(LocalDate limite) {
+        List<Long> ids = citaRepository.findFinishedIdsBefore(limite, Limit.of(tamanoBloque));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        historicoRepository.copyFromCitas(ids);
+        citaRepository.deleteAllByIdInBatch(ids);
+
+        //las demas instancias sacan estas citas de sus caches
+        versionCambioService.registrarCitas(ids);
+
+        //tras el commit las citas salen de las estructuras en memoria (indice de busqueda)
+        eventPublisher.publishEvent(new CitasArchivadasEvent(ids));
+        return ids.size();
+    }
+}
@@ -0,0 +1,25 @@
+package com.felop.reservasCitas.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+//Horario retenido temporalmente para un cliente mientras completa la reserva
+public record BloqueoHorario(
+        String token,
+        LocalDate fecha,
+        LocalTime horaInicio,
+        LocalTime horaFin,
+        LocalDateTime expiraEn
+) {
+
+    //sigue vigente (la rueda puede tardar hasta un tick en quitarlo)
+    public boolean vigente(LocalDateTime ahora) {
+        return expiraEn.isAfter(ahora);
+    }
+
+    //se cruza con el horario indicado
+    public boolean solapa(LocalTime inicio, LocalTime fin) {
+        return horaInicio.isBefore(fin) && horaFin.isAfter(inicio);
+    }
+}
@@ -0,0 +1,19 @@
+package com.felop.reservasCitas.service;
+//Interfaz de servicio para los bloqueos temporales de horarios durante el checkout
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+public interface BloqueoService {
+
+    //retiene un horario durante el TTL configurado
+    //no comprueba plazas: se llama desde CapacidadService.bloquear, que lo hace de forma atomica
+    BloqueoHorario bloquear(LocalDate fecha, LocalTime horaInicio, LocalTime horaFin);
+
+    //bloqueos vigentes de una fecha
+    List<BloqueoHorario> getBloqueos(LocalDate fecha);
+
+    //libera un bloqueo antes de que expire (consumido por una reserva o cancelado por el cliente)
+    void liberar(String token);
+}
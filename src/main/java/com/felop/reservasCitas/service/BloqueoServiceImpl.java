@@ -0,0 +1,110 @@
+package com.felop.reservasCitas.service;
+
+import com.felop.reservasCitas.config.Sucursales;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*Implementacion de los bloqueos temporales en memoria
+ *
+ * - por fecha: token -> bloqueo, para contar las plazas retenidas recorriendo solo los bloqueos del dia
+ * - por token: para liberar y cancelar su temporizador
+ * - la expiracion la maneja una unica rueda temporizadora (no una tarea por bloqueo)
+ *
+ * cada bloqueo ocupa una plaza; CapacidadService comprueba que quede una libre
+ * y da de alta el bloqueo con el monitor del dia tomado
+ *
+ * los bloqueos de cada sucursal son independientes: el dia se identifica por (sucursal, fecha)*/
+@Service
+public class BloqueoServiceImpl implements BloqueoService {
+
+    private final Sucursales sucursales;
+    private final Duration ttl;
+    private final Map<Dia, Map<String, BloqueoHorario>> porFecha = new ConcurrentHashMap<>();
+    private final Map<String, Activo> porToken = new ConcurrentHashMap<>();
+    private final RuedaTemporizadora<String> rueda;
+
+    public BloqueoServiceImpl(
+            Sucursales sucursales,
+            @Value("${reservas.bloqueos.ttl:PT5M}") Duration ttl,
+            @Value("${reservas.bloqueos.tick:PT1S}") Duration tick,
+            @Value("${reservas.bloqueos.ranuras:512}") int ranuras) {
+        this.sucursales = sucursales;
+        this.ttl = ttl;
+        this.rueda = new RuedaTemporizadora<>("bloqueos-horario", tick, ranuras, this::quitar);
+    }
+
+    @PreDestroy
+    void detener() {
+        rueda.close();
+    }
+
+    @Override
+    public BloqueoHorario bloquear(LocalDate fecha, LocalTime horaInicio, LocalTime horaFin) {
+        LocalDateTime ahora = LocalDateTime.now();
+        BloqueoHorario bloqueo = new BloqueoHorario(UUID.randomUUID().toString(), fecha, horaInicio, horaFin,
+                ahora.plus(ttl));
+
+        Dia dia = new Dia(sucursales.actual(), fecha);
+        porFecha.compute(dia, (d, bloqueos) -> {
+            Map<String, BloqueoHorario> delDia = bloqueos != null ? bloqueos : new ConcurrentHashMap<>();
+            delDia.put(bloqueo.token(), bloqueo);
+            return delDia;
+        });
+
+        porToken.put(bloqueo.token(), new Activo(dia, rueda.programar(bloqueo.token(), ttl)));
+        return bloqueo;
+    }
+
+    @Override
+    public List<BloqueoHorario> getBloqueos(LocalDate fecha) {
+        Map<String, BloqueoHorario> delDia = porFecha.get(new Dia(sucursales.actual(), fecha));
+        if (delDia == null) {
+            return List.of();
+        }
+        LocalDateTime ahora = LocalDateTime.now();
+        return delDia.values().stream()
+                .filter(b -> b.vigente(ahora))
+                .toList();
+    }
+
+    @Override
+    public void liberar(String token) {
+        if (token == null) {
+            return;
+        }
+        Activo activo = porToken.get(token);
+        if (activo != null) {
+            activo.temporizador().cancelar();
+            quitar(token);
+        }
+    }
+
+    //quita el bloqueo de ambos indices (al liberarlo o al expirar en la rueda)
+    //el hilo de la rueda no tiene sucursal: el dia se guarda en el bloqueo activo
+    private void quitar(String token) {
+        Activo activo = porToken.remove(token);
+        if (activo == null) {
+            return;
+        }
+        porFecha.computeIfPresent(activo.dia(), (d, delDia) -> {
+            delDia.remove(token);
+            return delDia.isEmpty() ? null : delDia;
+        });
+    }
+
+    private record Dia(String sucursal, LocalDate fecha) {
+    }
+
+    private record Activo(Dia dia, RuedaTemporizadora.Temporizador<String> temporizador) {
+    }
+}
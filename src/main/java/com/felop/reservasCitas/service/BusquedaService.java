@@ -0,0 +1,10 @@
+package com.felop.reservasCitas.service;
+//Interfaz de servicio para la busqueda por prefijo de nombre, servicio o email
+
+import com.felop.reservasCitas.dto.ResultadoBusquedaDTO;
+
+public interface BusquedaService {
+
+    //busca citas cuyos campos empiezan por los terminos de la consulta, ordenadas por relevancia
+    ResultadoBusquedaDTO buscar(String consulta, int pagina, int tamano);
+}
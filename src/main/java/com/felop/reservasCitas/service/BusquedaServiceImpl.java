@@ -0,0 +1,185 @@
+package com.felop.reservasCitas.service;
+
+import com.felop.reservasCitas.config.SucursalContext;
+import com.felop.reservasCitas.config.Sucursales;
+import com.felop.reservasCitas.dto.CitaBusquedaDTO;
+import com.felop.reservasCitas.dto.CitaResponseDTO;
+import com.felop.reservasCitas.dto.ResultadoBusquedaDTO;
+import com.felop.reservasCitas.model.TipoEventoCita;
+import com.felop.reservasCitas.repository.CitaRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/*Implementacion de la busqueda sobre un indice de prefijos en memoria
+ *
+ * - al arrancar se carga el indice en paralelo, repartiendo el rango de ids en bloques
+ * - tras cada commit se actualiza de forma incremental con CitaCambiadaEvent
+ * - las citas archivadas salen del indice (solo se busca en la tabla principal)
+ * - los cambios de otras instancias llegan con CambiosRemotosEvent
+ * - un indice por sucursal: los ids de distintos shards se repiten*/
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BusquedaServiceImpl implements BusquedaService {
+
+    private static final int TAMANO_MAXIMO_PAGINA = 100;
+
+    private final CitaRepository repository;
+    private final Sucursales sucursales;
+
+    //sucursal -> indice de sus citas
+    private final Map<String, IndicePrefijos> indices = new ConcurrentHashMap<>();
+
+    @Value("${reservas.busqueda.tamano-bloque-carga:5000}")
+    private int tamanoBloqueCarga;
+
+    @Override
+    public ResultadoBusquedaDTO buscar(String consulta, int pagina, int tamano) {
+        int paginaValida = Math.max(0, pagina);
+        int tamanoValido = Math.clamp(tamano, 1, TAMANO_MAXIMO_PAGINA);
+        //en long: pagina * tamano puede desbordar un int
+        long desde = (long) paginaValida * tamanoValido;
+
+        //solo se ordenan los necesarios hasta el final de la pagina pedida
+        //(una pagina mas alla del total devuelve la lista vacia)
+        int limite = (int) Math.min(desde + tamanoValido, Integer.MAX_VALUE);
+        IndicePrefijos.Pagina resultado = indice().buscar(consulta, limite);
+        List<CitaBusquedaDTO> pag = resultado.resultados().stream()
+                .skip(desde)
+                .map(r -> conPuntuacion(r.documento(), r.puntuacion()))
+                .toList();
+
+        return ResultadoBusquedaDTO.builder()
+                .consulta(consulta)
+                .pagina(paginaValida)
+                .tamano(tamanoValido)
+                .total(resultado.total())
+                .resultados(pag)
+                .build();
+    }
+
+    // ==== mantenimiento del indice ====
+
+    //carga inicial en paralelo: cada bloque de ids se lee e indexa en su propio hilo virtual
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargarIndice() throws Exception {
+        for (String sucursal : sucursales.nombres()) {
+            cargarIndice(sucursal);
+        }
+    }
+
+    private void cargarIndice(String sucursal) throws Exception {
+        IndicePrefijos indice = indice(sucursal);
+        Long min = SucursalContext.ejecutar(sucursal, () -> repository.findMinId());
+        Long max = SucursalContext.ejecutar(sucursal, () -> repository.findMaxId());
+        if (min == null) {
+            return;
+        }
+
+        long inicio = System.nanoTime();
+        List<Future<?>> bloques = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long desde = min; desde <= max; desde += tamanoBloqueCarga) {
+                long hasta = Math.min(max, desde + tamanoBloqueCarga - 1);
+                long d = desde;
+                //los hilos virtuales no heredan la sucursal
+                bloques.add(executor.submit(() -> SucursalContext.ejecutar(sucursal, () -> repository
+                        .findByIdBetween(d, hasta)
+                        .forEach(c -> indice.indexarSiAusente(mapToBusquedaDTO(c))))));
+            }
+        }
+        for (Future<?> f : bloques) {
+            f.get();//propaga errores de carga
+        }
+
+        log.info("Indice de busqueda de la sucursal {} cargado: {} citas en {} ms",
+                sucursal, indice.size(), (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onCitaCambiada(CitaCambiadaEvent event) {
+        if (event.tipo() == TipoEventoCita.CITA_ELIMINADA) {
+            indice().eliminar(event.cita().getId());
+        } else {
+            indice().indexar(mapToBusquedaDTO(event.cita()));
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onCitasArchivadas(CitasArchivadasEvent event) {
+        event.ids().forEach(indice()::eliminar);
+    }
+
+    //cambios hechos en otras instancias: se releen las citas cambiadas, las que ya no existen salen del indice
+    @EventListener
+    public void onCambiosRemotos(CambiosRemotosEvent event) {
+        if (event.citaIds().isEmpty()) {
+            return;
+        }
+        IndicePrefijos indice = indice();
+        Set<Long> pendientes = new HashSet<>(event.citaIds());
+        for (CitaRepository.CitaIndexable c : repository.findByIdIn(event.citaIds())) {
+            indice.indexar(mapToBusquedaDTO(c));
+            pendientes.remove(c.getId());
+        }
+        pendientes.forEach(indice::eliminar);
+    }
+
+    //indice de la sucursal actual
+    private IndicePrefijos indice() {
+        return indice(sucursales.actual());
+    }
+
+    private IndicePrefijos indice(String sucursal) {
+        return indices.computeIfAbsent(sucursal, s -> new IndicePrefijos());
+    }
+
+    // ==== mapeo ====
+
+    private CitaBusquedaDTO mapToBusquedaDTO(CitaRepository.CitaIndexable c) {
+        return CitaBusquedaDTO.builder()
+                .id(c.getId())
+                .nombreCliente(c.getNombreCliente())
+                .email(c.getEmail())
+                .servicio(c.getServicio())
+                .fecha(c.getFecha())
+                .horaInicio(c.getHoraInicio())
+                .estado(c.getEstado())
+                .codigoConfirmacion(c.getCodigoConfirmacion())
+                .build();
+    }
+
+    private CitaBusquedaDTO mapToBusquedaDTO(CitaResponseDTO c) {
+        return CitaBusquedaDTO.builder()
+                .id(c.getId())
+                .nombreCliente(c.getNombreCliente())
+                .email(c.getEmail())
+                .servicio(c.getServicio())
+                .fecha(c.getFecha())
+                .horaInicio(c.getHoraInicio())
+                .estado(c.getEstado())
+                .codigoConfirmacion(c.getCodigoConfirmacion())
+                .build();
+    }
+
+    //copia del documento indexado con la puntuacion de esta busqueda
+    private CitaBusquedaDTO conPuntuacion(CitaBusquedaDTO doc, int puntuacion) {
+        return doc.toBuilder().puntuacion(puntuacion).build();
+    }
+}
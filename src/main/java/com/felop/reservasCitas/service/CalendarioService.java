@@ -0,0 +1,12 @@
+package com.felop.reservasCitas.service;
+//Interfaz de servicio para la vista mensual del calendario
+
+import com.felop.reservasCitas.dto.OcupacionMesDTO;
+
+import java.time.YearMonth;
+
+public interface CalendarioService {
+
+    //ocupacion de cada dia del mes (citas, minutos reservados y libres)
+    OcupacionMesDTO getOcupacionMes(YearMonth mes);
+}
@@ -0,0 +1,132 @@
+package com.felop.reservasCitas.service;
+
+import com.felop.reservasCitas.config.Sucursales;
+import com.felop.reservasCitas.dto.OcupacionDiariaDTO;
+import com.felop.reservasCitas.dto.OcupacionMesDTO;
+import com.felop.reservasCitas.repository.CitaRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/*Implementacion de la vista mensual del calendario
+ *
+ * la ocupacion del mes sale de un solo GROUP BY sobre citas (no de 30 calculos de disponibilidad)
+ * y se cachea por mes en memoria:
+ * - los cambios locales invalidan el mes de la cita tras el commit (CitaCambiadaEvent)
+ * - los de otras instancias llegan con CambiosRemotosEvent
+ *
+ * un calculo que empezo antes de una invalidacion no se guarda en la cache
+ * (podria haber leido los datos anteriores al cambio): se compara el contador de invalidaciones
+ *
+ * la clave incluye la sucursal: cada shard tiene su propio calendario*/
+@Service
+public class CalendarioServiceImpl implements CalendarioService {
+
+    private final CitaRepository repository;
+    private final CapacidadService capacidadService;
+    private final Sucursales sucursales;
+
+    //ocupacion calculada por sucursal y mes, acotada a los meses mas consultados
+    private final Cache<MesSucursal, OcupacionMesDTO> cache;
+
+    //se incrementa en cada invalidacion, antes de quitar el mes de la cache
+    private final AtomicLong invalidaciones = new AtomicLong();
+
+    public CalendarioServiceImpl(CitaRepository repository, CapacidadService capacidadService, Sucursales sucursales,
+                                 @Value("${reservas.calendario.meses-en-cache:36}") long mesesEnCache) {
+        this.repository = repository;
+        this.capacidadService = capacidadService;
+        this.sucursales = sucursales;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(mesesEnCache)
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public OcupacionMesDTO getOcupacionMes(YearMonth mes) {
+        MesSucursal clave = new MesSucursal(sucursales.actual(), mes);
+        OcupacionMesDTO cacheada = cache.getIfPresent(clave);
+        if (cacheada != null) {
+            return cacheada;
+        }
+
+        long invalidacionesAntes = invalidaciones.get();
+        OcupacionMesDTO calculada = calcular(mes);
+
+        //solo se guarda si ningun cambio se confirmo mientras se calculaba
+        cache.asMap().compute(clave, (m, actual) ->
+                invalidaciones.get() == invalidacionesAntes ? calculada : actual);
+        return calculada;
+    }
+
+    // ==== invalidacion ====
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onCitaCambiada(CitaCambiadaEvent event) {
+        invalidar(event.cita().getFecha());
+        if (event.fechaAnterior() != null) {
+            invalidar(event.fechaAnterior());
+        }
+    }
+
+    //cambios hechos en otras instancias
+    @EventListener
+    public void onCambiosRemotos(CambiosRemotosEvent event) {
+        event.fechas().forEach(this::invalidar);
+    }
+
+    private void invalidar(LocalDate fecha) {
+        invalidaciones.incrementAndGet();
+        cache.invalidate(new MesSucursal(sucursales.actual(), YearMonth.from(fecha)));
+    }
+
+    // ==== calculo ====
+
+    //un elemento por dia del mes, con ceros en los dias sin citas activas
+    private OcupacionMesDTO calcular(YearMonth mes) {
+        Map<LocalDate, CitaRepository.OcupacionDia> porDia = repository
+                .findOcupacionPorDia(mes.atDay(1), mes.atEndOfMonth())
+                .stream()
+                .collect(Collectors.toMap(CitaRepository.OcupacionDia::getFecha, Function.identity()));
+
+        //con varias plazas por minuto los minutos reservados se comparan con los minutos de plaza
+        long minutosPlaza = capacidadService.getMinutosPlaza();
+        List<OcupacionDiariaDTO> dias = new ArrayList<>(mes.lengthOfMonth());
+        for (LocalDate fecha = mes.atDay(1); !fecha.isAfter(mes.atEndOfMonth()); fecha = fecha.plusDays(1)) {
+            CitaRepository.OcupacionDia dia = porDia.get(fecha);
+            long citas = dia != null ? dia.getTotalCitas() : 0;
+            long reservados = dia != null ? dia.getMinutosReservados() : 0;
+            dias.add(OcupacionDiariaDTO.builder()
+                    .fecha(fecha)
+                    .totalCitas(citas)
+                    .minutosReservados(reservados)
+                    .minutosLibres(Math.max(0, minutosPlaza - reservados))
+                    .minutosLaborables(minutosPlaza)
+                    .porcentajeOcupacion(reservados * 100.0 / minutosPlaza)
+                    .build());
+        }
+
+        return OcupacionMesDTO.builder()
+                .mes(mes)
+                .dias(dias)
+                .build();
+    }
+
+    private record MesSucursal(String sucursal, YearMonth mes) {
+    }
+}
@@ -0,0 +1,9 @@
+package com.felop.reservasCitas.service;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+//Evento publicado por SincronizadorCache con las fechas y citas modificadas (por cualquier instancia)
+//desde la ultima sincronizacion; las caches en memoria lo usan para invalidar solo lo que cambio
+public record CambiosRemotosEvent(Set<LocalDate> fechas, Set<Long> citaIds) {
+}
@@ -0,0 +1,37 @@
+package com.felop.reservasCitas.service;
+//Interfaz de servicio para la capacidad (plazas en paralelo) de cada minuto del horario laboral
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+public interface CapacidadService {
+
+    //minutos de plaza del horario laboral: suma de las plazas de cada minuto
+    //(con una sola plaza, los minutos del horario)
+    long getMinutosPlaza();
+
+    //plazas libres de cada minuto del horario laboral (indice 0 = apertura)
+    //descuenta citas activas, reservas aun sin confirmar y bloqueos vigentes
+    int[] getPlazasLibres(LocalDate fecha);
+
+    //indica si queda una plaza en todo el horario, sin ocuparla
+    //el bloqueo con tokenPropio (el del propio cliente, puede ser null) no cuenta
+    boolean hayPlaza(LocalDate fecha, LocalTime horaInicio, LocalTime horaFin, String tokenPropio);
+
+    //ocupa una plaza en todo el horario para la transaccion actual (debe existir una)
+    //si la transaccion se revierte la plaza se devuelve
+    //TimeSlotNotAvailableException si algun minuto no tiene plazas libres
+    void reservar(LocalDate fecha, LocalTime horaInicio, LocalTime horaFin, String tokenPropio);
+
+    //como reservar, para una cita activa que cambia de horario:
+    //la plaza que ya ocupa no cuenta y se libera al confirmar la transaccion
+    void mover(LocalDate fechaAnterior, LocalTime inicioAnterior, LocalTime finAnterior,
+               LocalDate fecha, LocalTime horaInicio, LocalTime horaFin, String tokenPropio);
+
+    //la cita deja de estar activa: su plaza se libera al confirmar la transaccion
+    void liberar(LocalDate fecha, LocalTime horaInicio, LocalTime horaFin);
+
+    //retiene una plaza durante el checkout (BloqueoService)
+    //la comprobacion y el alta del bloqueo son atomicas
+    BloqueoHorario bloquear(LocalDate fecha, LocalTime horaInicio, LocalTime horaFin);
+}
@@ -0,0 +1,350 @@
+package com.felop.reservasCitas.service;
+
+import com.felop.reservasCitas.config.CapacidadProperties;
+import com.felop.reservasCitas.config.Sucursales;
+import com.felop.reservasCitas.exceptions.TimeSlotNotAvailableException;
+import com.felop.reservasCitas.model.Cita;
+import com.felop.reservasCitas.repository.CitaRepository;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*Implementacion de la capacidad por minuto con un contador en memoria por dia
+ *
+ * cada dia (sucursal, fecha) tiene un array con las citas activas de cada minuto del horario,
+ * construido con un array de diferencias a partir de las citas del dia (+1 al inicio, -1 al fin)
+ * comprobar un horario es recorrer sus minutos en el array, sin consultar las citas que se cruzan
+ *
+ * concurrencia entre instancias: cada reserva bloquea en BD la fila de version de su fecha
+ * (VersionCambioService.bloquearFechas) antes de comprobar, y la retiene hasta el commit:
+ * las reservas de un mismo dia se serializan en todas las instancias
+ * - el array guarda la version de la fecha que refleja; con la fila bloqueada, si la version
+ *   anterior a la propia no coincide otra transaccion (de esta u otra instancia) cambio el dia
+ *   y el array se reconstruye antes de comprobar
+ * - la reconstruccion es una lectura bloqueante de las citas del dia, que ve la ultima version
+ *   confirmada (no la instantanea de la transaccion); se hace fuera del monitor y dentro solo
+ *   se sustituye el array, asi una espera en BD nunca retiene a los demas hilos del dia
+ * - al confirmar, la plaza pasa al array y su version avanza a la propia; si se revierte se descarta
+ *
+ * dentro de la instancia el monitor del contador protege el array (sin consultas dentro); la plaza
+ * se anota "en curso" hasta el commit para que las consultas de disponibilidad ya la vean ocupada
+ * hayPlaza, getPlazasLibres y bloquear no bloquean la fecha: son orientativos entre instancias
+ * (una reserva siempre vuelve a comprobar) y usan una copia del array o una lectura normal que no
+ * se guarda; los bloqueos de checkout son de cada instancia*/
+@Service
+public class CapacidadServiceImpl implements CapacidadService {
+
+    //mismo horario laboral que CitaServiceImpl (08:00 a 20:00), en minutos desde las 00:00
+    private static final int APERTURA = 8 * 60;
+    private static final int CIERRE = 20 * 60;
+    private static final int MINUTOS = CIERRE - APERTURA;
+
+    //version desconocida: contador aun sin construir
+    private static final long SIN_VERSION = -1;
+
+    private final CitaRepository repository;
+    private final BloqueoService bloqueoService;
+    private final VersionCambioService versionCambioService;
+    private final Sucursales sucursales;
+
+    //plazas configuradas de cada minuto del horario
+    private final int[] capacidad;
+    private final long minutosPlaza;
+
+    private final Map<Dia, ContadorDia> contadores = new ConcurrentHashMap<>();
+
+    public CapacidadServiceImpl(CitaRepository repository, BloqueoService bloqueoService,
+                                VersionCambioService versionCambioService, Sucursales sucursales,
+                                CapacidadProperties properties) {
+        this.repository = repository;
+        this.bloqueoService = bloqueoService;
+        this.versionCambioService = versionCambioService;
+        this.sucursales = sucursales;
+        this.capacidad = capacidadPorMinuto(properties);
+        this.minutosPlaza = Arrays.stream(capacidad).asLongStream().sum();
+    }
+
+    @Override
+    public long getMinutosPlaza() {
+        return minutosPlaza;
+    }
+
+    @Override
+    public int[] getPlazasLibres(LocalDate fecha) {
+        //copia del contador si ya existe; si no, se cuenta sin guardarlo (consulta cacheada, sin bloqueos)
+        int[] ocupadas = null;
+        List<Franja> enCurso = List.of();
+        ContadorDia contador = contadores.get(new Dia(sucursales.actual(), fecha));
+        if (contador != null) {
+            synchronized (contador) {
+                if (contador.ocupadas != null) {
+                    ocupadas = contador.ocupadas.clone();
+                    enCurso = new ArrayList<>(contador.enCurso);
+                }
+            }
+        }
+        if (ocupadas == null) {
+            ocupadas = contar(repository.findActiveAppointmentsByDate(fecha));
+        }
+
+        //reservas en curso y bloqueos, acumulados con otro array de diferencias
+        int[] diferencias = new int[MINUTOS + 1];
+        Franja dia = new Franja(0, MINUTOS);
+        enCurso.forEach(f -> sumar(diferencias, dia, f, 1));
+        bloqueoService.getBloqueos(fecha).forEach(b -> sumar(diferencias, dia, Franja.of(b.horaInicio(), b.horaFin()), 1));
+
+        int[] libres = new int[MINUTOS];
+        int acumulado = 0;
+        for (int m = 0; m < MINUTOS; m++) {
+            acumulado += diferencias[m];
+            libres[m] = Math.max(0, capacidad[m] - ocupadas[m] - acumulado);
+        }
+        return libres;
+    }
+
+    @Override
+    public boolean hayPlaza(LocalDate fecha, LocalTime horaInicio, LocalTime horaFin, String tokenPropio) {
+        ContadorDia contador = contador(fecha);
+        int[] ocupadas = ocupadasSinBloquear(contador, fecha);
+        synchronized (contador) {
+            return hayPlaza(contador, ocupadas, Franja.of(horaInicio, horaFin), null, fecha, tokenPropio);
+        }
+    }
+
+    @Override
+    public void reservar(LocalDate fecha, LocalTime horaInicio, LocalTime horaFin, String tokenPropio) {
+        ocupar(fecha, horaInicio, horaFin, null, tokenPropio);
+    }
+
+    @Override
+    public void mover(LocalDate fechaAnterior, LocalTime inicioAnterior, LocalTime finAnterior,
+                      LocalDate fecha, LocalTime horaInicio, LocalTime horaFin, String tokenPropio) {
+        //las dos fechas en orden (ver VersionCambioService), antes de comprobar la nueva
+        versionCambioService.bloquearFechas(fecha, fechaAnterior);
+        //en el mismo dia la plaza anterior se descuenta al comprobar
+        Franja anterior = fecha.equals(fechaAnterior) ? Franja.of(inicioAnterior, finAnterior) : null;
+        ocupar(fecha, horaInicio, horaFin, anterior, tokenPropio);
+        liberar(fechaAnterior, inicioAnterior, finAnterior);
+    }
+
+    @Override
+    public void liberar(LocalDate fecha, LocalTime horaInicio, LocalTime horaFin) {
+        //restar la franja tras el commit podria descontarla dos veces si el array se reconstruyo
+        //entre el commit y este callback: se reconstruye en la siguiente reserva
+        Dia dia = new Dia(sucursales.actual(), fecha);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidar(dia);
+            }
+        });
+    }
+
+    @Override
+    public BloqueoHorario bloquear(LocalDate fecha, LocalTime horaInicio, LocalTime horaFin) {
+        ContadorDia contador = contador(fecha);
+        int[] ocupadas = ocupadasSinBloquear(contador, fecha);
+        synchronized (contador) {
+            if (!hayPlaza(contador, ocupadas, Franja.of(horaInicio, horaFin), null, fecha, null)) {
+                throw sinPlazas(horaInicio, horaFin);
+            }
+            return bloqueoService.bloquear(fecha, horaInicio, horaFin);
+        }
+    }
+
+    // ==== invalidacion ====
+
+    //cambios hechos en otras instancias (y los propios, leidos de nuevo): se reconstruye el dia
+    @EventListener
+    public void onCambiosRemotos(CambiosRemotosEvent event) {
+        String sucursal = sucursales.actual();
+        event.fechas().forEach(fecha -> invalidar(new Dia(sucursal, fecha)));
+    }
+
+    private void invalidar(Dia dia) {
+        ContadorDia contador = contadores.get(dia);
+        if (contador != null) {
+            synchronized (contador) {
+                contador.ocupadas = null;
+            }
+        }
+    }
+
+    //los dias pasados ya no admiten reservas
+    @Scheduled(cron = "${reservas.capacidad.limpieza-cron:0 5 0 * * *}")
+    public void limpiar() {
+        LocalDate hoy = LocalDate.now();
+        contadores.keySet().removeIf(dia -> dia.fecha().isBefore(hoy));
+    }
+
+    // ==== reservas ====
+
+    private void ocupar(LocalDate fecha, LocalTime horaInicio, LocalTime horaFin, Franja excluida, String tokenPropio) {
+        Franja franja = Franja.of(horaInicio, horaFin);
+        //primero la fila de la fecha (puede esperar a otra transaccion), luego el monitor
+        long version = versionCambioService.bloquearFechas(fecha);
+        long confirmada = version - 1;
+        ContadorDia contador = contador(fecha);
+        //con la fila bloqueada ninguna otra escritura cambia el dia: lo leido refleja la version confirmada
+        //la lectura (que puede esperar a otras filas) va fuera del monitor; como mucho se repite una vez
+        int[] leidas = null;
+        while (true) {
+            synchronized (contador) {
+                boolean vigente = contador.ocupadas != null && contador.version == confirmada;
+                if (!vigente && leidas != null) {
+                    contador.ocupadas = leidas;
+                    contador.version = confirmada;
+                    vigente = true;
+                }
+                if (vigente) {
+                    if (!hayPlaza(contador, contador.ocupadas, franja, excluida, fecha, tokenPropio)) {
+                        throw sinPlazas(horaInicio, horaFin);
+                    }
+                    contador.enCurso.add(franja);
+                    break;
+                }
+            }
+            leidas = contar(repository.findActiveAppointmentsByDateForUpdate(fecha));
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                synchronized (contador) {
+                    contador.enCurso.remove(franja);
+                    //si el array se reconstruyo o se marco para reconstruir, la BD ya incluira la cita
+                    if (status == STATUS_COMMITTED && contador.ocupadas != null && contador.version == confirmada) {
+                        for (int m = franja.inicio(); m < franja.fin(); m++) {
+                            contador.ocupadas[m]++;
+                        }
+                        contador.version = version;
+                    }
+                }
+            }
+        });
+    }
+
+    /*comprueba minuto a minuto: citas + reservas en curso + bloqueos de otros clientes < capacidad
+     * las reservas en curso, los bloqueos y la plaza excluida se acumulan en un array de diferencias
+     * del tamano de la franja*/
+    private boolean hayPlaza(ContadorDia contador, int[] ocupadas, Franja franja, Franja excluida,
+                             LocalDate fecha, String tokenPropio) {
+        int[] diferencias = new int[franja.fin() - franja.inicio() + 1];
+        contador.enCurso.forEach(f -> sumar(diferencias, franja, f, 1));
+        for (BloqueoHorario b : bloqueoService.getBloqueos(fecha)) {
+            if (!b.token().equals(tokenPropio)) {
+                sumar(diferencias, franja, Franja.of(b.horaInicio(), b.horaFin()), 1);
+            }
+        }
+        if (excluida != null) {
+            sumar(diferencias, franja, excluida, -1);
+        }
+
+        int acumulado = 0;
+        for (int m = franja.inicio(); m < franja.fin(); m++) {
+            acumulado += diferencias[m - franja.inicio()];
+            if (ocupadas[m] + acumulado >= capacidad[m]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private ContadorDia contador(LocalDate fecha) {
+        return contadores.computeIfAbsent(new Dia(sucursales.actual(), fecha), d -> new ContadorDia());
+    }
+
+    //comprobaciones orientativas: copia del array si existe, si no lectura normal (consulta cacheada)
+    //que no se guarda en el contador, porque no refleja ninguna version bloqueada de la fecha
+    private int[] ocupadasSinBloquear(ContadorDia contador, LocalDate fecha) {
+        synchronized (contador) {
+            if (contador.ocupadas != null) {
+                return contador.ocupadas.clone();
+            }
+        }
+        return contar(repository.findActiveAppointmentsByDate(fecha));
+    }
+
+    private TimeSlotNotAvailableException sinPlazas(LocalTime horaInicio, LocalTime horaFin) {
+        return new TimeSlotNotAvailableException(
+                "El horario solicitado (" + horaInicio + " - " + horaFin + ") ya esta ocupado");
+    }
+
+    // ==== arrays por minuto ====
+
+    //citas activas por minuto: +1 al inicio y -1 al fin de cada cita, luego suma acumulada
+    private static int[] contar(List<Cita> citas) {
+        int[] diferencias = new int[MINUTOS + 1];
+        Franja dia = new Franja(0, MINUTOS);
+        for (Cita c : citas) {
+            sumar(diferencias, dia, Franja.of(c.getHoraInicio(), c.getHoraFin()), 1);
+        }
+        int[] ocupadas = new int[MINUTOS];
+        int acumulado = 0;
+        for (int m = 0; m < MINUTOS; m++) {
+            acumulado += diferencias[m];
+            ocupadas[m] = acumulado;
+        }
+        return ocupadas;
+    }
+
+    //anota el valor en la parte de otra que cae dentro de base (diferencias relativas a base.inicio)
+    private static void sumar(int[] diferencias, Franja base, Franja otra, int valor) {
+        int desde = Math.max(base.inicio(), otra.inicio());
+        int hasta = Math.min(base.fin(), otra.fin());
+        if (desde < hasta) {
+            diferencias[desde - base.inicio()] += valor;
+            diferencias[hasta - base.inicio()] -= valor;
+        }
+    }
+
+    //plazas por minuto: las generales y encima cada ventana en orden
+    private static int[] capacidadPorMinuto(CapacidadProperties properties) {
+        int[] plazas = new int[MINUTOS];
+        Arrays.fill(plazas, properties.plazas());
+        for (CapacidadProperties.Ventana v : properties.ventanas()) {
+            Franja franja = Franja.of(v.desde(), v.hasta());
+            Arrays.fill(plazas, franja.inicio(), Math.max(franja.inicio(), franja.fin()), v.plazas());
+        }
+        return plazas;
+    }
+
+    private record Dia(String sucursal, LocalDate fecha) {
+    }
+
+    //minutos [inicio, fin) contados desde la apertura y acotados al horario
+    private record Franja(int inicio, int fin) {
+
+        static Franja of(LocalTime inicio, LocalTime fin) {
+            //el inicio se redondea hacia abajo y el fin hacia arriba: nunca se achica la franja
+            return new Franja(acotar(inicio.toSecondOfDay() / 60), acotar(Math.ceilDiv(fin.toSecondOfDay(), 60)));
+        }
+
+        private static int acotar(int minutoDelDia) {
+            return Math.clamp(minutoDelDia - APERTURA, 0, MINUTOS);
+        }
+    }
+
+    //contador de un dia; todos los accesos con su monitor
+    private static final class ContadorDia {
+
+        //citas activas confirmadas en BD por minuto; null = reconstruir en la siguiente reserva
+        private int[] ocupadas;
+
+        //version de la fecha que refleja el array
+        private long version = SIN_VERSION;
+
+        //plazas de transacciones aun sin confirmar
+        private final List<Franja> enCurso = new ArrayList<>();
+    }
+}
@@ -0,0 +1,12 @@
+package com.felop.reservasCitas.service;
+
+import com.felop.reservasCitas.dto.CitaResponseDTO;
+import com.felop.reservasCitas.model.TipoEventoCita;
+
+import java.time.LocalDate;
+
+//Evento de aplicacion publicado por CitaServiceImpl en cada cambio de una cita
+//los listeners que reaccionan tras el commit usan @TransactionalEventListener
+//fechaAnterior: dia que tenia la cita si una actualizacion la movio de dia (null en otro caso)
+public record CitaCambiadaEvent(TipoEventoCita tipo, CitaResponseDTO cita, LocalDate fechaAnterior) {
+}
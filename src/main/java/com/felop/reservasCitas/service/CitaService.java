@@ -1,14 +1,22 @@
 package com.felop.reservasCitas.service;
 //Interfaz de servicio para la gestion de citas
 
+import com.felop.reservasCitas.dto.BloqueoRequestDTO;
+import com.felop.reservasCitas.dto.BloqueoResponseDTO;
 import com.felop.reservasCitas.dto.CitaConfirmacionDTO;
 import com.felop.reservasCitas.dto.CitaRequestDTO;
 import com.felop.reservasCitas.dto.CitaResponseDTO;
 import com.felop.reservasCitas.dto.DisponibilidadCitaDTO;
+import com.felop.reservasCitas.dto.DisponibilidadDuracionDTO;
+import com.felop.reservasCitas.dto.FiltroCitasDTO;
+import com.felop.reservasCitas.dto.PaginaCitasDTO;
+import com.felop.reservasCitas.dto.SerieCitaRequestDTO;
+import com.felop.reservasCitas.dto.SerieCitaResponseDTO;
 import com.felop.reservasCitas.model.EstadoCita;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 public interface CitaService {
 
@@ -17,14 +25,17 @@ public interface CitaService {
     //crear nueva cita
     CitaConfirmacionDTO createCita(CitaRequestDTO dto);
 
+    //crear una serie de citas recurrentes (semanal o quincenal)
+    SerieCitaResponseDTO createSerie(SerieCitaRequestDTO dto);
+
     //obtener todas las citas
     List<CitaResponseDTO> getAllCitas();
 
     //Obtiene una cita por su ID
     CitaResponseDTO getCitaById(Long id);
 
-    //Actualiza los datos de una cita existente
-    CitaResponseDTO updateCita(Long id, CitaRequestDTO dto);
+    //Actualiza los datos de una cita existente si sigue en la version esperada (null: cualquier version)
+    CitaResponseDTO updateCita(Long id, CitaRequestDTO dto, Long versionEsperada);
 
     //Elimina una cita existente
     void deleteCita(Long id);
@@ -43,11 +54,39 @@ public interface CitaService {
     //obtiene las citas de una fecha especifica
     List<CitaResponseDTO> getCitasByFecha(LocalDate fecha);
 
+    //citas que cumplen todos los filtros, por fecha y hora; despues es el cursor de la pagina anterior
+    PaginaCitasDTO getCitasFiltradas(FiltroCitasDTO filtro, String despues, int tamano);
+
+    //==== listados con solo algunos campos (fields=id,fecha,...) ====
+
+    //todas las citas con los campos indicados
+    List<Map<String, Object>> getAllCitas(String fields);
+
+    //citas (activas y archivadas) de un cliente con los campos indicados
+    List<Map<String, Object>> getCitasByEmail(String email, String fields);
+
+    //citas de un estado con los campos indicados
+    List<Map<String, Object>> getCitasByEstado(EstadoCita estado, String fields);
+
+    //citas de una fecha con los campos indicados
+    List<Map<String, Object>> getCitasByFecha(LocalDate fecha, String fields);
+
     //==== disponibilidad ====
 
     //calcula y devuelve la disponibilidad de horarios para una fecha
     DisponibilidadCitaDTO getDisponibilidad(LocalDate fecha);
 
+    //horas de inicio en las que cabe una cita de la duracion indicada
+    DisponibilidadDuracionDTO getDisponibilidad(LocalDate fecha, int duracionMinutos);
+
+    //==== bloqueos temporales ====
+
+    //retiene un horario durante unos minutos mientras el cliente completa la reserva
+    BloqueoResponseDTO bloquearHorario(BloqueoRequestDTO dto);
+
+    //libera un bloqueo antes de que expire
+    void liberarBloqueo(String token);
+
     //==== transiciones de estado ====
 
     //confirmar cita: pendiente -> confirmada
@@ -1,26 +1,53 @@
 package com.felop.reservasCitas.service;
 
+import com.felop.reservasCitas.dto.BloqueoRequestDTO;
+import com.felop.reservasCitas.dto.BloqueoResponseDTO;
+import com.felop.reservasCitas.dto.CampoCita;
 import com.felop.reservasCitas.dto.CitaConfirmacionDTO;
 import com.felop.reservasCitas.dto.CitaRequestDTO;
 import com.felop.reservasCitas.dto.CitaResponseDTO;
+import com.felop.reservasCitas.dto.ConflictoSerieDTO;
 import com.felop.reservasCitas.dto.DisponibilidadCitaDTO;
+import com.felop.reservasCitas.dto.DisponibilidadDuracionDTO;
+import com.felop.reservasCitas.dto.FiltroCitasDTO;
+import com.felop.reservasCitas.dto.PaginaCitasDTO;
+import com.felop.reservasCitas.dto.SerieCitaRequestDTO;
+import com.felop.reservasCitas.dto.SerieCitaResponseDTO;
 import com.felop.reservasCitas.exceptions.CitaNotFoundException;
+import com.felop.reservasCitas.exceptions.InvalidCursorException;
 import com.felop.reservasCitas.exceptions.InvalidStateTransitionException;
 import com.felop.reservasCitas.exceptions.InvalidTimeRangeException;
+import com.felop.reservasCitas.exceptions.PreconditionFailedException;
 import com.felop.reservasCitas.exceptions.TimeSlotNotAvailableException;
 import com.felop.reservasCitas.model.Cita;
+import com.felop.reservasCitas.model.CitaHistorica;
+import com.felop.reservasCitas.model.Cliente;
 import com.felop.reservasCitas.model.EstadoCita;
+import com.felop.reservasCitas.model.TipoEventoCita;
+import com.felop.reservasCitas.repository.CitaHistoricaRepository;
+import com.felop.reservasCitas.repository.CitaFiltroRepository;
 import com.felop.reservasCitas.repository.CitaRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -34,11 +61,43 @@ public class CitaServiceImpl implements CitaService {
     //inyeccion por constructor
     private final CitaRepository repository;
 
+    //citas finalizadas archivadas, consultadas despues de la tabla principal
+    private final CitaHistoricaRepository historicoRepository;
+
+    //resumen diario para reportes, se actualiza en la misma transaccion
+    private final ReporteService reporteService;
+
+    //eventos de cambio para sistemas externos, se escriben en la misma transaccion
+    private final OutboxService outboxService;
+
+    //publica CitaCambiadaEvent para los listeners que actuan tras el commit (notificaciones)
+    private final ApplicationEventPublisher eventPublisher;
+
+    //horarios retenidos temporalmente durante el checkout
+    private final BloqueoService bloqueoService;
+
+    //plazas en paralelo por minuto: reserva y libera la plaza de cada cita activa
+    private final CapacidadService capacidadService;
+
+    //versiones por fecha y cita para que las demas instancias invaliden sus caches
+    private final VersionCambioService versionCambioService;
+
+    //clientes deduplicados por email: cada cita referencia a su cliente
+    private final ClienteService clienteService;
+
     //constantes configuracion del negocio
     private static final LocalTime HORARIO_APERTURA = LocalTime.of(8, 0);
     private static final LocalTime HORARIO_CIERRE = LocalTime.of(20, 0);
     private static final int SLOT_DURACION_MINUTOS = 30;
     private static final long ANTICIPACION_MINIMA_HORAS = 2;
+    private static final int MAX_CITAS_SERIE = 52;
+    private static final int TAMANO_MAXIMO_PAGINA = 100;
+    private static final int DURACION_MINIMA_MINUTOS = 15;
+    private static final int DURACION_MAXIMA_MINUTOS = 480;
+
+    //separacion entre las horas de inicio que se ofrecen en la disponibilidad por duracion
+    @Value("${reservas.disponibilidad.paso-minutos:15}")
+    private int pasoMinutos;
 
     //==== operaciones CRUD ====
 
@@ -49,14 +108,14 @@ public class CitaServiceImpl implements CitaService {
         //validar horario laboral
         validateBusinessHours(dto.getHoraInicio(), dto.getHoraFin());
 
-        //validar que no haya cruce con otras citas
-        validateNoOverlap(dto.getFecha(), dto.getHoraInicio(), dto.getHoraFin(), null);
-
         //validar anticipacion minima (2h)
         validateMinimumAdvance(dto.getFecha(), dto.getHoraInicio());
 
-        //mapear DTO -> entity
-        Cita cita = mapToEntity(dto);
+        //ocupar una plaza: sin plazas libres (citas y bloqueos de otros clientes) se rechaza
+        capacidadService.reservar(dto.getFecha(), dto.getHoraInicio(), dto.getHoraFin(), dto.getTokenBloqueo());
+
+        //mapear DTO -> entity (con el cliente existente o uno nuevo)
+        Cita cita = mapToEntity(dto, registrarCliente(dto));
 
         //generaar codigo unico de confirmacion
         cita.setCodigoConfirmacion(generateUniqueConfirmationCode());
@@ -66,12 +125,94 @@ public class CitaServiceImpl implements CitaService {
 
         //guardar en bd
         Cita saved = repository.save(cita);
+        reporteService.registrarAlta(saved);
+        registrarCambio(TipoEventoCita.CITA_CREADA, mapToResponseDTO(saved));
+
+        //la cita ya ocupa el horario: el bloqueo temporal deja de hacer falta
+        bloqueoService.liberar(dto.getTokenBloqueo());
 
         //mapear entity -> ConfirmationDTO y devolver
         return mapToConfirmationDTO(saved);
 
     }
 
+    /*crea una serie de citas recurrentes en una sola transaccion
+     *
+     * en lugar de N altas individuales (N bucles de codigos):
+     * - el horario laboral se valida una vez (es el mismo en todas las ocurrencias)
+     * - las plazas de cada fecha se comprueban en el contador del dia (CapacidadService)
+     * - los codigos de confirmacion se generan y comprueban en bloque
+     * - todas las citas se insertan juntas con saveAll
+     *
+     * las ocurrencias ocupadas o sin la anticipacion minima se devuelven como conflictos;
+     * con todasONinguna=true cualquier conflicto cancela la serie completa*/
+    @Override
+    @Transactional
+    public SerieCitaResponseDTO createSerie(SerieCitaRequestDTO dto) {
+        CitaRequestDTO base = dto.getCita();
+
+        //validar horario laboral
+        validateBusinessHours(base.getHoraInicio(), base.getHoraFin());
+
+        //calcular las fechas de la serie
+        List<LocalDate> fechas = expandirSerie(dto);
+
+        LocalDateTime minimoPermitido = LocalDateTime.now().plusHours(ANTICIPACION_MINIMA_HORAS);
+        List<LocalDate> libres = new ArrayList<>();
+        List<ConflictoSerieDTO> conflictos = new ArrayList<>();
+
+        for (LocalDate fecha : fechas) {
+            if (LocalDateTime.of(fecha, base.getHoraInicio()).isBefore(minimoPermitido)) {
+                conflictos.add(mapToConflictoDTO(fecha, base, "Las citas deben crearse con al menos "
+                        + ANTICIPACION_MINIMA_HORAS + " de anticipacion"));
+            } else if (!capacidadService.hayPlaza(fecha, base.getHoraInicio(), base.getHoraFin(),
+                    base.getTokenBloqueo())) {
+                conflictos.add(mapToConflictoDTO(fecha, base, "El horario solicitado ya esta ocupado"));
+            } else {
+                libres.add(fecha);
+            }
+        }
+
+        SerieCitaResponseDTO.SerieCitaResponseDTOBuilder response = SerieCitaResponseDTO.builder()
+                .frecuencia(dto.getFrecuencia())
+                .totalOcurrencias(fechas.size())
+                .conflictos(conflictos);
+
+        if (libres.isEmpty() || (dto.isTodasONinguna() && !conflictos.isEmpty())) {
+            return response.creadas(List.of()).build();
+        }
+
+        //ocupar la plaza de cada fecha libre (otra reserva pudo tomarla tras la comprobacion: 409 y rollback)
+        for (LocalDate fecha : libres) {
+            capacidadService.reservar(fecha, base.getHoraInicio(), base.getHoraFin(), base.getTokenBloqueo());
+        }
+
+        //mapear DTO -> entity por cada fecha libre, con codigos generados en bloque
+        List<String> codigos = generateUniqueConfirmationCodes(libres.size());
+        Cliente cliente = registrarCliente(base);
+        List<Cita> citas = new ArrayList<>(libres.size());
+        for (int i = 0; i < libres.size(); i++) {
+            Cita cita = mapToEntity(base, cliente);
+            cita.setFecha(libres.get(i));
+            cita.setCodigoConfirmacion(codigos.get(i));
+            cita.setEstado(EstadoCita.PENDIENTE);
+            citas.add(cita);
+        }
+
+        //guardar todas en la misma transaccion
+        List<Cita> saved = repository.saveAll(citas);
+        bloqueoService.liberar(base.getTokenBloqueo());
+
+        List<CitaConfirmacionDTO> creadas = new ArrayList<>(saved.size());
+        for (Cita cita : saved) {
+            reporteService.registrarAlta(cita);
+            registrarCambio(TipoEventoCita.CITA_CREADA, mapToResponseDTO(cita));
+            creadas.add(mapToConfirmationDTO(cita));
+        }
+
+        return response.creadas(creadas).build();
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<CitaResponseDTO> getAllCitas() {
@@ -92,30 +233,62 @@ public class CitaServiceImpl implements CitaService {
     /*
      * Actualiza una cita existente
      *
-     * IMPORTANTE: Al validar solapamiento, excluye la propia cita
-     * para permitir modificar horarios sin conflicto consigo misma.*/
+     * IMPORTANTE: Al comprobar plazas, la de la propia cita no cuenta
+     * para permitir modificar horarios sin conflicto consigo misma.
+     *
+     * control optimista: si el cliente leyo una version anterior (If-Match) se rechaza con 412
+     * sin tocar nada; si otra transaccion escribe entre esta lectura y el flush,
+     * el UPDATE condicionado por @Version falla y tambien termina en 412*/
     @Override
     @Transactional
-    public CitaResponseDTO updateCita(Long id, CitaRequestDTO dto) {
+    public CitaResponseDTO updateCita(Long id, CitaRequestDTO dto, Long versionEsperada) {
         //verificar que la cita existe
         Cita existing = findByIdOrThrow(id);
 
+        //verificar que nadie la modifico desde que el cliente la leyo
+        Long versionActual = existing.getVersion();
+        if (versionEsperada != null && !versionEsperada.equals(versionActual)) {
+            throw new PreconditionFailedException(
+                    "La cita " + id + " fue modificada por otra peticion (version actual: " + versionActual
+                            + ", If-Match: " + versionEsperada + "). Vuelva a consultarla y reintente");
+        }
+
         //validar nuevo horario
         validateBusinessHours(dto.getHoraInicio(), dto.getHoraFin());
 
-        //validr cruce de horarios (excluyendo la propia cita con ID)
-        validateNoOverlap(dto.getFecha(), dto.getHoraInicio(), dto.getHoraFin(), id);
-
         //validar anticipacion minima
         validateMinimumAdvance(dto.getFecha(), dto.getHoraInicio());
 
+        //las dos fechas se bloquean antes que el cliente, en el mismo orden que en el resto de escrituras
+        versionCambioService.bloquearFechas(dto.getFecha(), existing.getFecha());
+
+        //mover la plaza al nuevo horario (la propia cita no cuenta); una cita inactiva no ocupa plaza
+        if (isActiva(existing)) {
+            capacidadService.mover(existing.getFecha(), existing.getHoraInicio(), existing.getHoraFin(),
+                    dto.getFecha(), dto.getHoraInicio(), dto.getHoraFin(), dto.getTokenBloqueo());
+        } else if (!capacidadService.hayPlaza(dto.getFecha(), dto.getHoraInicio(), dto.getHoraFin(),
+                dto.getTokenBloqueo())) {
+            throw new TimeSlotNotAvailableException("El horario solicitado (" + dto.getHoraInicio()
+                    + " - " + dto.getHoraFin() + ") ya esta ocupado");
+        }
+
+        //restar los valores anteriores del resumen diario
+        reporteService.registrarBaja(existing);
+        LocalDate fechaAnterior = existing.getFecha();
+
         // Actualizar campos (manteniendo ID, código, estado, timestamps)
-        updateEntityFromDTO(existing, dto);
+        updateEntityFromDTO(existing, dto, registrarCliente(dto));
 
         //guardar cambios
-        Cita updated = repository.save(existing);
-
-        return mapToResponseDTO(updated);
+        //flush: la version incrementada (y el control optimista) se aplican antes de responder
+        Cita updated = repository.saveAndFlush(existing);
+        reporteService.registrarAlta(updated);
+        bloqueoService.liberar(dto.getTokenBloqueo());
+
+        CitaResponseDTO response = mapToResponseDTO(updated);
+        registrarCambio(TipoEventoCita.CITA_ACTUALIZADA, response,
+                fechaAnterior.equals(updated.getFecha()) ? null : fechaAnterior);
+        return response;
     }
 
     @Override
@@ -123,6 +296,13 @@ public class CitaServiceImpl implements CitaService {
     public void deleteCita(Long id) {
         //verificar que existe antes de eliminar
         Cita cita = findByIdOrThrow(id);
+        //la fecha antes que la fila de la cita y el resumen diario, como en el alta
+        versionCambioService.bloquearFechas(cita.getFecha());
+        if (isActiva(cita)) {
+            capacidadService.liberar(cita.getFecha(), cita.getHoraInicio(), cita.getHoraFin());
+        }
+        reporteService.registrarBaja(cita);
+        registrarCambio(TipoEventoCita.CITA_ELIMINADA, mapToResponseDTO(cita));
         repository.delete(cita);
     }
 
@@ -131,22 +311,33 @@ public class CitaServiceImpl implements CitaService {
     @Override
     @Transactional(readOnly = true)
     public CitaResponseDTO getCitaByCodigo(String codigo) {
-        Cita cita = repository.findByCodigoConfirmacion(codigo)
+        //primero en la tabla principal y, si no esta, en el historico
+        return repository.findByCodigoConfirmacion(codigo)
+                .map(this::mapToResponseDTO)
+                .or(() -> historicoRepository.findFirstByCodigoConfirmacionOrderByFechaDesc(codigo)
+                        .map(this::mapToResponseDTO))
                 .orElseThrow(() -> new CitaNotFoundException(
                         "Cita con codigo " + codigo + " no encontrada"
                 ));
-
-        return mapToResponseDTO(cita);
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<CitaResponseDTO> getCitasByEmail(String email) {
 
-        return repository.findByEmailOrderByFechaDesc(email)
+        String normalizado = Cliente.normalizarEmail(email);
+        List<CitaResponseDTO> citas = repository.findByClienteEmailOrderByFechaDesc(normalizado)
                 .stream()
                 .map(this::mapToResponseDTO)
                 .collect(Collectors.toList());
+
+        //agregar las citas archivadas manteniendo el orden por fecha descendente
+        List<CitaHistorica> archivadas = historicoRepository.findByEmailOrderByFechaDesc(normalizado);
+        if (!archivadas.isEmpty()) {
+            archivadas.forEach(h -> citas.add(mapToResponseDTO(h)));
+            citas.sort(Comparator.comparing(CitaResponseDTO::getFecha).reversed());
+        }
+        return citas;
     }
 
     @Override
@@ -169,10 +360,100 @@ public class CitaServiceImpl implements CitaService {
                 .collect(Collectors.toList());
     }
 
+    /*filtros combinados en una sola consulta, paginada por keyset
+     * se pide una cita de mas para saber si hay pagina siguiente sin contar el total;
+     * el cursor codifica (fecha, horaInicio, id) de la ultima cita devuelta*/
+    @Override
+    @Transactional(readOnly = true)
+    public PaginaCitasDTO getCitasFiltradas(FiltroCitasDTO filtro, String despues, int tamano) {
+        int tamanoValido = Math.clamp(tamano, 1, TAMANO_MAXIMO_PAGINA);
+        List<Cita> citas = repository.findFiltradas(filtro, decodificarCursor(despues), tamanoValido + 1);
+
+        boolean haySiguiente = citas.size() > tamanoValido;
+        List<Cita> pagina = haySiguiente ? citas.subList(0, tamanoValido) : citas;
+
+        return PaginaCitasDTO.builder()
+                .citas(pagina.stream().map(this::mapToResponseDTO).toList())
+                .siguiente(haySiguiente ? codificarCursor(CitaFiltroRepository.Posicion.of(pagina.getLast())) : null)
+                .build();
+    }
+
+    // ====== listados con solo algunos campos ======
+
+    /*fields=id,fecha,horaInicio,...
+     * la consulta selecciona solo las columnas necesarias (no carga entidades),
+     * asi una vista estrecha (ej: calendario) lee y serializa proporcionalmente menos*/
+    @Override
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getAllCitas(String fields) {
+        Set<CampoCita> campos = CampoCita.parse(fields);
+        return proyectar(campos, repository.findCampos(Cita.class, CampoCita.atributos(campos),
+                Map.of(), Sort.by("id")));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getCitasByEmail(String email, String fields) {
+        Set<CampoCita> campos = CampoCita.parse(fields);
+        //la fecha se lee siempre para ordenar activas y archivadas juntas
+        Set<String> atributos = CampoCita.atributos(campos, "fecha");
+        Sort orden = Sort.by(Sort.Direction.DESC, "fecha");
+
+        Map<String, Object> filtro = Map.of("email", Cliente.normalizarEmail(email));
+
+        List<Map<String, Object>> filas = new ArrayList<>(
+                repository.findCampos(Cita.class, atributos, filtro, orden));
+        List<Map<String, Object>> archivadas =
+                historicoRepository.findCampos(CitaHistorica.class, atributos, filtro, orden);
+        if (!archivadas.isEmpty()) {
+            filas.addAll(archivadas);
+            filas.sort(Comparator.comparing((Map<String, Object> f) -> (LocalDate) f.get("fecha")).reversed());
+        }
+        return proyectar(campos, filas);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getCitasByEstado(EstadoCita estado, String fields) {
+        Set<CampoCita> campos = CampoCita.parse(fields);
+        return proyectar(campos, repository.findCampos(Cita.class, CampoCita.atributos(campos),
+                Map.of("estado", estado), Sort.by("fecha")));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getCitasByFecha(LocalDate fecha, String fields) {
+        Set<CampoCita> campos = CampoCita.parse(fields);
+        return proyectar(campos, repository.findCampos(Cita.class, CampoCita.atributos(campos),
+                Map.of("fecha", fecha), Sort.by("horaInicio")));
+    }
+
+    // ====== cursor del listado filtrado ======
+
+    //"fecha|horaInicio|id" en base64 url: opaco para el cliente
+    private static String codificarCursor(CitaFiltroRepository.Posicion p) {
+        String valor = p.fecha() + "|" + p.horaInicio() + "|" + p.id();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static CitaFiltroRepository.Posicion decodificarCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String[] partes = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            return new CitaFiltroRepository.Posicion(
+                    LocalDate.parse(partes[0]), LocalTime.parse(partes[1]), Long.valueOf(partes[2]));
+        } catch (RuntimeException ex) {
+            throw new InvalidCursorException("El cursor de paginacion no es valido: " + cursor);
+        }
+    }
+
     // ====== disponibilidad ======
 
     /*
-     * calcula la disponibilidad de horarios para una fecha*/
+     * calcula la disponibilidad de horarios para una fecha
+     * un slot esta disponible si le queda al menos una plaza en todos sus minutos*/
     @Override
     @Transactional(readOnly = true)
     public DisponibilidadCitaDTO getDisponibilidad(LocalDate fecha) {
@@ -188,9 +469,22 @@ public class CitaServiceImpl implements CitaService {
             occupiedSlots.add(formatTimeRange(c.getHoraInicio(), c.getHoraFin()));
         }
 
-        //calcular slots disponibles = todos -ocupados
+        //horarios retenidos por clientes en checkout
+        List<String> blockedSlots = bloqueoService.getBloqueos(fecha).stream()
+                .sorted(Comparator.comparing(BloqueoHorario::horaInicio))
+                .map(b -> formatTimeRange(b.horaInicio(), b.horaFin()))
+                .collect(Collectors.toList());
+
+        //plazas restantes de cada slot = minimo de plazas libres entre sus minutos
+        int[] plazasLibres = capacidadService.getPlazasLibres(fecha);
+        Map<String, Integer> plazasPorSlot = new LinkedHashMap<>();
+        for (String slot : allSlots) {
+            plazasPorSlot.put(slot, plazasLibres(slot, plazasLibres));
+        }
+
+        //calcular slots disponibles = los que conservan alguna plaza
         List<String> availableSlots = allSlots.stream()
-                .filter(slot -> !isSlotOccupied(slot, citasActivas))
+                .filter(slot -> plazasPorSlot.get(slot) > 0)
                 .collect(Collectors.toList());
 
         //construir y devolver slots
@@ -198,10 +492,81 @@ public class CitaServiceImpl implements CitaService {
                 .fecha(fecha)
                 .horariosDisponibles(availableSlots)
                 .horariosOcupados(occupiedSlots)
+                .horariosBloqueados(blockedSlots)
+                .plazasLibres(plazasPorSlot)
                 .totalDisponibles(availableSlots.size())
                 .build();
     }
 
+    /*calcula las horas de inicio en las que cabe una cita de la duracion indicada
+     *
+     * las candidatas son los puntos de la rejilla (apertura + k * pasoMinutos);
+     * en lugar de comprobar cada candidata contra todas las citas se recorre una sola vez
+     * el array de plazas libres por minuto del dia y se toman las candidatas de cada hueco
+     * (tramo de minutos con alguna plaza libre)*/
+    @Override
+    @Transactional(readOnly = true)
+    public DisponibilidadDuracionDTO getDisponibilidad(LocalDate fecha, int duracionMinutos) {
+        if (duracionMinutos < DURACION_MINIMA_MINUTOS || duracionMinutos > DURACION_MAXIMA_MINUTOS) {
+            throw new InvalidTimeRangeException("La duracion de la cita debe estar entre "
+                    + DURACION_MINIMA_MINUTOS + " y " + DURACION_MAXIMA_MINUTOS + " minutos");
+        }
+
+        int[] plazasLibres = capacidadService.getPlazasLibres(fecha);
+        int apertura = minutoDelDia(HORARIO_APERTURA);
+        int primerMinuto = primerMinutoReservable(fecha);
+
+        //barrido: huecoDesde es el primer minuto libre del hueco actual (-1 fuera de un hueco)
+        List<LocalTime> horasInicio = new ArrayList<>();
+        int huecoDesde = -1;
+        for (int m = 0; m <= plazasLibres.length; m++) {
+            boolean libre = m < plazasLibres.length && plazasLibres[m] > 0;
+            if (libre && huecoDesde < 0) {
+                huecoDesde = m;
+            } else if (!libre && huecoDesde >= 0) {
+                agregarInicios(horasInicio, Math.max(apertura + huecoDesde, primerMinuto), apertura + m,
+                        duracionMinutos);
+                huecoDesde = -1;
+            }
+        }
+
+        return DisponibilidadDuracionDTO.builder()
+                .fecha(fecha)
+                .duracionMinutos(duracionMinutos)
+                .pasoMinutos(pasoMinutos)
+                .horasInicio(horasInicio)
+                .totalDisponibles(horasInicio.size())
+                .build();
+    }
+
+    // ====== bloqueos temporales ======
+
+    /*retiene un horario libre durante unos minutos mientras el cliente completa el formulario
+     * aplica las mismas validaciones que la reserva, para no retener horarios que luego fallarian
+     * sin readOnly: el contador de plazas del dia puede reconstruirse con una lectura bloqueante*/
+    @Override
+    @Transactional
+    public BloqueoResponseDTO bloquearHorario(BloqueoRequestDTO dto) {
+        validateBusinessHours(dto.getHoraInicio(), dto.getHoraFin());
+        validateMinimumAdvance(dto.getFecha(), dto.getHoraInicio());
+
+        //comprueba las plazas y registra el bloqueo de forma atomica
+        BloqueoHorario bloqueo = capacidadService.bloquear(dto.getFecha(), dto.getHoraInicio(), dto.getHoraFin());
+
+        return BloqueoResponseDTO.builder()
+                .token(bloqueo.token())
+                .fecha(bloqueo.fecha())
+                .horaInicio(bloqueo.horaInicio())
+                .horaFin(bloqueo.horaFin())
+                .expiraEn(bloqueo.expiraEn())
+                .build();
+    }
+
+    @Override
+    public void liberarBloqueo(String token) {
+        bloqueoService.liberar(token);
+    }
+
     // ====== transiciones de estado ======
 
     @Override
@@ -216,12 +581,20 @@ public class CitaServiceImpl implements CitaService {
                             + cita.getEstado());
         }
 
-        //cambiar estado
+        //la fecha antes que la fila de la cita y el resumen diario, como en el alta
+        versionCambioService.bloquearFechas(cita.getFecha());
+
+        //cambiar estado (moviendo la cita de fila en el resumen diario)
+        reporteService.registrarBaja(cita);
         cita.setEstado(EstadoCita.CONFIRMADA);
 
         //guardar y devolver
-        Cita updated = repository.save(cita);
-        return mapToResponseDTO(updated);
+        Cita updated = repository.saveAndFlush(cita);
+        reporteService.registrarAlta(updated);
+
+        CitaResponseDTO response = mapToResponseDTO(updated);
+        registrarCambio(TipoEventoCita.CITA_CONFIRMADA, response);
+        return response;
     }
 
     @Override
@@ -239,12 +612,21 @@ public class CitaServiceImpl implements CitaService {
                     "La cita ya está cancelada");
         }
 
-        //cambiar estado
+        //la fecha antes que la fila de la cita y el resumen diario, como en el alta
+        versionCambioService.bloquearFechas(cita.getFecha());
+
+        //cambiar estado (moviendo la cita de fila en el resumen diario) y liberar su plaza
+        reporteService.registrarBaja(cita);
         cita.setEstado(EstadoCita.CANCELADA);
+        capacidadService.liberar(cita.getFecha(), cita.getHoraInicio(), cita.getHoraFin());
 
         //guardar y devolver
-        Cita updated = repository.save(cita);
-        return mapToResponseDTO(updated);
+        Cita updated = repository.saveAndFlush(cita);
+        reporteService.registrarAlta(updated);
+
+        CitaResponseDTO response = mapToResponseDTO(updated);
+        registrarCambio(TipoEventoCita.CITA_CANCELADA, response);
+        return response;
     }
 
     @Override
@@ -260,12 +642,21 @@ public class CitaServiceImpl implements CitaService {
             );
         }
 
-        //cambiar estado
+        //la fecha antes que la fila de la cita y el resumen diario, como en el alta
+        versionCambioService.bloquearFechas(cita.getFecha());
+
+        //cambiar estado (moviendo la cita de fila en el resumen diario) y liberar su plaza
+        reporteService.registrarBaja(cita);
         cita.setEstado(EstadoCita.COMPLETADA);
+        capacidadService.liberar(cita.getFecha(), cita.getHoraInicio(), cita.getHoraFin());
 
         //guardar y devolver
-        Cita updated = repository.save(cita);
-        return mapToResponseDTO(updated);
+        Cita updated = repository.saveAndFlush(cita);
+        reporteService.registrarAlta(updated);
+
+        CitaResponseDTO response = mapToResponseDTO(updated);
+        registrarCambio(TipoEventoCita.CITA_COMPLETADA, response);
+        return response;
     }
 
     //    ====Validaciones de negocio====
@@ -273,31 +664,14 @@ public class CitaServiceImpl implements CitaService {
     private void validateBusinessHours(LocalTime horaInicio, LocalTime horaFin) {
         if (horaInicio.isBefore(HORARIO_APERTURA) || horaFin.isAfter(HORARIO_CIERRE)) {
             throw new InvalidTimeRangeException(
-                    String.format("Las citas deben estar entre %s y %s. Horario solicitado: %s - %s",
-                            HORARIO_APERTURA, HORARIO_CIERRE, horaInicio, horaFin)
-            );
+                    "Las citas deben estar entre " + HORARIO_APERTURA + " y " + HORARIO_CIERRE
+                            + ". Horario solicitado: " + horaInicio + " - " + horaFin);
         }
     }
 
-    /*Valida que no haya cruce de horarios con otras citas activas
-     * Usa el query findOverlappingAppointments del repository.
-     * Si excludeId no es null, excluye esa cita de la búsqueda (útil para updates).*/
-    private void validateNoOverlap(LocalDate fecha, LocalTime horaInicio, LocalTime horaFin, Long excludeId) {
-        List<Cita> overlaping = repository.findOverlappingAppointments(fecha, horaInicio, horaFin);
-
-        //si se esta actualizando se excluye la propia cita
-        if (excludeId != null) {
-            overlaping = overlaping.stream()
-                    .filter(apt -> !apt.getId().equals(excludeId))
-                    .collect(Collectors.toList());
-        }
-
-        if (!overlaping.isEmpty()) {
-            throw new TimeSlotNotAvailableException(
-                    String.format("El horario solicitado (%s - %s) ya esta ocupado",
-                            horaInicio, horaFin)
-            );
-        }
+    //las citas pendientes y confirmadas ocupan plaza; las canceladas y completadas no
+    private boolean isActiva(Cita cita) {
+        return cita.getEstado() == EstadoCita.PENDIENTE || cita.getEstado() == EstadoCita.CONFIRMADA;
     }
 
     /*Valida que la cita se cree con anticipacion minima
@@ -312,8 +686,7 @@ public class CitaServiceImpl implements CitaService {
 
         if (citaDateTime.isBefore(minimoPermitido)) {
             throw new InvalidTimeRangeException(
-                    String.format("Las citas deben crearse con al menos %d de anticipacion",
-                            ANTICIPACION_MINIMA_HORAS));
+                    "Las citas deben crearse con al menos " + ANTICIPACION_MINIMA_HORAS + " de anticipacion");
         }
     }
 
@@ -324,15 +697,66 @@ public class CitaServiceImpl implements CitaService {
     private String generateUniqueConfirmationCode() {
         String code;
         do {
-            // UUID.randomUUID()
-            String uuid = UUID.randomUUID().toString().replace("-", "");
-            //tomar 4 caracteres
-            String sufix = uuid.substring(0, 4).toUpperCase();
-            code = "APT-" + sufix;
-        } while (repository.existsByCodigoConfirmacion(code)); //Repetir si ya existe
+            code = randomConfirmationCode();
+        } while (repository.existsByCodigoConfirmacion(code)
+                || historicoRepository.existsByCodigoConfirmacion(code)); //Repetir si ya existe (tambien en el historico)
         return code;
     }
 
+    /*Genera varios codigos unicos a la vez (series)
+     * cada ronda comprueba todos los candidatos con una consulta por tabla
+     * y solo regenera los que ya existian*/
+    private List<String> generateUniqueConfirmationCodes(int cantidad) {
+        Set<String> codes = new LinkedHashSet<>();
+        while (codes.size() < cantidad) {
+            Set<String> candidatos = new HashSet<>();
+            while (candidatos.size() < cantidad - codes.size()) {
+                String code = randomConfirmationCode();
+                if (!codes.contains(code)) {
+                    candidatos.add(code);
+                }
+            }
+            repository.findExistingCodigos(candidatos).forEach(candidatos::remove);
+            if (!candidatos.isEmpty()) {
+                historicoRepository.findExistingCodigos(candidatos).forEach(candidatos::remove);
+            }
+            codes.addAll(candidatos);
+        }
+        return new ArrayList<>(codes);
+    }
+
+    //codigo aleatorio sin comprobar si ya existe
+    private String randomConfirmationCode() {
+        // UUID.randomUUID()
+        String uuid = UUID.randomUUID().toString().replace("-", "");
+        //tomar 4 caracteres
+        String sufix = uuid.substring(0, 4).toUpperCase();
+        return "APT-" + sufix;
+    }
+
+    // ==== helpers series ====
+
+    /*Calcula las fechas de una serie a partir de la primera cita
+     * cada ocurrencia cae el mismo dia de la semana, cada 1 o 2 semanas,
+     * hasta completar las repeticiones o pasar la fecha de fin*/
+    private List<LocalDate> expandirSerie(SerieCitaRequestDTO dto) {
+        LocalDate fecha = dto.getCita().getFecha();
+        int semanas = dto.getFrecuencia().getSemanas();
+        List<LocalDate> fechas = new ArrayList<>();
+
+        while (dto.getRepeticiones() != null
+                ? fechas.size() < dto.getRepeticiones()
+                : !fecha.isAfter(dto.getFechaFin())) {
+            if (fechas.size() == MAX_CITAS_SERIE) {
+                throw new InvalidTimeRangeException(
+                        "Una serie no puede tener mas de " + MAX_CITAS_SERIE + " citas");
+            }
+            fechas.add(fecha);
+            fecha = fecha.plusWeeks(semanas);
+        }
+        return fechas;
+    }
+
     // ==== helpers disponibilidad ====
 
     /* Genera todos los slots de tiempo posibles.
@@ -352,22 +776,47 @@ public class CitaServiceImpl implements CitaService {
         return slots;
     }
 
-    /*Verifica si un slot esta ocupado por alguna cita
-     * Un slot "08:00 - 08:30" está ocupado si alguna cita solapa con él.*/
-    private boolean isSlotOccupied(String slot, List<Cita> citas) {
-        //Extraer inicio y fin del slot
+    //plazas restantes de un slot "HH:mm - HH:mm": el minimo entre sus minutos (indice 0 = apertura)
+    private int plazasLibres(String slot, int[] plazasLibres) {
         String[] parts = slot.split(" - ");
-        LocalTime slotStart = LocalTime.parse(parts[0]);
-        LocalTime slotEnd = LocalTime.parse(parts[1]);
-
-        //verificar si alguna cita se cruza con este slot
-        for (Cita c : citas) {
-            if (c.getHoraInicio().isBefore(slotEnd) &&
-                    c.getHoraFin().isAfter(slotStart)) {
-                return true; //hay cruce
-            }
+        int apertura = minutoDelDia(HORARIO_APERTURA);
+        int desde = minutoDelDia(LocalTime.parse(parts[0])) - apertura;
+        int hasta = minutoDelDia(LocalTime.parse(parts[1])) - apertura;
+
+        int minimo = Integer.MAX_VALUE;
+        for (int m = desde; m < hasta; m++) {
+            minimo = Math.min(minimo, plazasLibres[m]);
         }
-        return false; //no hay cruce
+        return minimo;
+    }
+
+    /*agrega las horas de inicio de la rejilla dentro del hueco libre [desde, hasta)
+     * en las que la cita termina a mas tardar en hasta*/
+    private void agregarInicios(List<LocalTime> horasInicio, int desde, int hasta, int duracionMinutos) {
+        int apertura = minutoDelDia(HORARIO_APERTURA);
+        //primer punto de la rejilla que no queda antes del hueco
+        int inicio = apertura + Math.ceilDiv(Math.max(desde - apertura, 0), pasoMinutos) * pasoMinutos;
+        for (; inicio + duracionMinutos <= hasta; inicio += pasoMinutos) {
+            horasInicio.add(LocalTime.of(inicio / 60, inicio % 60));
+        }
+    }
+
+    /*primer minuto del dia en el que se puede empezar una cita (anticipacion minima)
+     * fechas pasadas o ya fuera de plazo devuelven el cierre: no hay huecos*/
+    private int primerMinutoReservable(LocalDate fecha) {
+        LocalDateTime minimoPermitido = LocalDateTime.now().plusHours(ANTICIPACION_MINIMA_HORAS);
+        if (fecha.isAfter(minimoPermitido.toLocalDate())) {
+            return minutoDelDia(HORARIO_APERTURA);
+        }
+        if (fecha.isBefore(minimoPermitido.toLocalDate())) {
+            return minutoDelDia(HORARIO_CIERRE);
+        }
+        return Math.ceilDiv(minimoPermitido.toLocalTime().toSecondOfDay(), 60);
+    }
+
+    //minutos desde las 00:00 (redondeando hacia arriba los segundos)
+    private static int minutoDelDia(LocalTime hora) {
+        return Math.ceilDiv(hora.toSecondOfDay(), 60);
     }
 
     //formatea un rango de tiempo como String
@@ -376,16 +825,20 @@ public class CitaServiceImpl implements CitaService {
     }
 
     // ====== mapeo dto <-> Entity ======
+
+    //cliente de la reserva: deduplicado por email, con el nombre y telefono enviados
+    private Cliente registrarCliente(CitaRequestDTO dto) {
+        return clienteService.registrar(dto.getEmail(), dto.getNombreCliente(), dto.getTelefono());
+    }
+
     /*
      * Mapea RequestDTO → Entity (para crear).
      *
      * NO incluye: id, estado, código, timestamps (generados automáticamente).
      */
-    private Cita mapToEntity(CitaRequestDTO dto) {
+    private Cita mapToEntity(CitaRequestDTO dto, Cliente cliente) {
         Cita cita = new Cita();
-        cita.setNombreCliente(dto.getNombreCliente());
-        cita.setEmail(dto.getEmail());
-        cita.setTelefono(dto.getTelefono());
+        cita.setCliente(cliente);
         cita.setFecha(dto.getFecha());
         cita.setHoraInicio(dto.getHoraInicio());
         cita.setHoraFin(dto.getHoraFin());
@@ -401,10 +854,8 @@ public class CitaServiceImpl implements CitaService {
      *
      * Mantiene: id, estado, código, timestamps (manejados por JPA).
      */
-    private void updateEntityFromDTO(Cita entity, CitaRequestDTO dto) {
-        entity.setNombreCliente(dto.getNombreCliente());
-        entity.setEmail(dto.getEmail());
-        entity.setTelefono(dto.getTelefono());
+    private void updateEntityFromDTO(Cita entity, CitaRequestDTO dto, Cliente cliente) {
+        entity.setCliente(cliente);
         entity.setFecha(dto.getFecha());
         entity.setHoraInicio(dto.getHoraInicio());
         entity.setHoraFin(dto.getHoraFin());
@@ -426,6 +877,39 @@ public class CitaServiceImpl implements CitaService {
                 entity.getHoraFin()
         );
 
+        Cliente cliente = entity.getCliente();
+
+        return CitaResponseDTO.builder()
+                .id(entity.getId())
+                .nombreCliente(cliente.getNombre())
+                .email(cliente.getEmail())
+                .telefono(cliente.getTelefono())
+                .fecha(entity.getFecha())
+                .horaInicio(entity.getHoraInicio())
+                .horaFin(entity.getHoraFin())
+                .servicio(entity.getServicio())
+                .estado(entity.getEstado())
+                .precio(entity.getPrecio())
+                .notas(entity.getNotas())
+                .codigoConfirmacion(entity.getCodigoConfirmacion())
+                .duracionMinutos(duracion)
+                .createdAt(entity.getCreatedAt())
+                .updatedAt(entity.getUpdatedAt())
+                .version(entity.getVersion())
+                .build();
+    }
+
+    //filas leidas -> objetos JSON con solo los campos pedidos
+    private static List<Map<String, Object>> proyectar(Set<CampoCita> campos, List<Map<String, Object>> filas) {
+        return filas.stream()
+                .map(fila -> CampoCita.proyectar(campos, fila))
+                .toList();
+    }
+
+    /*
+     * Mapea cita archivada → ResponseDTO (mismo formato que una cita activa).
+     */
+    private CitaResponseDTO mapToResponseDTO(CitaHistorica entity) {
         return CitaResponseDTO.builder()
                 .id(entity.getId())
                 .nombreCliente(entity.getNombreCliente())
@@ -439,12 +923,24 @@ public class CitaServiceImpl implements CitaService {
                 .precio(entity.getPrecio())
                 .notas(entity.getNotas())
                 .codigoConfirmacion(entity.getCodigoConfirmacion())
-                .duracionMinutos(duracion)
+                .duracionMinutos(ChronoUnit.MINUTES.between(entity.getHoraInicio(), entity.getHoraFin()))
                 .createdAt(entity.getCreatedAt())
                 .updatedAt(entity.getUpdatedAt())
                 .build();
     }
 
+    /*
+     * Mapea una ocurrencia no reservada de una serie → ConflictoSerieDTO.
+     */
+    private ConflictoSerieDTO mapToConflictoDTO(LocalDate fecha, CitaRequestDTO dto, String motivo) {
+        return ConflictoSerieDTO.builder()
+                .fecha(fecha)
+                .horaInicio(dto.getHoraInicio())
+                .horaFin(dto.getHoraFin())
+                .motivo(motivo)
+                .build();
+    }
+
     /*
      * Mapea Entity → ConfirmationDTO (simplificado con mensaje).
      */
@@ -459,7 +955,7 @@ public class CitaServiceImpl implements CitaService {
         return CitaConfirmacionDTO.builder()
                 .id(entity.getId())
                 .codigoConfirmacion(entity.getCodigoConfirmacion())
-                .nombreCliente(entity.getNombreCliente())
+                .nombreCliente(entity.getCliente().getNombre())
                 .fecha(entity.getFecha())
                 .horaInicio(entity.getHoraInicio())
                 .horaFin(entity.getHoraFin())
@@ -471,6 +967,22 @@ public class CitaServiceImpl implements CitaService {
 
     // ====== helpers genericos ======
 
+    /* Registra un cambio de la cita:
+     * - evento en el outbox (misma transaccion)
+     * - version de la fecha y de la cita para invalidar caches de otras instancias (misma transaccion)
+     * - CitaCambiadaEvent para los listeners posteriores al commit
+     */
+    private void registrarCambio(TipoEventoCita tipo, CitaResponseDTO cita) {
+        registrarCambio(tipo, cita, null);
+    }
+
+    //fechaAnterior: dia del que se movio la cita (null si no cambio de dia), que tambien cambio
+    private void registrarCambio(TipoEventoCita tipo, CitaResponseDTO cita, LocalDate fechaAnterior) {
+        outboxService.registrar(tipo, cita);
+        versionCambioService.registrar(cita.getFecha(), fechaAnterior, cita.getId());
+        eventPublisher.publishEvent(new CitaCambiadaEvent(tipo, cita, fechaAnterior));
+    }
+
     /* Busca una cita por ID o lanza excepción si no existe.
      * Método helper para evitar repetir el patrón findById + orElseThrow.
      */
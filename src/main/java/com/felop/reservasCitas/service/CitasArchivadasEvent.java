@@ -0,0 +1,7 @@
+package com.felop.reservasCitas.service;
+
+import java.util.List;
+
+//Evento publicado al mover un bloque de citas a la tabla historica
+public record CitasArchivadasEvent(List<Long> ids) {
+}
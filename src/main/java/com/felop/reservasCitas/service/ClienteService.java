@@ -0,0 +1,11 @@
+package com.felop.reservasCitas.service;
+//Interfaz de servicio para los clientes que reservan citas
+
+import com.felop.reservasCitas.model.Cliente;
+
+public interface ClienteService {
+
+    //cliente con ese email (normalizado), creandolo si es su primera reserva
+    //nombre y telefono se actualizan con los de la reserva
+    Cliente registrar(String email, String nombre, String telefono);
+}
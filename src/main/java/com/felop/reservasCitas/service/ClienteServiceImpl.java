@@ -0,0 +1,50 @@
+package com.felop.reservasCitas.service;
+
+import com.felop.reservasCitas.model.Cliente;
+import com.felop.reservasCitas.repository.ClienteRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.Optional;
+
+/*Implementacion del registro de clientes
+ *
+ * - cliente conocido y con los mismos datos: solo una lectura (normalmente desde la cache)
+ * - datos de contacto distintos: se actualiza la entidad
+ * - cliente nuevo: upsert sobre el indice unico del email, asi dos primeras reservas
+ *   simultaneas del mismo email terminan en un unico cliente
+ *
+ * se ejecuta dentro de la transaccion de la reserva: si la reserva falla no queda el cliente*/
+@Service
+@RequiredArgsConstructor
+public class ClienteServiceImpl implements ClienteService {
+
+    private final ClienteRepository repository;
+
+    //las demas instancias invalidan el cliente cacheado cuando cambian sus datos
+    private final VersionCambioService versionCambioService;
+
+    @Override
+    @Transactional
+    public Cliente registrar(String email, String nombre, String telefono) {
+        String normalizado = Cliente.normalizarEmail(email);
+
+        Optional<Cliente> existente = repository.findByEmail(normalizado);
+        if (existente.isPresent()) {
+            Cliente cliente = existente.get();
+            if (!Objects.equals(cliente.getNombre(), nombre) || !Objects.equals(cliente.getTelefono(), telefono)) {
+                cliente.setNombre(nombre);
+                cliente.setTelefono(telefono);
+                versionCambioService.registrarCliente(cliente.getId());
+            }
+            return cliente;
+        }
+
+        //la fila insertada (o actualizada si otra transaccion se adelanto) es visible para esta transaccion
+        repository.upsert(normalizado, nombre, telefono, LocalDateTime.now());
+        return repository.findByEmail(normalizado).orElseThrow();
+    }
+}
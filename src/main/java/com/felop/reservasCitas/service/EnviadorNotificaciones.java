@@ -0,0 +1,11 @@
+package com.felop.reservasCitas.service;
+//Canal de envio de notificaciones (SMTP, SMS, push...)
+
+import java.util.List;
+
+public interface EnviadorNotificaciones {
+
+    /*envia en un solo mensaje todas las notificaciones de un destinatario
+     * si lanza una excepcion el envio se reintenta con backoff*/
+    void enviar(String destinatario, List<Notificacion> notificaciones) throws Exception;
+}
@@ -0,0 +1,24 @@
+package com.felop.reservasCitas.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+//Enviador local: escribe los mensajes en el log en lugar de enviarlos
+//reservas.notificaciones.enviador=log (por defecto, util en desarrollo y pruebas)
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "reservas.notificaciones.enviador", havingValue = "log", matchIfMissing = true)
+public class EnviadorNotificacionesLog implements EnviadorNotificaciones {
+
+    @Override
+    public void enviar(String destinatario, List<Notificacion> notificaciones) {
+        log.info("Notificacion para {}:\n{}", destinatario, notificaciones.stream()
+                .map(Notificacion::texto)
+                .collect(Collectors.joining("\n")));
+    }
+}
@@ -0,0 +1,13 @@
+package com.felop.reservasCitas.service;
+//Interfaz de servicio para consultar estadisticas de persistencia
+
+import com.felop.reservasCitas.dto.EstadisticasCacheDTO;
+
+public interface EstadisticasService {
+
+    //obtiene las estadisticas acumuladas de la cache de segundo nivel
+    EstadisticasCacheDTO getEstadisticasCache();
+
+    //reinicia los contadores para medir una mezcla de lecturas concreta
+    void resetEstadisticas();
+}
@@ -0,0 +1,56 @@
+package com.felop.reservasCitas.service;
+
+import com.felop.reservasCitas.dto.EstadisticasCacheDTO;
+import com.felop.reservasCitas.model.Cita;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+//Implementacion del servicio de estadisticas
+//lee las Statistics de Hibernate (requiere hibernate.generate_statistics=true)
+
+@Service
+@RequiredArgsConstructor
+public class EstadisticasServiceImpl implements EstadisticasService {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public EstadisticasCacheDTO getEstadisticasCache() {
+        Statistics stats = getStatistics();
+
+        CacheRegionStatistics region = stats.getDomainDataRegionStatistics(Cita.REGION_CACHE);
+
+        long entidadesHits = region.getHitCount();
+        long entidadesMisses = region.getMissCount();
+        long consultasHits = stats.getQueryCacheHitCount();
+        long consultasMisses = stats.getQueryCacheMissCount();
+
+        long lecturas = entidadesHits + entidadesMisses + consultasHits + consultasMisses;
+        double ratio = lecturas == 0 ? 0.0 : (entidadesHits + consultasHits) * 100.0 / lecturas;
+
+        return EstadisticasCacheDTO.builder()
+                .entidadesHits(entidadesHits)
+                .entidadesMisses(entidadesMisses)
+                .entidadesPuts(region.getPutCount())
+                .consultasHits(consultasHits)
+                .consultasMisses(consultasMisses)
+                .consultasEjecutadas(stats.getQueryExecutionCount())
+                .sentenciasJdbc(stats.getPrepareStatementCount())
+                .ratioAciertos(ratio)
+                .build();
+    }
+
+    @Override
+    public void resetEstadisticas() {
+        getStatistics().clear();
+    }
+
+    //obtiene las estadisticas de la SessionFactory subyacente
+    private Statistics getStatistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+}
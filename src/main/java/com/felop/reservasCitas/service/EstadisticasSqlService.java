@@ -0,0 +1,22 @@
+package com.felop.reservasCitas.service;
+//Interfaz de servicio para las metricas de sentencias SQL por peticion
+
+import com.felop.reservasCitas.config.MedicionSql;
+import com.felop.reservasCitas.dto.EstadisticasSqlDTO;
+
+public interface EstadisticasSqlService {
+
+    /*registra una sentencia ejecutada (DataSourceMedido)
+     * parametros: forma de los parametros enlazados, ej: (LocalDate, String)
+     * origen: endpoint de la peticion en curso, null fuera de una peticion*/
+    void registrarSentencia(String sql, String parametros, long nanos, String origen);
+
+    //registra una peticion terminada con sus sentencias (MedicionSqlInterceptor)
+    void registrarPeticion(MedicionSql.Medicion medicion);
+
+    //metricas por endpoint y sentencias mas lentas
+    EstadisticasSqlDTO getEstadisticas();
+
+    //reinicia los contadores para medir una mezcla de peticiones concreta
+    void reset();
+}
@@ -0,0 +1,188 @@
+package com.felop.reservasCitas.service;
+
+import com.felop.reservasCitas.config.MedicionSql;
+import com.felop.reservasCitas.dto.EndpointSqlDTO;
+import com.felop.reservasCitas.dto.EstadisticasSqlDTO;
+import com.felop.reservasCitas.dto.SentenciaLentaDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/*Implementacion de las metricas SQL en memoria
+ *
+ * - contadores por endpoint con LongAdder: cada sentencia solo suma, sin bloqueos
+ * - las N sentencias mas lentas en un monticulo de minimos: la raiz es la mas rapida de las guardadas
+ *   y es la que sale al entrar una mas lenta; la duracion de la raiz se publica en un volatile
+ *   para descartar sin sincronizar las sentencias rapidas (casi todas)
+ * - log WARN de cada sentencia por encima del umbral y resumen INFO de una muestra de peticiones*/
+@Slf4j
+@Service
+public class EstadisticasSqlServiceImpl implements EstadisticasSqlService {
+
+    //el SQL de Hibernate con muchas columnas puede ser muy largo
+    private static final int MAX_LONGITUD_SQL = 500;
+
+    private final int maxSentenciasLentas;
+    private final long umbralLentaNanos;
+    private final double muestreoLog;
+
+    private final LongAdder totalSentencias = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAdder totalPeticiones = new LongAdder();
+
+    private final Map<String, AcumuladoEndpoint> endpoints = new ConcurrentHashMap<>();
+
+    //guardado por el monitor del propio monticulo
+    private final PriorityQueue<SentenciaLenta> sentenciasLentas =
+            new PriorityQueue<>(Comparator.comparingLong(SentenciaLenta::nanos));
+
+    //duracion minima para entrar en el monticulo (0 mientras no esta lleno)
+    private volatile long minimoLentas;
+
+    public EstadisticasSqlServiceImpl(
+            @Value("${reservas.sql.sentencias-lentas:20}") int maxSentenciasLentas,
+            @Value("${reservas.sql.umbral-lenta:PT0.1S}") Duration umbralLenta,
+            @Value("${reservas.sql.muestreo-log:0.0}") double muestreoLog) {
+        this.maxSentenciasLentas = maxSentenciasLentas;
+        this.umbralLentaNanos = umbralLenta.toNanos();
+        this.muestreoLog = muestreoLog;
+    }
+
+    @Override
+    public void registrarSentencia(String sql, String parametros, long nanos, String origen) {
+        totalSentencias.increment();
+        totalNanos.add(nanos);
+
+        if (nanos >= umbralLentaNanos) {
+            log.warn("Sentencia lenta ({} ms) en {}: {} {}", milis(nanos), origen, normalizar(sql), parametros);
+        }
+        if (maxSentenciasLentas <= 0 || nanos <= minimoLentas) {
+            return;
+        }
+        synchronized (sentenciasLentas) {
+            if (sentenciasLentas.size() >= maxSentenciasLentas) {
+                if (nanos <= sentenciasLentas.peek().nanos()) {
+                    return;
+                }
+                sentenciasLentas.poll();
+            }
+            sentenciasLentas.add(new SentenciaLenta(normalizar(sql), parametros, nanos, origen, LocalDateTime.now()));
+            if (sentenciasLentas.size() >= maxSentenciasLentas) {
+                minimoLentas = sentenciasLentas.peek().nanos();
+            }
+        }
+    }
+
+    @Override
+    public void registrarPeticion(MedicionSql.Medicion medicion) {
+        totalPeticiones.increment();
+        endpoints.computeIfAbsent(medicion.getOrigen(), e -> new AcumuladoEndpoint()).sumar(medicion);
+
+        if (muestreoLog > 0 && ThreadLocalRandom.current().nextDouble() < muestreoLog) {
+            log.info("{}: {} sentencias, {} ms JDBC", medicion.getOrigen(), medicion.getSentencias(),
+                    milis(medicion.getNanos()));
+        }
+    }
+
+    @Override
+    public EstadisticasSqlDTO getEstadisticas() {
+        List<EndpointSqlDTO> porEndpoint = new ArrayList<>();
+        endpoints.forEach((endpoint, acumulado) -> porEndpoint.add(acumulado.toDto(endpoint)));
+        porEndpoint.sort(Comparator.comparing(EndpointSqlDTO::getSentencias).reversed());
+
+        List<SentenciaLenta> lentas;
+        synchronized (sentenciasLentas) {
+            lentas = new ArrayList<>(sentenciasLentas);
+        }
+        lentas.sort(Comparator.comparingLong(SentenciaLenta::nanos).reversed());
+
+        return EstadisticasSqlDTO.builder()
+                .totalSentencias(totalSentencias.sum())
+                .totalMilisJdbc(milis(totalNanos.sum()))
+                .totalPeticiones(totalPeticiones.sum())
+                .endpoints(porEndpoint)
+                .sentenciasLentas(lentas.stream().map(SentenciaLenta::toDto).toList())
+                .build();
+    }
+
+    @Override
+    public void reset() {
+        totalSentencias.reset();
+        totalNanos.reset();
+        totalPeticiones.reset();
+        endpoints.clear();
+        synchronized (sentenciasLentas) {
+            sentenciasLentas.clear();
+            minimoLentas = 0;
+        }
+    }
+
+    //una linea por sentencia en el log y en la respuesta
+    private static String normalizar(String sql) {
+        if (sql == null) {
+            return null;
+        }
+        String normalizado = sql.replaceAll("\\s+", " ").trim();
+        return normalizado.length() > MAX_LONGITUD_SQL
+                ? normalizado.substring(0, MAX_LONGITUD_SQL) + "..."
+                : normalizado;
+    }
+
+    private static double milis(long nanos) {
+        return Math.round(nanos / 10_000.0) / 100.0;
+    }
+
+    private static final class AcumuladoEndpoint {
+
+        private final LongAdder peticiones = new LongAdder();
+        private final LongAdder sentencias = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private final LongAccumulator maxSentencias = new LongAccumulator(Math::max, 0);
+
+        private void sumar(MedicionSql.Medicion medicion) {
+            peticiones.increment();
+            sentencias.add(medicion.getSentencias());
+            nanos.add(medicion.getNanos());
+            maxSentencias.accumulate(medicion.getSentencias());
+        }
+
+        private EndpointSqlDTO toDto(String endpoint) {
+            long n = Math.max(1, peticiones.sum());
+            long totalNanos = nanos.sum();
+            return EndpointSqlDTO.builder()
+                    .endpoint(endpoint)
+                    .peticiones(peticiones.sum())
+                    .sentencias(sentencias.sum())
+                    .mediaSentencias(Math.round(sentencias.sum() * 100.0 / n) / 100.0)
+                    .maxSentencias(maxSentencias.get())
+                    .milisJdbc(milis(totalNanos))
+                    .mediaMilisJdbc(milis(totalNanos / n))
+                    .build();
+        }
+    }
+
+    private record SentenciaLenta(String sql, String parametros, long nanos, String origen, LocalDateTime fechaHora) {
+
+        private SentenciaLentaDTO toDto() {
+            return SentenciaLentaDTO.builder()
+                    .sql(sql)
+                    .parametros(parametros)
+                    .milis(milis(nanos))
+                    .origen(origen)
+                    .fechaHora(fechaHora)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.felop.reservasCitas.service;
+//Interfaz de servicio para peticiones idempotentes (header Idempotency-Key)
+
+import org.springframework.http.ResponseEntity;
+
+import java.util.function.Supplier;
+
+public interface IdempotenciaService {
+
+    /*ejecuta la accion una sola vez por clave
+     * si la clave ya se uso con la misma peticion devuelve la respuesta almacenada
+     * sin volver a ejecutar la accion
+     *
+     * llamante: identidad de quien llama (AdmisionService.admitir), la misma clave
+     *           enviada por llamantes distintos son peticiones distintas
+     * clave: valor del header Idempotency-Key (si es null se ejecuta siempre)
+     * operacion: identifica el endpoint, la misma clave puede usarse en endpoints distintos
+     * huella: identifica el contenido de la peticion (body o id)*/
+    <T> ResponseEntity<T> ejecutar(String llamante, String clave, String operacion, Object huella,
+                                   Supplier<ResponseEntity<T>> accion);
+}
@@ -0,0 +1,107 @@
+package com.felop.reservasCitas.service;
+
+import com.felop.reservasCitas.config.Sucursales;
+import com.felop.reservasCitas.exceptions.IdempotencyKeyReuseException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+//Implementacion del servicio de idempotencia
+//almacen acotado en memoria: (sucursal, llamante, operacion, clave) -> respuesta, con TTL y numero maximo de claves
+
+@Service
+public class IdempotenciaServiceImpl implements IdempotenciaService {
+
+    //header que indica al cliente que la respuesta es una repeticion
+    private static final String HEADER_REPLAYED = "Idempotent-Replayed";
+
+    /*cada clave guarda un future:
+     * - mientras la primera peticion esta en curso, los reintentos esperan su resultado
+     * - al terminar queda la respuesta almacenada hasta que expire el TTL*/
+    private final ConcurrentMap<String, CompletableFuture<RespuestaAlmacenada>> respuestas;
+    private final Sucursales sucursales;
+
+    public IdempotenciaServiceImpl(
+            Sucursales sucursales,
+            @Value("${reservas.idempotencia.max-claves:10000}") long maxClaves,
+            @Value("${reservas.idempotencia.ttl:PT24H}") Duration ttl) {
+        Cache<String, CompletableFuture<RespuestaAlmacenada>> cache = Caffeine.newBuilder()
+                .maximumSize(maxClaves)
+                .expireAfterWrite(ttl)
+                .build();
+        this.respuestas = cache.asMap();
+        this.sucursales = sucursales;
+    }
+
+    @Override
+    public <T> ResponseEntity<T> ejecutar(String llamante, String clave, String operacion, Object huella,
+                                          Supplier<ResponseEntity<T>> accion) {
+        //sin clave no hay idempotencia
+        if (clave == null || clave.isBlank()) {
+            return accion.get();
+        }
+
+        //la misma clave en dos sucursales o de dos llamantes son peticiones distintas
+        //(si no, un cliente podria recibir la respuesta guardada de otro adivinando su clave)
+        String id = sucursales.actual() + ":" + llamante + ":" + operacion + ":" + clave;
+        CompletableFuture<RespuestaAlmacenada> nueva = new CompletableFuture<>();
+        CompletableFuture<RespuestaAlmacenada> existente = respuestas.putIfAbsent(id, nueva);
+
+        //reintento: devolver la respuesta almacenada (esperando si aun esta en curso)
+        if (existente != null) {
+            return repetir(existente, clave, huella);
+        }
+
+        //primera peticion con esta clave: ejecutar la accion
+        try {
+            ResponseEntity<T> respuesta = accion.get();
+            nueva.complete(new RespuestaAlmacenada(huella, respuesta));
+            return respuesta;
+        } catch (RuntimeException ex) {
+            //solo se almacenan respuestas exitosas, un error permite reintentar la operacion
+            respuestas.remove(id, nueva);
+            nueva.completeExceptionally(ex);
+            throw ex;
+        }
+    }
+
+    //devuelve la respuesta almacenada marcada como repeticion
+    @SuppressWarnings("unchecked")
+    private <T> ResponseEntity<T> repetir(CompletableFuture<RespuestaAlmacenada> existente,
+                                          String clave, Object huella) {
+        RespuestaAlmacenada almacenada;
+        try {
+            almacenada = existente.join();
+        } catch (CompletionException ex) {
+            //la peticion original fallo mientras se esperaba: propagar el mismo error
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+
+        if (!Objects.equals(almacenada.huella(), huella)) {
+            throw new IdempotencyKeyReuseException(
+                    "El Idempotency-Key " + clave + " ya fue usado con una peticion diferente");
+        }
+
+        ResponseEntity<T> original = (ResponseEntity<T>) almacenada.respuesta();
+        return ResponseEntity.status(original.getStatusCode())
+                .headers(original.getHeaders())
+                .header(HEADER_REPLAYED, "true")
+                .body(original.getBody());
+    }
+
+    //respuesta almacenada junto a la huella de la peticion que la genero
+    private record RespuestaAlmacenada(Object huella, ResponseEntity<?> respuesta) {
+    }
+}
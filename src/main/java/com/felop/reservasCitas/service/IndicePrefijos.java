@@ -0,0 +1,205 @@
+package com.felop.reservasCitas.service;
+
+import com.felop.reservasCitas.dto.CitaBusquedaDTO;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.BiConsumer;
+import java.util.regex.Pattern;
+
+/*Indice invertido en memoria para busqueda por prefijo
+ *
+ * por cada campo (nombre, servicio, email) se guarda un mapa ordenado
+ * token -> ids de citas; un prefijo se resuelve con subMap(prefijo, prefijo + Character.MAX_VALUE)
+ * sin recorrer todas las citas
+ *
+ * todas las estructuras son concurrentes: se puede buscar mientras se actualiza*/
+class IndicePrefijos {
+
+    //campos indexados y su peso en la relevancia
+    enum Campo {
+        NOMBRE(3), SERVICIO(2), EMAIL(1);
+
+        private final int peso;
+
+        Campo(int peso) {
+            this.peso = peso;
+        }
+    }
+
+    private static final Pattern SEPARADORES = Pattern.compile("[^\\p{Alnum}]+");
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+
+    //orden de resultados: relevancia desc, fecha desc, id desc
+    private static final Comparator<Resultado> ORDEN = Comparator
+            .comparingInt(Resultado::puntuacion)
+            .thenComparing(r -> r.documento().getFecha())
+            .thenComparing(r -> r.documento().getId())
+            .reversed();
+
+    private final Map<Long, CitaBusquedaDTO> documentos = new ConcurrentHashMap<>();
+    private final Map<Campo, ConcurrentSkipListMap<String, Set<Long>>> tokens = new EnumMap<>(Campo.class);
+
+    IndicePrefijos() {
+        for (Campo campo : Campo.values()) {
+            tokens.put(campo, new ConcurrentSkipListMap<>());
+        }
+    }
+
+    /*agrega o reemplaza una cita
+     * compute() serializa las actualizaciones de una misma cita*/
+    void indexar(CitaBusquedaDTO doc) {
+        documentos.compute(doc.getId(), (id, anterior) -> {
+            if (anterior != null) {
+                quitarTokens(anterior);
+            }
+            agregarTokens(doc);
+            return doc;
+        });
+    }
+
+    //agrega la cita solo si no esta (carga inicial: no pisa cambios mas recientes)
+    void indexarSiAusente(CitaBusquedaDTO doc) {
+        documentos.computeIfAbsent(doc.getId(), id -> {
+            agregarTokens(doc);
+            return doc;
+        });
+    }
+
+    void eliminar(Long id) {
+        documentos.computeIfPresent(id, (k, anterior) -> {
+            quitarTokens(anterior);
+            return null;
+        });
+    }
+
+    int size() {
+        return documentos.size();
+    }
+
+    /*busca las citas que contienen todos los terminos (como prefijo de algun token)
+     * devuelve los "limite" mejores resultados ordenados y el total de coincidencias*/
+    Pagina buscar(String consulta, int limite) {
+        List<String> terminos = tokenizar(consulta);
+        if (terminos.isEmpty()) {
+            return new Pagina(0, List.of());
+        }
+
+        //id -> puntuacion acumulada; solo sobreviven los ids que coinciden con todos los terminos
+        Map<Long, Integer> puntuaciones = null;
+        for (String termino : terminos) {
+            Map<Long, Integer> delTermino = puntuarTermino(termino);
+            if (puntuaciones == null) {
+                puntuaciones = delTermino;
+            } else {
+                Map<Long, Integer> interseccion = new HashMap<>();
+                for (Map.Entry<Long, Integer> e : puntuaciones.entrySet()) {
+                    Integer p = delTermino.get(e.getKey());
+                    if (p != null) {
+                        interseccion.put(e.getKey(), e.getValue() + p);
+                    }
+                }
+                puntuaciones = interseccion;
+            }
+            if (puntuaciones.isEmpty()) {
+                return new Pagina(0, List.of());
+            }
+        }
+
+        //top-K con un heap acotado: O(n log K) en lugar de ordenar todas las coincidencias
+        //la capacidad inicial sale de las coincidencias, no del limite pedido por el cliente
+        PriorityQueue<Resultado> heap =
+                new PriorityQueue<>(Math.min(limite, puntuaciones.size()) + 1, ORDEN.reversed());
+        int total = 0;
+        for (Map.Entry<Long, Integer> e : puntuaciones.entrySet()) {
+            CitaBusquedaDTO doc = documentos.get(e.getKey());
+            if (doc == null) {
+                continue;//eliminada durante la busqueda
+            }
+            total++;
+            heap.offer(new Resultado(doc, e.getValue()));
+            if (heap.size() > limite) {
+                heap.poll();
+            }
+        }
+
+        List<Resultado> mejores = new ArrayList<>(heap);
+        mejores.sort(ORDEN);
+        return new Pagina(total, mejores);
+    }
+
+    //mejor puntuacion de cada cita para un termino en cualquiera de los campos
+    private Map<Long, Integer> puntuarTermino(String termino) {
+        Map<Long, Integer> resultado = new HashMap<>();
+        for (Campo campo : Campo.values()) {
+            NavigableMap<String, Set<Long>> coincidencias =
+                    tokens.get(campo).subMap(termino, true, termino + Character.MAX_VALUE, false);
+            for (Map.Entry<String, Set<Long>> e : coincidencias.entrySet()) {
+                //token completo vale mas que un prefijo
+                int puntos = campo.peso * (e.getKey().length() == termino.length() ? 2 : 1);
+                for (Long id : e.getValue()) {
+                    resultado.merge(id, puntos, Math::max);
+                }
+            }
+        }
+        return resultado;
+    }
+
+    //compute() evita agregar el id a un conjunto que otro hilo acaba de quitar del mapa
+    private void agregarTokens(CitaBusquedaDTO doc) {
+        forEachToken(doc, (campo, token) -> tokens.get(campo).compute(token, (k, ids) -> {
+            Set<Long> conjunto = ids != null ? ids : ConcurrentHashMap.newKeySet();
+            conjunto.add(doc.getId());
+            return conjunto;
+        }));
+    }
+
+    private void quitarTokens(CitaBusquedaDTO doc) {
+        forEachToken(doc, (campo, token) -> tokens.get(campo).computeIfPresent(token, (k, ids) -> {
+            ids.remove(doc.getId());
+            return ids.isEmpty() ? null : ids;
+        }));
+    }
+
+    private void forEachToken(CitaBusquedaDTO doc, BiConsumer<Campo, String> accion) {
+        tokenizar(doc.getNombreCliente()).forEach(t -> accion.accept(Campo.NOMBRE, t));
+        tokenizar(doc.getServicio()).forEach(t -> accion.accept(Campo.SERVICIO, t));
+        //el email se indexa por partes (usuario, dominio...)
+        tokenizar(doc.getEmail()).forEach(t -> accion.accept(Campo.EMAIL, t));
+    }
+
+    //minusculas, sin acentos, separado por cualquier caracter no alfanumerico
+    static List<String> tokenizar(String texto) {
+        if (texto == null || texto.isBlank()) {
+            return List.of();
+        }
+        List<String> resultado = new ArrayList<>();
+        for (String t : SEPARADORES.split(normalizar(texto))) {
+            if (!t.isEmpty() && !resultado.contains(t)) {
+                resultado.add(t);
+            }
+        }
+        return resultado;
+    }
+
+    private static String normalizar(String texto) {
+        String sinAcentos = MARCAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return sinAcentos.toLowerCase().trim();
+    }
+
+    record Resultado(CitaBusquedaDTO documento, int puntuacion) {
+    }
+
+    record Pagina(int total, List<Resultado> resultados) {
+    }
+}
@@ -0,0 +1,56 @@
+package com.felop.reservasCitas.service;
+
+import com.felop.reservasCitas.config.SucursalContext;
+import com.felop.reservasCitas.dto.CitaResponseDTO;
+import com.felop.reservasCitas.model.EstadoCita;
+import com.felop.reservasCitas.model.TipoEventoCita;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+//Ofrece a la lista de espera los horarios que se liberan, solo despues del commit
+//la reasignacion corre en un hilo virtual: la cancelacion responde sin esperarla
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ListaEsperaListener {
+
+    private final ListaEsperaService listaEsperaService;
+
+    private final ExecutorService executor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("lista-espera-", 0).factory());
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onCitaCambiada(CitaCambiadaEvent event) {
+        CitaResponseDTO cita = event.cita();
+        boolean liberada = event.tipo() == TipoEventoCita.CITA_CANCELADA
+                //al eliminar, el evento trae el estado previo: solo libera si estaba activa
+                || (event.tipo() == TipoEventoCita.CITA_ELIMINADA
+                && (cita.getEstado() == EstadoCita.PENDIENTE || cita.getEstado() == EstadoCita.CONFIRMADA));
+        if (!liberada) {
+            return;
+        }
+
+        //el hilo virtual trabaja sobre la sucursal de la cita cancelada
+        executor.submit(SucursalContext.propagar(() -> {
+            try {
+                listaEsperaService.reasignar(cita.getFecha(), cita.getHoraInicio(), cita.getHoraFin());
+            } catch (RuntimeException ex) {
+                log.error("Error reasignando el horario {} {} - {}",
+                        cita.getFecha(), cita.getHoraInicio(), cita.getHoraFin(), ex);
+            }
+        }));
+    }
+
+    @PreDestroy
+    void detener() {
+        executor.shutdown();
+    }
+}
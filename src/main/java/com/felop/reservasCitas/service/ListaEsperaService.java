@@ -0,0 +1,27 @@
+package com.felop.reservasCitas.service;
+//Interfaz de servicio para la lista de espera por fecha y franja horaria
+
+import com.felop.reservasCitas.dto.EntradaEsperaRequestDTO;
+import com.felop.reservasCitas.dto.EntradaEsperaResponseDTO;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+public interface ListaEsperaService {
+
+    //inscribe a un cliente en la lista de espera de una fecha
+    EntradaEsperaResponseDTO inscribir(EntradaEsperaRequestDTO dto);
+
+    //obtiene una inscripcion con su posicion actual en la cola
+    EntradaEsperaResponseDTO getEntrada(Long id);
+
+    //inscripciones de una fecha en orden de llegada
+    List<EntradaEsperaResponseDTO> getListaByFecha(LocalDate fecha);
+
+    //saca a un cliente de la lista de espera
+    EntradaEsperaResponseDTO retirar(Long id);
+
+    //ofrece o reserva un horario liberado al primer cliente compatible de la cola
+    void reasignar(LocalDate fecha, LocalTime libreInicio, LocalTime libreFin);
+}
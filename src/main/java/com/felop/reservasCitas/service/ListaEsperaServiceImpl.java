@@ -0,0 +1,309 @@
+package com.felop.reservasCitas.service;
+
+import com.felop.reservasCitas.config.Sucursales;
+import com.felop.reservasCitas.dto.CitaConfirmacionDTO;
+import com.felop.reservasCitas.dto.CitaRequestDTO;
+import com.felop.reservasCitas.dto.EntradaEsperaRequestDTO;
+import com.felop.reservasCitas.dto.EntradaEsperaResponseDTO;
+import com.felop.reservasCitas.exceptions.BusinessException;
+import com.felop.reservasCitas.exceptions.EntradaEsperaNotFoundException;
+import com.felop.reservasCitas.exceptions.InvalidTimeRangeException;
+import com.felop.reservasCitas.model.EntradaEspera;
+import com.felop.reservasCitas.model.EstadoEspera;
+import com.felop.reservasCitas.model.TipoNotificacion;
+import com.felop.reservasCitas.repository.EntradaEsperaRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/*Implementacion de la lista de espera
+ *
+ * la tabla lista_espera es la fuente de verdad; en memoria se mantiene por cada fecha
+ * una cola ordenada por llegada (ConcurrentSkipListSet) con solo las inscripciones ESPERANDO,
+ * asi al liberarse un horario se recorre unicamente la cola de esa fecha
+ *
+ * quitar la inscripcion de la cola es el "reclamo": si dos cancelaciones de la misma fecha
+ * se procesan a la vez, nunca se asigna la misma inscripcion dos veces
+ *
+ * cada sucursal tiene sus propias colas (los ids de inscripcion se repiten entre shards)*/
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ListaEsperaServiceImpl implements ListaEsperaService {
+
+    private static final LocalTime HORARIO_APERTURA = LocalTime.of(8, 0);
+    private static final LocalTime HORARIO_CIERRE = LocalTime.of(20, 0);
+
+    //orden de la cola: el id autoincremental es el orden de llegada
+    //(no se usa createdAt: la BD puede truncar su precision y la cola no lo encontraria al quitarlo)
+    private static final Comparator<EnEspera> ORDEN = Comparator.comparing(EnEspera::id);
+
+    private final EntradaEsperaRepository repository;
+    private final CitaService citaService;
+    private final CapacidadService capacidadService;
+    private final NotificacionService notificacionService;
+    private final Sucursales sucursales;
+
+    //sucursal -> fecha -> inscripciones en espera, la primera es la siguiente en recibir un hueco
+    private final Map<String, ConcurrentSkipListMap<LocalDate, ConcurrentSkipListSet<EnEspera>>> colasPorSucursal =
+            new ConcurrentHashMap<>();
+
+    // ==== inscripciones ====
+
+    //save() confirma en su propia transaccion antes de agregar a la cola en memoria
+    @Override
+    public EntradaEsperaResponseDTO inscribir(EntradaEsperaRequestDTO dto) {
+        if (dto.getDesde().isBefore(HORARIO_APERTURA) || dto.getHasta().isAfter(HORARIO_CIERRE)) {
+            throw new InvalidTimeRangeException(
+                    "La franja debe estar entre " + HORARIO_APERTURA + " y " + HORARIO_CIERRE
+                            + ". Franja solicitada: " + dto.getDesde() + " - " + dto.getHasta());
+        }
+
+        EntradaEspera saved = repository.save(mapToEntity(dto));
+        encolar(saved);
+        return mapToResponseDTO(saved);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public EntradaEsperaResponseDTO getEntrada(Long id) {
+        return mapToResponseDTO(findByIdOrThrow(id));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<EntradaEsperaResponseDTO> getListaByFecha(LocalDate fecha) {
+        return repository.findByFechaOrderByIdAsc(fecha)
+                .stream()
+                .map(this::mapToResponseDTO)
+                .toList();
+    }
+
+    @Override
+    public EntradaEsperaResponseDTO retirar(Long id) {
+        EntradaEspera entrada = findByIdOrThrow(id);
+        if (entrada.getEstado() == EstadoEspera.ESPERANDO) {
+            desencolar(entrada);
+            entrada.setEstado(EstadoEspera.RETIRADA);
+            entrada = repository.save(entrada);
+        }
+        return mapToResponseDTO(entrada);
+    }
+
+    // ==== reasignacion de horarios liberados ====
+
+    /*recorre la cola de la fecha en orden de llegada y entrega el hueco
+     * a la primera inscripcion cuya franja y duracion caben en el hueco libre
+     * que contiene el horario liberado
+     *
+     * la cita se coloca lo antes posible: max(inicio de la franja, inicio del hueco)
+     * si la reserva automatica falla (ej: otro cliente ocupo el hueco) la inscripcion
+     * vuelve a su posicion y se prueba con la siguiente*/
+    @Override
+    public void reasignar(LocalDate fecha, LocalTime libreInicio, LocalTime libreFin) {
+        ConcurrentSkipListMap<LocalDate, ConcurrentSkipListSet<EnEspera>> colas = colas();
+
+        //las colas de fechas pasadas ya no se pueden asignar
+        colas.headMap(LocalDate.now()).clear();
+
+        ConcurrentSkipListSet<EnEspera> cola = colas.get(fecha);
+        if (cola == null || cola.isEmpty()) {
+            return;
+        }
+
+        //el hueco real llega mientras queden plazas libres a ambos lados (puede ser mayor que la cita cancelada)
+        //las plazas libres descuentan citas activas, reservas en curso y bloqueos de checkout
+        int[] libres = capacidadService.getPlazasLibres(fecha);
+        int apertura = HORARIO_APERTURA.toSecondOfDay() / 60;
+        int desde = Math.max(0, libreInicio.toSecondOfDay() / 60 - apertura);
+        int hasta = Math.min(libres.length, Math.ceilDiv(libreFin.toSecondOfDay(), 60) - apertura);
+        for (int m = desde; m < hasta; m++) {
+            if (libres[m] == 0) {
+                return;//el horario ya se volvio a ocupar
+            }
+        }
+        while (desde > 0 && libres[desde - 1] > 0) {
+            desde--;
+        }
+        while (hasta < libres.length && libres[hasta] > 0) {
+            hasta++;
+        }
+        LocalTime huecoInicio = HORARIO_APERTURA.plusMinutes(desde);
+        LocalTime huecoFin = HORARIO_APERTURA.plusMinutes(hasta);
+
+        for (EnEspera e : cola) {
+            LocalTime inicio = e.desde().isAfter(huecoInicio) ? e.desde() : huecoInicio;
+            LocalTime fin = inicio.plusMinutes(e.duracionMinutos());
+            if (fin.isAfter(huecoFin) || fin.isAfter(e.hasta())) {
+                continue;//no cabe en el hueco o en su franja
+            }
+
+            //reclamo: si otro hilo la quito primero se sigue con la siguiente
+            if (!cola.remove(e)) {
+                continue;
+            }
+
+            EntradaEspera entrada = repository.findById(e.id()).orElse(null);
+            if (entrada == null || entrada.getEstado() != EstadoEspera.ESPERANDO) {
+                continue;//retirada mientras tanto
+            }
+
+            boolean asignada = entrada.isAutoReservar()
+                    ? reservar(entrada, inicio, fin)
+                    : ofrecer(entrada, inicio);
+            if (asignada) {
+                return;
+            }
+            cola.add(e);
+        }
+    }
+
+    //crea la cita como lo haria el cliente (mismas validaciones, notificacion de reserva creada)
+    private boolean reservar(EntradaEspera entrada, LocalTime inicio, LocalTime fin) {
+        CitaConfirmacionDTO cita;
+        try {
+            cita = citaService.createCita(mapToCitaRequestDTO(entrada, inicio, fin));
+        } catch (BusinessException ex) {
+            log.debug("No se pudo reservar el hueco {} {} para la inscripcion {}: {}",
+                    entrada.getFecha(), inicio, entrada.getId(), ex.getMessage());
+            return false;
+        } catch (RuntimeException ex) {
+            log.warn("Error reservando el hueco {} {} para la inscripcion {}",
+                    entrada.getFecha(), inicio, entrada.getId(), ex);
+            return false;
+        }
+
+        entrada.setEstado(EstadoEspera.ASIGNADA);
+        entrada.setCodigoConfirmacion(cita.getCodigoConfirmacion());
+        repository.save(entrada);
+        log.info("Inscripcion {} asignada a la cita {}", entrada.getId(), cita.getCodigoConfirmacion());
+        return true;
+    }
+
+    //avisa al cliente del hueco; cada inscripcion recibe como maximo un aviso
+    private boolean ofrecer(EntradaEspera entrada, LocalTime inicio) {
+        entrada.setEstado(EstadoEspera.OFRECIDA);
+        repository.save(entrada);
+        notificacionService.encolar(new Notificacion(TipoNotificacion.HUECO_DISPONIBLE, entrada.getEmail(),
+                entrada.getNombreCliente(), "ESP-" + entrada.getId(), entrada.getFecha(), inicio,
+                entrada.getServicio()));
+        return true;
+    }
+
+    // ==== colas en memoria ====
+
+    //carga las inscripciones pendientes desde hoy, en cada sucursal
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargarColas() {
+        sucursales.enCada(() -> {
+            List<EntradaEspera> pendientes =
+                    repository.findByEstadoAndFechaGreaterThanEqual(EstadoEspera.ESPERANDO, LocalDate.now());
+            pendientes.forEach(this::encolar);
+            log.info("Lista de espera de la sucursal {} cargada: {} inscripciones en {} fechas",
+                    sucursales.actual(), pendientes.size(), colas().size());
+        });
+    }
+
+    //colas de la sucursal actual
+    private ConcurrentSkipListMap<LocalDate, ConcurrentSkipListSet<EnEspera>> colas() {
+        return colasPorSucursal.computeIfAbsent(sucursales.actual(), s -> new ConcurrentSkipListMap<>());
+    }
+
+    private void encolar(EntradaEspera entrada) {
+        colas().computeIfAbsent(entrada.getFecha(), f -> new ConcurrentSkipListSet<>(ORDEN))
+                .add(EnEspera.of(entrada));
+    }
+
+    private void desencolar(EntradaEspera entrada) {
+        ConcurrentSkipListSet<EnEspera> cola = colas().get(entrada.getFecha());
+        if (cola != null) {
+            cola.remove(EnEspera.of(entrada));
+        }
+    }
+
+    //posicion (desde 1) en la cola de su fecha, null si ya no espera
+    private Integer posicion(EntradaEspera entrada) {
+        ConcurrentSkipListSet<EnEspera> cola = colas().get(entrada.getFecha());
+        if (entrada.getEstado() != EstadoEspera.ESPERANDO || cola == null) {
+            return null;
+        }
+        return cola.headSet(EnEspera.of(entrada)).size() + 1;
+    }
+
+    // ==== mapeo ====
+
+    private EntradaEspera mapToEntity(EntradaEsperaRequestDTO dto) {
+        EntradaEspera entrada = new EntradaEspera();
+        entrada.setNombreCliente(dto.getNombreCliente());
+        entrada.setEmail(dto.getEmail());
+        entrada.setTelefono(dto.getTelefono());
+        entrada.setFecha(dto.getFecha());
+        entrada.setDesde(dto.getDesde());
+        entrada.setHasta(dto.getHasta());
+        entrada.setDuracionMinutos(dto.getDuracionMinutos());
+        entrada.setServicio(dto.getServicio());
+        entrada.setPrecio(dto.getPrecio());
+        entrada.setNotas(dto.getNotas());
+        entrada.setAutoReservar(dto.isAutoReservar());
+        entrada.setEstado(EstadoEspera.ESPERANDO);
+        return entrada;
+    }
+
+    private CitaRequestDTO mapToCitaRequestDTO(EntradaEspera entrada, LocalTime inicio, LocalTime fin) {
+        return CitaRequestDTO.builder()
+                .nombreCliente(entrada.getNombreCliente())
+                .email(entrada.getEmail())
+                .telefono(entrada.getTelefono())
+                .fecha(entrada.getFecha())
+                .horaInicio(inicio)
+                .horaFin(fin)
+                .servicio(entrada.getServicio())
+                .precio(entrada.getPrecio())
+                .notas(entrada.getNotas())
+                .build();
+    }
+
+    private EntradaEsperaResponseDTO mapToResponseDTO(EntradaEspera entity) {
+        return EntradaEsperaResponseDTO.builder()
+                .id(entity.getId())
+                .nombreCliente(entity.getNombreCliente())
+                .email(entity.getEmail())
+                .fecha(entity.getFecha())
+                .desde(entity.getDesde())
+                .hasta(entity.getHasta())
+                .duracionMinutos(entity.getDuracionMinutos())
+                .servicio(entity.getServicio())
+                .autoReservar(entity.isAutoReservar())
+                .estado(entity.getEstado())
+                .posicion(posicion(entity))
+                .codigoConfirmacion(entity.getCodigoConfirmacion())
+                .createdAt(entity.getCreatedAt())
+                .build();
+    }
+
+    private EntradaEspera findByIdOrThrow(Long id) {
+        return repository.findById(id)
+                .orElseThrow(() -> new EntradaEsperaNotFoundException(
+                        "Inscripcion de lista de espera con ID " + id + " no encontrada"));
+    }
+
+    //datos de una inscripcion necesarios para ordenar y comprobar compatibilidad
+    private record EnEspera(Long id, LocalTime desde, LocalTime hasta, int duracionMinutos) {
+
+        static EnEspera of(EntradaEspera e) {
+            return new EnEspera(e.getId(), e.getDesde(), e.getHasta(), e.getDuracionMinutos());
+        }
+    }
+}
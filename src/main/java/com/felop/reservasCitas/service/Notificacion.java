@@ -0,0 +1,31 @@
+package com.felop.reservasCitas.service;
+
+import com.felop.reservasCitas.model.TipoNotificacion;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+//Mensaje pendiente de enviar a un cliente
+public record Notificacion(
+        TipoNotificacion tipo,
+        String destinatario,
+        String nombreCliente,
+        String codigoConfirmacion,
+        LocalDate fecha,
+        LocalTime horaInicio,
+        String servicio
+) {
+
+    //texto del mensaje segun el tipo
+    public String texto() {
+        String cita = servicio + " el " + fecha + " a las " + horaInicio + " (codigo " + codigoConfirmacion + ")";
+        return switch (tipo) {
+            case RESERVA_CREADA -> "Cita reservada: " + cita + ". Por favor, confirme su asistencia.";
+            case CITA_CONFIRMADA -> "Cita confirmada: " + cita + ".";
+            case CITA_CANCELADA -> "Cita cancelada: " + cita + ".";
+            case RECORDATORIO -> "Recordatorio de su cita: " + cita + ".";
+            case HUECO_DISPONIBLE -> "Se libero un horario de " + servicio + " el " + fecha + " a las " + horaInicio
+                    + ". Reservelo cuanto antes, se ofrece por orden de la lista de espera.";
+        };
+    }
+}
@@ -0,0 +1,36 @@
+package com.felop.reservasCitas.service;
+
+import com.felop.reservasCitas.dto.CitaResponseDTO;
+import com.felop.reservasCitas.model.TipoNotificacion;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+//Convierte los cambios de citas en notificaciones, solo despues del commit
+//(si la transaccion hace rollback no se notifica nada)
+
+@Component
+@RequiredArgsConstructor
+public class NotificacionListener {
+
+    private final NotificacionService notificacionService;
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onCitaCambiada(CitaCambiadaEvent event) {
+        TipoNotificacion tipo = switch (event.tipo()) {
+            case CITA_CREADA -> TipoNotificacion.RESERVA_CREADA;
+            case CITA_CONFIRMADA -> TipoNotificacion.CITA_CONFIRMADA;
+            case CITA_CANCELADA -> TipoNotificacion.CITA_CANCELADA;
+            default -> null;//el resto de cambios no se notifican al cliente
+        };
+        if (tipo != null) {
+            notificacionService.encolar(toNotificacion(tipo, event.cita()));
+        }
+    }
+
+    static Notificacion toNotificacion(TipoNotificacion tipo, CitaResponseDTO cita) {
+        return new Notificacion(tipo, cita.getEmail(), cita.getNombreCliente(), cita.getCodigoConfirmacion(),
+                cita.getFecha(), cita.getHoraInicio(), cita.getServicio());
+    }
+}
@@ -0,0 +1,16 @@
+package com.felop.reservasCitas.service;
+
+import java.time.Duration;
+
+//Interfaz de servicio para el envio asincrono de notificaciones a clientes
+
+public interface NotificacionService {
+
+    /*encola una notificacion sin bloquear al llamante
+     * return false si la cola esta llena y la notificacion se descarta*/
+    boolean encolar(Notificacion notificacion);
+
+    /*encola esperando hasta "espera" a que haya hueco en la cola (para trabajos en lote)
+     * return false si la cola sigue llena al agotarse la espera o el hilo se interrumpe*/
+    boolean encolar(Notificacion notificacion, Duration espera);
+}
@@ -0,0 +1,151 @@
+package com.felop.reservasCitas.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/*Implementacion del pipeline de notificaciones
+ *
+ * - cola acotada: encolar() nunca bloquea el hilo de la peticion; los trabajos en lote
+ *   usan encolar(n, espera) y esperan a los workers en vez de descartar
+ * - workers en hilos virtuales: cada uno toma un lote de la cola
+ * - coalescencia: dentro del lote se agrupa por destinatario y por cita,
+ *   quedando solo la ultima notificacion de cada cita (ej: creada + confirmada -> confirmada)
+ * - reintentos con backoff exponencial por destinatario*/
+@Slf4j
+@Service
+public class NotificacionServiceImpl implements NotificacionService {
+
+    private final EnviadorNotificaciones enviador;
+    private final BlockingQueue<Notificacion> cola;
+    private final int workers;
+    private final int tamanoLote;
+    private final int maxIntentos;
+    private final Duration backoffInicial;
+
+    private ExecutorService executor;
+    private volatile boolean activo;
+
+    public NotificacionServiceImpl(
+            EnviadorNotificaciones enviador,
+            @Value("${reservas.notificaciones.capacidad-cola:10000}") int capacidadCola,
+            @Value("${reservas.notificaciones.workers:4}") int workers,
+            @Value("${reservas.notificaciones.tamano-lote:100}") int tamanoLote,
+            @Value("${reservas.notificaciones.max-intentos:4}") int maxIntentos,
+            @Value("${reservas.notificaciones.backoff-inicial:PT1S}") Duration backoffInicial) {
+        this.enviador = enviador;
+        this.cola = new ArrayBlockingQueue<>(capacidadCola);
+        this.workers = workers;
+        this.tamanoLote = tamanoLote;
+        this.maxIntentos = maxIntentos;
+        this.backoffInicial = backoffInicial;
+    }
+
+    @PostConstruct
+    void iniciar() {
+        activo = true;
+        executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("notificaciones-", 0).factory());
+        for (int i = 0; i < workers; i++) {
+            executor.submit(this::procesar);
+        }
+    }
+
+    @PreDestroy
+    void detener() throws InterruptedException {
+        activo = false;
+        executor.shutdownNow();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public boolean encolar(Notificacion notificacion) {
+        boolean encolada = cola.offer(notificacion);
+        if (!encolada) {
+            log.warn("Cola de notificaciones llena, se descarta {} para {}",
+                    notificacion.tipo(), notificacion.destinatario());
+        }
+        return encolada;
+    }
+
+    @Override
+    public boolean encolar(Notificacion notificacion, Duration espera) {
+        try {
+            return cola.offer(notificacion, espera.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    //bucle de cada worker: espera la primera notificacion y toma el resto disponible como lote
+    private void procesar() {
+        List<Notificacion> lote = new ArrayList<>(tamanoLote);
+        while (activo) {
+            try {
+                lote.add(cola.take());
+                cola.drainTo(lote, tamanoLote - 1);
+
+                agrupar(lote).forEach(this::enviarConReintentos);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                lote.clear();
+            }
+        }
+    }
+
+    //destinatario -> ultima notificacion de cada cita, en orden de llegada
+    private Map<String, List<Notificacion>> agrupar(List<Notificacion> lote) {
+        Map<String, Map<String, Notificacion>> porDestinatario = new LinkedHashMap<>();
+        for (Notificacion n : lote) {
+            porDestinatario
+                    .computeIfAbsent(n.destinatario().toLowerCase(), k -> new LinkedHashMap<>())
+                    .put(n.codigoConfirmacion(), n);
+        }
+
+        Map<String, List<Notificacion>> resultado = new LinkedHashMap<>();
+        porDestinatario.forEach((destinatario, porCita) ->
+                resultado.put(destinatario, List.copyOf(porCita.values())));
+        return resultado;
+    }
+
+    private void enviarConReintentos(String destinatario, List<Notificacion> notificaciones) {
+        Duration espera = backoffInicial;
+        for (int intento = 1; intento <= maxIntentos; intento++) {
+            try {
+                enviador.enviar(destinatario, notificaciones);
+                return;
+            } catch (Exception ex) {
+                if (intento == maxIntentos) {
+                    log.error("No se pudo notificar a {} tras {} intentos: {}",
+                            destinatario, maxIntentos, ex.getMessage());
+                    return;
+                }
+                log.warn("Fallo notificando a {} (intento {}), reintento en {} ms",
+                        destinatario, intento, espera.toMillis());
+                try {
+                    //en un hilo virtual la espera no ocupa un hilo del sistema
+                    Thread.sleep(espera);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                espera = espera.multipliedBy(2);
+            }
+        }
+    }
+}
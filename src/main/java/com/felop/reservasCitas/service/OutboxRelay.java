@@ -0,0 +1,72 @@
+package com.felop.reservasCitas.service;
+
+import com.felop.reservasCitas.config.Sucursales;
+import com.felop.reservasCitas.model.EventoOutbox;
+import com.felop.reservasCitas.repository.EventoOutboxRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/*Relay del outbox: publica en segundo plano los eventos pendientes en lotes
+ *
+ * garantias:
+ * - orden: un solo hilo lee por id ascendente y un lote fallido detiene el drenado,
+ *   asi ningun evento de una cita se publica antes que uno anterior
+ * - at-least-once: el lote se elimina despues de publicarse; si el proceso cae entre
+ *   ambos pasos el lote se vuelve a publicar
+ *
+ * con varias instancias solo una debe tener reservas.outbox.relay-habilitado=true
+ * con sucursales cada shard tiene su propio outbox y se drena por separado*/
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "reservas.outbox.relay-habilitado", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+
+    private final EventoOutboxRepository repository;
+    private final PublicadorEventos publicador;
+    private final TransactionTemplate transactionTemplate;
+    private final Sucursales sucursales;
+
+    @Value("${reservas.outbox.tamano-lote:100}")
+    private int tamanoLote;
+
+    @Scheduled(fixedDelayString = "${reservas.outbox.intervalo:PT1S}")
+    public void drenar() {
+        sucursales.enCada(this::drenarSucursal);
+    }
+
+    private void drenarSucursal() {
+        while (true) {
+            List<EventoOutbox> lote = repository.findAllByOrderByIdAsc(Limit.of(tamanoLote));
+            if (lote.isEmpty()) {
+                return;
+            }
+
+            List<Long> ids = lote.stream().map(EventoOutbox::getId).toList();
+            try {
+                publicador.publicar(lote);
+            } catch (Exception ex) {
+                //se reintenta el mismo lote en la siguiente ejecucion
+                log.warn("Error publicando {} eventos del outbox (primer id {}): {}",
+                        lote.size(), ids.getFirst(), ex.getMessage());
+                transactionTemplate.executeWithoutResult(tx -> repository.incrementIntentos(ids));
+                return;
+            }
+
+            transactionTemplate.executeWithoutResult(tx -> repository.deleteAllByIdInBatch(ids));
+
+            //lote incompleto: no quedan mas eventos por ahora
+            if (lote.size() < tamanoLote) {
+                return;
+            }
+        }
+    }
+}
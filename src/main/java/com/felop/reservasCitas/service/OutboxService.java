@@ -0,0 +1,11 @@
+package com.felop.reservasCitas.service;
+//Interfaz de servicio para registrar eventos de cambio de citas (outbox)
+
+import com.felop.reservasCitas.dto.CitaResponseDTO;
+import com.felop.reservasCitas.model.TipoEventoCita;
+
+public interface OutboxService {
+
+    //registra el evento en la transaccion actual (debe existir una)
+    void registrar(TipoEventoCita tipo, CitaResponseDTO cita);
+}
@@ -0,0 +1,33 @@
+package com.felop.reservasCitas.service;
+
+import com.felop.reservasCitas.dto.CitaResponseDTO;
+import com.felop.reservasCitas.model.EventoOutbox;
+import com.felop.reservasCitas.model.TipoEventoCita;
+import com.felop.reservasCitas.repository.EventoOutboxRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.json.JsonMapper;
+
+//Implementacion del registro de eventos en el outbox
+//el write path solo paga un INSERT, la publicacion la hace OutboxRelay
+
+@Service
+@RequiredArgsConstructor
+public class OutboxServiceImpl implements OutboxService {
+
+    private final EventoOutboxRepository repository;
+    private final JsonMapper jsonMapper;
+
+    //MANDATORY: el evento debe confirmarse o descartarse junto con el cambio de la cita
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrar(TipoEventoCita tipo, CitaResponseDTO cita) {
+        EventoOutbox evento = new EventoOutbox();
+        evento.setCitaId(cita.getId());
+        evento.setTipo(tipo);
+        evento.setPayload(jsonMapper.writeValueAsString(cita));
+        repository.save(evento);
+    }
+}
@@ -0,0 +1,14 @@
+package com.felop.reservasCitas.service;
+//Destino de los eventos del outbox (broker, webhook, archivo...)
+
+import com.felop.reservasCitas.model.EventoOutbox;
+
+import java.util.List;
+
+public interface PublicadorEventos {
+
+    /*publica un lote de eventos en orden
+     * si lanza una excepcion el lote completo se reintenta mas tarde,
+     * por lo que los consumidores deben tolerar duplicados (id del evento)*/
+    void publicar(List<EventoOutbox> eventos) throws Exception;
+}
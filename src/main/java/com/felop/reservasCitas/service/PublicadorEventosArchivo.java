@@ -0,0 +1,44 @@
+package com.felop.reservasCitas.service;
+
+import com.felop.reservasCitas.model.EventoOutbox;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+//Publicador local: agrega cada evento como una linea JSON a un archivo
+//reservas.outbox.publicador=archivo (por defecto)
+
+@Component
+@ConditionalOnProperty(name = "reservas.outbox.publicador", havingValue = "archivo", matchIfMissing = true)
+public class PublicadorEventosArchivo implements PublicadorEventos {
+
+    private final Path archivo;
+
+    public PublicadorEventosArchivo(@Value("${reservas.outbox.archivo:outbox-eventos.jsonl}") String archivo) {
+        this.archivo = Path.of(archivo);
+    }
+
+    @Override
+    public void publicar(List<EventoOutbox> eventos) throws IOException {
+        //una sola escritura por lote
+        try (BufferedWriter writer = Files.newBufferedWriter(archivo, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (EventoOutbox e : eventos) {
+                writer.write("{\"id\":" + e.getId()
+                        + ",\"citaId\":" + e.getCitaId()
+                        + ",\"tipo\":\"" + e.getTipo() + "\""
+                        + ",\"createdAt\":\"" + e.getCreatedAt() + "\""
+                        + ",\"cita\":" + e.getPayload() + "}");
+                writer.newLine();
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.felop.reservasCitas.service;
+
+import com.felop.reservasCitas.model.EventoOutbox;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+//Publicador en memoria para pruebas: guarda los eventos publicados en una lista
+//reservas.outbox.publicador=memoria
+
+@Component
+@ConditionalOnProperty(name = "reservas.outbox.publicador", havingValue = "memoria")
+public class PublicadorEventosMemoria implements PublicadorEventos {
+
+    private final List<EventoOutbox> publicados = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publicar(List<EventoOutbox> eventos) {
+        publicados.addAll(eventos);
+    }
+
+    //eventos publicados hasta el momento, en orden
+    public List<EventoOutbox> getPublicados() {
+        return List.copyOf(publicados);
+    }
+
+    public void limpiar() {
+        publicados.clear();
+    }
+}
@@ -0,0 +1,84 @@
+package com.felop.reservasCitas.service;
+
+import com.felop.reservasCitas.config.Sucursales;
+import com.felop.reservasCitas.model.Cita;
+import com.felop.reservasCitas.model.EstadoCita;
+import com.felop.reservasCitas.model.TipoNotificacion;
+import com.felop.reservasCitas.repository.CitaRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+/*Job programado de recordatorios
+ *
+ * recorre las citas CONFIRMADAS de la fecha objetivo en bloques (keyset por id),
+ * sin cargar todo el dia en memoria, y encola un recordatorio por cita
+ * (en cada sucursal)
+ *
+ * - contrapresion: cada recordatorio espera hueco en la cola de notificaciones,
+ *   asi el job avanza al ritmo de los workers y no descarta recordatorios;
+ *   si la cola no se libera en el tiempo de espera el job se detiene y lo registra
+ * - con varias instancias solo una debe tener reservas.notificaciones.recordatorios-habilitados=true,
+ *   si no cada cliente recibiria un recordatorio por instancia*/
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "reservas.notificaciones.recordatorios-habilitados", havingValue = "true", matchIfMissing = true)
+public class RecordatorioJob {
+
+    private final CitaRepository repository;
+    private final NotificacionService notificacionService;
+    private final Sucursales sucursales;
+
+    //dias de antelacion del recordatorio (1 = citas de mañana)
+    @Value("${reservas.notificaciones.recordatorio-dias-antelacion:1}")
+    private int diasAntelacion;
+
+    @Value("${reservas.notificaciones.recordatorio-tamano-bloque:500}")
+    private int tamanoBloque;
+
+    //espera maxima por hueco en la cola de notificaciones antes de abandonar el job
+    @Value("${reservas.notificaciones.recordatorio-espera-cola:PT30S}")
+    private Duration esperaCola;
+
+    @Scheduled(cron = "${reservas.notificaciones.recordatorio-cron:0 0 9 * * *}")
+    public void enviarRecordatorios() {
+        sucursales.enCada(this::enviarRecordatoriosSucursal);
+    }
+
+    private void enviarRecordatoriosSucursal() {
+        LocalDate fecha = LocalDate.now().plusDays(diasAntelacion);
+        long ultimoId = 0;
+        int total = 0;
+
+        List<Cita> bloque;
+        do {
+            bloque = repository.findByFechaAndEstadoAndIdGreaterThanOrderByIdAsc(
+                    fecha, EstadoCita.CONFIRMADA, ultimoId, Limit.of(tamanoBloque));
+
+            for (Cita c : bloque) {
+                boolean encolado = notificacionService.encolar(new Notificacion(TipoNotificacion.RECORDATORIO,
+                        c.getCliente().getEmail(), c.getCliente().getNombre(), c.getCodigoConfirmacion(),
+                        c.getFecha(), c.getHoraInicio(), c.getServicio()), esperaCola);
+                if (!encolado) {
+                    log.error("Cola de notificaciones sin hueco tras {}: se detienen los recordatorios del {} "
+                                    + "(sucursal {}) con {} encolados, pendientes desde la cita {}",
+                            esperaCola, fecha, sucursales.actual(), total, c.getId());
+                    return;
+                }
+                ultimoId = c.getId();
+                total++;
+            }
+        } while (bloque.size() == tamanoBloque);
+
+        log.info("Encolados {} recordatorios para citas del {} (sucursal {})", total, fecha, sucursales.actual());
+    }
+}
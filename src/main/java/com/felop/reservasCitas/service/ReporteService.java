@@ -0,0 +1,35 @@
+package com.felop.reservasCitas.service;
+//Interfaz de servicio para los reportes de ingresos y ocupacion
+
+import com.felop.reservasCitas.dto.IngresosDiariosDTO;
+import com.felop.reservasCitas.dto.OcupacionDiariaDTO;
+import com.felop.reservasCitas.dto.ResumenDiarioDTO;
+import com.felop.reservasCitas.model.Cita;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface ReporteService {
+
+    //==== mantenimiento incremental del resumen ====
+
+    //suma la cita al resumen (tras crearla o despues de modificarla)
+    void registrarAlta(Cita cita);
+
+    //resta la cita del resumen (antes de modificarla o eliminarla)
+    void registrarBaja(Cita cita);
+
+    //recalcula el resumen completo desde la tabla citas (reparacion)
+    int reconstruir();
+
+    //==== consultas ====
+
+    //filas del resumen por dia, servicio y estado
+    List<ResumenDiarioDTO> getResumen(LocalDate desde, LocalDate hasta);
+
+    //ingresos por dia
+    List<IngresosDiariosDTO> getIngresos(LocalDate desde, LocalDate hasta);
+
+    //ocupacion por dia
+    List<OcupacionDiariaDTO> getOcupacion(LocalDate desde, LocalDate hasta);
+}
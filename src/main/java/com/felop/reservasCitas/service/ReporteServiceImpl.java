@@ -0,0 +1,153 @@
+package com.felop.reservasCitas.service;
+
+import com.felop.reservasCitas.config.Sucursales;
+import com.felop.reservasCitas.dto.IngresosDiariosDTO;
+import com.felop.reservasCitas.dto.OcupacionDiariaDTO;
+import com.felop.reservasCitas.dto.ResumenDiarioDTO;
+import com.felop.reservasCitas.exceptions.InvalidTimeRangeException;
+import com.felop.reservasCitas.model.Cita;
+import com.felop.reservasCitas.model.ResumenDiario;
+import com.felop.reservasCitas.repository.ResumenDiarioRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+//Implementacion del servicio de reportes
+//el resumen se actualiza con deltas en la misma transaccion que cada cambio de Cita,
+//asi las consultas de un año recorren ~365 x servicios x estados filas
+
+@Service
+@RequiredArgsConstructor
+public class ReporteServiceImpl implements ReporteService {
+
+    private final ResumenDiarioRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final Sucursales sucursales;
+    private final CapacidadService capacidadService;
+
+    // ==== mantenimiento incremental ====
+
+    @Override
+    @Transactional
+    public void registrarAlta(Cita cita) {
+        aplicar(cita, 1);
+    }
+
+    @Override
+    @Transactional
+    public void registrarBaja(Cita cita) {
+        aplicar(cita, -1);
+    }
+
+    /*reconstruye el resumen completo desde cero
+     * se ejecuta bajo demanda (POST /api/v1/reportes/reconstruir) para la sucursal de la peticion
+     * o programado con reservas.reportes.reconstruccion-cron (desactivado por defecto)*/
+    @Override
+    @Transactional
+    public int reconstruir() {
+        return reconstruirResumen();
+    }
+
+    //programado: todas las sucursales, cada una en su propia transaccion (y su shard)
+    @Scheduled(cron = "${reservas.reportes.reconstruccion-cron:-}")
+    public void reconstruirSucursales() {
+        sucursales.enCada(() -> transactionTemplate.executeWithoutResult(tx -> reconstruirResumen()));
+    }
+
+    private int reconstruirResumen() {
+        repository.deleteAllInBulk();
+        int grupos = repository.rebuildFromCitas();
+
+        //las citas archivadas siguen contando en los reportes
+        for (ResumenDiarioRepository.GrupoResumen g : repository.aggregateHistorico()) {
+            repository.aplicarDelta(g.getFecha(), g.getServicio(), g.getEstado().name(),
+                    g.getTotalCitas(), g.getTotalIngresos(), g.getMinutosReservados());
+        }
+        return grupos;
+    }
+
+    // ==== consultas ====
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ResumenDiarioDTO> getResumen(LocalDate desde, LocalDate hasta) {
+        validateRango(desde, hasta);
+        return repository.findByFechaBetweenOrderByFechaAscServicioAsc(desde, hasta)
+                .stream()
+                .filter(r -> r.getTotalCitas() > 0)
+                .map(this::mapToResumenDTO)
+                .toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<IngresosDiariosDTO> getIngresos(LocalDate desde, LocalDate hasta) {
+        validateRango(desde, hasta);
+        return repository.findIngresosDiarios(desde, hasta)
+                .stream()
+                .map(i -> IngresosDiariosDTO.builder()
+                        .fecha(i.getFecha())
+                        .totalCitas(i.getTotalCitas())
+                        .totalIngresos(i.getTotalIngresos())
+                        .build())
+                .toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<OcupacionDiariaDTO> getOcupacion(LocalDate desde, LocalDate hasta) {
+        validateRango(desde, hasta);
+        //con varias plazas por minuto los minutos reservados se comparan con los minutos de plaza
+        long minutosPlaza = capacidadService.getMinutosPlaza();
+        return repository.findOcupacionDiaria(desde, hasta)
+                .stream()
+                .map(o -> OcupacionDiariaDTO.builder()
+                        .fecha(o.getFecha())
+                        .totalCitas(o.getTotalCitas())
+                        .minutosReservados(o.getMinutosReservados())
+                        .minutosLibres(Math.max(0, minutosPlaza - o.getMinutosReservados()))
+                        .minutosLaborables(minutosPlaza)
+                        .porcentajeOcupacion(o.getMinutosReservados() * 100.0 / minutosPlaza)
+                        .build())
+                .toList();
+    }
+
+    // ==== helpers ====
+
+    //suma (signo 1) o resta (signo -1) la cita en su fila del resumen
+    private void aplicar(Cita cita, int signo) {
+        long minutos = ChronoUnit.MINUTES.between(cita.getHoraInicio(), cita.getHoraFin());
+        repository.aplicarDelta(
+                cita.getFecha(),
+                cita.getServicio(),
+                cita.getEstado().name(),
+                signo,
+                signo > 0 ? cita.getPrecio() : cita.getPrecio().negate(),
+                signo * minutos
+        );
+    }
+
+    private void validateRango(LocalDate desde, LocalDate hasta) {
+        if (hasta.isBefore(desde)) {
+            throw new InvalidTimeRangeException(
+                    "La fecha final (" + hasta + ") no puede ser anterior a la inicial (" + desde + ")");
+        }
+    }
+
+    private ResumenDiarioDTO mapToResumenDTO(ResumenDiario r) {
+        return ResumenDiarioDTO.builder()
+                .fecha(r.getFecha())
+                .servicio(r.getServicio())
+                .estado(r.getEstado())
+                .totalCitas(r.getTotalCitas())
+                .totalIngresos(r.getTotalIngresos())
+                .minutosReservados(r.getMinutosReservados())
+                .build();
+    }
+}
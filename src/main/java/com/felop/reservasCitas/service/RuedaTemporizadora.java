@@ -0,0 +1,150 @@
+package com.felop.reservasCitas.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/*Rueda temporizadora con hash (hashed timing wheel) para expirar elementos
+ *
+ * en lugar de una tarea programada por elemento hay un array circular de ranuras
+ * y un unico hilo que avanza una ranura por tick:
+ * - programar() es O(1): solo agrega el temporizador a una cola concurrente
+ * - en cada tick los temporizadores nuevos se reparten en su ranura (deadline % ranuras)
+ *   con el numero de vueltas completas que faltan
+ * - se recorre solo la ranura actual: expiran los que no tienen vueltas pendientes
+ * - cancelar() marca el temporizador; se descarta al pasar por su ranura
+ *
+ * la precision es de un tick: un elemento nunca expira antes de tiempo,
+ * pero puede expirar hasta un tick mas tarde*/
+@Slf4j
+class RuedaTemporizadora<T> implements AutoCloseable {
+
+    private final long tickNanos;
+    private final int mascara;
+    private final List<List<Temporizador<T>>> ranuras;
+    private final Consumer<T> alExpirar;
+    private final LongSupplier reloj;
+    private final long inicio;
+
+    //temporizadores programados desde otros hilos, pendientes de colocar en su ranura
+    private final Queue<Temporizador<T>> pendientes = new ConcurrentLinkedQueue<>();
+
+    //ticks procesados; solo lo modifica el hilo de la rueda
+    private long tick;
+
+    private final ScheduledExecutorService hilo;
+
+    RuedaTemporizadora(String nombre, Duration duracionTick, int numeroRanuras, Consumer<T> alExpirar) {
+        this(duracionTick, numeroRanuras, alExpirar, System::nanoTime, Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, nombre);
+            t.setDaemon(true);
+            return t;
+        }));
+        hilo.scheduleAtFixedRate(this::avanzar, tickNanos, tickNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /*rueda con reloj propio (nanos) y sin hilo si hilo es null: las pruebas
+     * mueven el reloj y llaman a avanzar()*/
+    RuedaTemporizadora(Duration duracionTick, int numeroRanuras, Consumer<T> alExpirar,
+                       LongSupplier reloj, ScheduledExecutorService hilo) {
+        this.tickNanos = duracionTick.toNanos();
+        //numero de ranuras potencia de 2: el indice se calcula con una mascara
+        int n = Integer.highestOneBit(Math.max(1, numeroRanuras - 1)) << 1;
+        this.mascara = n - 1;
+        this.ranuras = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            //LinkedList: quitar con el iterador es O(1)
+            ranuras.add(new LinkedList<>());
+        }
+        this.alExpirar = alExpirar;
+        this.reloj = reloj;
+        this.inicio = reloj.getAsLong();
+        this.hilo = hilo;
+    }
+
+    //programa la expiracion de un elemento tras la espera indicada
+    Temporizador<T> programar(T elemento, Duration espera) {
+        Temporizador<T> t = new Temporizador<>(elemento, reloj.getAsLong() - inicio + espera.toNanos());
+        pendientes.add(t);
+        return t;
+    }
+
+    //procesa todos los ticks vencidos (si el hilo se retraso se ponen al dia)
+    void avanzar() {
+        long objetivo = (reloj.getAsLong() - inicio) / tickNanos;
+        while (tick <= objetivo) {
+            repartirPendientes();
+            expirar(ranuras.get((int) (tick & mascara)));
+            tick++;
+        }
+    }
+
+    private void repartirPendientes() {
+        Temporizador<T> t;
+        while ((t = pendientes.poll()) != null) {
+            if (t.cancelado) {
+                continue;
+            }
+            //tick en el que vence (redondeo hacia arriba: nunca antes de tiempo)
+            long tickDeadline = Math.max(tick, (t.deadlineNanos + tickNanos - 1) / tickNanos);
+            t.vueltas = (tickDeadline - tick) / ranuras.size();
+            ranuras.get((int) (tickDeadline & mascara)).add(t);
+        }
+    }
+
+    private void expirar(List<Temporizador<T>> ranura) {
+        Iterator<Temporizador<T>> it = ranura.iterator();
+        while (it.hasNext()) {
+            Temporizador<T> t = it.next();
+            if (t.cancelado) {
+                it.remove();
+            } else if (t.vueltas <= 0) {
+                it.remove();
+                try {
+                    alExpirar.accept(t.elemento);
+                } catch (RuntimeException ex) {
+                    //un error en un elemento no detiene la rueda
+                    log.error("Error expirando {}", t.elemento, ex);
+                }
+            } else {
+                t.vueltas--;
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (hilo != null) {
+            hilo.shutdownNow();
+        }
+    }
+
+    //elemento programado; cancelar() evita que expire
+    static final class Temporizador<T> {
+
+        private final T elemento;
+        private final long deadlineNanos;
+        private long vueltas;
+        private volatile boolean cancelado;
+
+        private Temporizador(T elemento, long deadlineNanos) {
+            this.elemento = elemento;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        void cancelar() {
+            cancelado = true;
+        }
+    }
+}
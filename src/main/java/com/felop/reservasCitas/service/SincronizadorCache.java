@@ -0,0 +1,191 @@
+package com.felop.reservasCitas.service;
+
+import com.felop.reservasCitas.config.Sucursales;
+import com.felop.reservasCitas.model.Cita;
+import com.felop.reservasCitas.model.Cliente;
+import com.felop.reservasCitas.model.VersionCambio;
+import com.felop.reservasCitas.repository.VersionCambioRepository;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.StatelessSession;
+import org.hibernate.cache.spi.access.EntityDataAccess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*Invalida las caches locales con los cambios hechos por cualquier instancia
+ *
+ * cada pocos segundos lee las filas de versiones_cambio modificadas desde la ultima lectura
+ * (menos un margen que cubre transacciones que confirman tarde y desfase de relojes)
+ * y compara sus versiones con las ya vistas, asi solo se invalida lo que cambio:
+ * - cache de segundo nivel: la entidad de cada cita (y cliente) cambiada, por id
+ * - consultas cacheadas: la tabla citas se marca como modificada, igual que hace Hibernate con una
+ *   escritura local (la cache de consultas no distingue fechas); un cambio solo de clientes no las toca
+ * - caches en memoria (indice de busqueda...): via CambiosRemotosEvent
+ *
+ * los cambios de la propia instancia (registrarPropias, tras cada commit) ya estan aplicados en sus
+ * caches: se saltan si todas las versiones nuevas de la clave desde la ultima vista son propias
+ *
+ * con sucursales cada shard tiene su tabla versiones_cambio y se sincroniza por separado
+ * (los eventos se publican en la sucursal de los cambios)*/
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SincronizadorCache {
+
+    private final VersionCambioRepository repository;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Sucursales sucursales;
+
+    @Value("${reservas.invalidacion.margen:PT10S}")
+    private Duration margen;
+
+    @Value("${reservas.invalidacion.retencion:P1D}")
+    private Duration retencion;
+
+    //sucursal -> lecturas de su tabla versiones_cambio
+    private final Map<String, Lecturas> lecturas = new HashMap<>();
+
+    //sucursal -> clave -> versiones escritas por esta instancia (fuera del monitor: las registran las peticiones)
+    private final Map<String, Map<String, Propias>> propias = new ConcurrentHashMap<>();
+
+    //versiones confirmadas por esta instancia (VersionCambioService, tras el commit)
+    public void registrarPropias(String sucursal, Map<String, Long> versiones) {
+        Map<String, Propias> deSucursal = propias.computeIfAbsent(sucursal, s -> new ConcurrentHashMap<>());
+        LocalDateTime ahora = LocalDateTime.now();
+        versiones.forEach((clave, version) -> {
+            Propias p = deSucursal.computeIfAbsent(clave, c -> new Propias());
+            p.versiones.add(version);
+            p.registradas = ahora;
+        });
+    }
+
+    //synchronized: el scheduler y las llamadas manuales (pruebas) no se solapan
+    @Scheduled(fixedDelayString = "${reservas.invalidacion.intervalo:PT2S}")
+    public synchronized void sincronizar() {
+        sucursales.enCada(() -> sincronizar(
+                lecturas.computeIfAbsent(sucursales.actual(), s -> new Lecturas(LocalDateTime.now()))));
+    }
+
+    private void sincronizar(Lecturas estado) {
+        Map<String, Vista> vistas = estado.vistas;
+        Map<String, Propias> mias = propias.computeIfAbsent(sucursales.actual(), s -> new ConcurrentHashMap<>());
+        LocalDateTime ahora = LocalDateTime.now();
+        LocalDateTime desde = estado.ultimaLectura.minus(margen);
+
+        Set<LocalDate> fechas = new HashSet<>();
+        Set<Long> citaIds = new HashSet<>();
+        Set<Long> clienteIds = new HashSet<>();
+        for (VersionCambio v : repository.findByModificadoGreaterThanEqual(desde)) {
+            Vista vista = vistas.get(v.getClave());
+            if (vista != null && vista.version() >= v.getVersion()) {
+                continue;//ya invalidado en una lectura anterior
+            }
+            vistas.put(v.getClave(), new Vista(v.getVersion(), v.getModificado()));
+            if (soloPropias(mias.get(v.getClave()), vista != null ? vista.version() : 0, v.getVersion())) {
+                continue;//escrito por esta instancia, sus caches ya lo reflejan
+            }
+
+            String clave = v.getClave();
+            if (clave.startsWith(VersionCambio.PREFIJO_FECHA)) {
+                fechas.add(LocalDate.parse(clave.substring(VersionCambio.PREFIJO_FECHA.length())));
+            } else if (clave.startsWith(VersionCambio.PREFIJO_CITA)) {
+                citaIds.add(Long.valueOf(clave.substring(VersionCambio.PREFIJO_CITA.length())));
+            } else if (clave.startsWith(VersionCambio.PREFIJO_CLIENTE)) {
+                clienteIds.add(Long.valueOf(clave.substring(VersionCambio.PREFIJO_CLIENTE.length())));
+            }
+        }
+
+        //las claves fuera de la ventana no vuelven a leerse salvo que cambien otra vez
+        vistas.values().removeIf(v -> v.modificado().isBefore(desde));
+        //las escritas antes de la ventana ya se leyeron (se confirmaron despues de su modificado)
+        mias.values().removeIf(p -> p.registradas.isBefore(desde));
+        estado.ultimaLectura = ahora;
+
+        if (fechas.isEmpty() && citaIds.isEmpty() && clienteIds.isEmpty()) {
+            return;
+        }
+
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        desalojar(sessionFactory, Cita.class, citaIds);
+        desalojar(sessionFactory, Cliente.class, clienteIds);
+        if (!fechas.isEmpty() || !citaIds.isEmpty()) {
+            //los resultados cacheados por fecha pueden incluir cualquiera de las citas cambiadas
+            String[] tablas = sessionFactory.getMappingMetamodel().getEntityDescriptor(Cita.class).getPropertySpaces();
+            try (StatelessSession session = sessionFactory.openStatelessSession()) {
+                sessionFactory.getCache().getTimestampsCache()
+                        .invalidate(tablas, (SharedSessionContractImplementor) session);
+            }
+        }
+
+        eventPublisher.publishEvent(new CambiosRemotosEvent(fechas, citaIds));
+        log.debug("Invalidadas {} fechas y {} citas", fechas.size(), citaIds.size());
+    }
+
+    //todas las versiones nuevas (desde, hasta] las escribio esta instancia; las ya vistas se descartan
+    private static boolean soloPropias(Propias mias, long desde, long hasta) {
+        if (mias == null) {
+            return false;
+        }
+        boolean todas = hasta - desde <= mias.versiones.size();
+        for (long n = desde + 1; todas && n <= hasta; n++) {
+            todas = mias.versiones.contains(n);
+        }
+        mias.versiones.removeIf(n -> n <= hasta);
+        return todas;
+    }
+
+    //por id con la sucursal en la clave (tenant de la sesion con sharding), como las guarda Hibernate
+    private void desalojar(SessionFactoryImplementor sessionFactory, Class<?> entidad, Set<Long> ids) {
+        EntityPersister persister = sessionFactory.getMappingMetamodel().getEntityDescriptor(entidad);
+        EntityDataAccess cache = persister.getCacheAccessStrategy();
+        String tenant = sucursales.isHabilitado() ? sucursales.actual() : null;
+        ids.forEach(id -> cache.evict(cache.generateCacheKey(id, persister, sessionFactory, tenant)));
+    }
+
+    //las versiones antiguas ya fueron leidas por todas las instancias activas
+    @Scheduled(cron = "${reservas.invalidacion.limpieza-cron:0 0 4 * * *}")
+    public void limpiar() {
+        LocalDateTime limite = LocalDateTime.now().minus(retencion);
+        int eliminadas = sucursales.sumarEnCada(s -> transactionTemplate.execute(tx -> repository.deleteOlderThan(limite)));
+        log.info("Eliminadas {} versiones de cambio anteriores a {}", eliminadas, limite);
+    }
+
+    private record Vista(long version, LocalDateTime modificado) {
+    }
+
+    //versiones de una clave escritas por esta instancia aun no descartadas
+    private static final class Propias {
+
+        private final Set<Long> versiones = ConcurrentHashMap.newKeySet();
+        private volatile LocalDateTime registradas = LocalDateTime.now();
+    }
+
+    //clave -> ultima version vista (solo claves dentro de la ventana) y momento de la ultima lectura
+    private static final class Lecturas {
+
+        private final Map<String, Vista> vistas = new HashMap<>();
+        private LocalDateTime ultimaLectura;
+
+        private Lecturas(LocalDateTime ultimaLectura) {
+            this.ultimaLectura = ultimaLectura;
+        }
+    }
+}
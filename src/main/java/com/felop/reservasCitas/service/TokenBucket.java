@@ -0,0 +1,57 @@
+package com.felop.reservasCitas.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/*Token bucket sin bloqueos (lock-free)
+ *
+ * implementado como GCRA (generic cell rate algorithm), equivalente a un token bucket:
+ * en lugar de guardar tokens y ultima recarga se guarda un unico instante teorico
+ * de llegada (TAT) en un AtomicLong que se actualiza con compareAndSet.
+ * - cada peticion admitida adelanta el TAT un intervalo (1 / tokensPorSegundo)
+ * - se admite mientras el TAT no supere ahora + capacidad * intervalo*/
+class TokenBucket {
+
+    //nanosegundos que tarda en recargarse un token
+    private final long intervaloNanos;
+
+    //rafaga maxima expresada en tiempo: capacidad * intervalo
+    private final long toleranciaNanos;
+
+    //instante teorico de llegada (segun el reloj) de la siguiente peticion
+    private final AtomicLong tat;
+
+    //System.nanoTime salvo en pruebas
+    private final LongSupplier reloj;
+
+    TokenBucket(long capacidad, double tokensPorSegundo) {
+        this(capacidad, tokensPorSegundo, System::nanoTime);
+    }
+
+    TokenBucket(long capacidad, double tokensPorSegundo, LongSupplier reloj) {
+        this.intervaloNanos = Math.max(1L, (long) (1_000_000_000L / tokensPorSegundo));
+        this.toleranciaNanos = capacidad * intervaloNanos;
+        this.reloj = reloj;
+        this.tat = new AtomicLong(reloj.getAsLong());
+    }
+
+    /*intenta consumir un token
+     * return 0 si se admite, o los nanosegundos a esperar hasta que haya un token*/
+    long tryConsume() {
+        long ahora = reloj.getAsLong();
+        while (true) {
+            long actual = tat.get();
+            long nuevo = Math.max(actual, ahora) + intervaloNanos;
+            long espera = nuevo - ahora - toleranciaNanos;
+
+            //bucket vacio: no se modifica el estado
+            if (espera > 0) {
+                return espera;
+            }
+            if (tat.compareAndSet(actual, nuevo)) {
+                return 0;
+            }
+            //otro hilo consumio un token a la vez, reintentar con el nuevo TAT
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.felop.reservasCitas.service;
+//Interfaz de servicio para registrar cambios que otras instancias deben invalidar
+
+import java.time.LocalDate;
+import java.util.Collection;
+
+public interface VersionCambioService {
+
+    /*incrementa la version de la fecha y de la cita en la transaccion actual (debe existir una)
+     * fechaAnterior: dia del que se movio la cita (null si no cambio de dia), tambien se incrementa*/
+    void registrar(LocalDate fecha, LocalDate fechaAnterior, Long citaId);
+
+    /*bloquea las fechas hasta el fin de la transaccion actual (debe existir una) incrementando su version
+     * el upsert retiene la fila de cada fecha: las escrituras de esas fechas en cualquier instancia esperan
+     * las fechas se bloquean en orden ascendente; las ya bloqueadas en la transaccion no se incrementan
+     * otra vez (tampoco al registrar el cambio), asi cada transaccion avanza la version de una fecha en uno
+     *
+     * devuelve la version de la primera fecha tras el incremento*/
+    long bloquearFechas(LocalDate fecha, LocalDate... otras);
+
+    //incrementa la version de varias citas (ej: citas movidas al historico)
+    void registrarCitas(Collection<Long> citaIds);
+
+    //incrementa la version de un cliente cuyos datos de contacto cambiaron
+    void registrarCliente(Long clienteId);
+}
@@ -0,0 +1,109 @@
+package com.felop.reservasCitas.service;
+
+import com.felop.reservasCitas.config.Sucursales;
+import com.felop.reservasCitas.model.VersionCambio;
+import com.felop.reservasCitas.repository.VersionCambioRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+//Implementacion del registro de versiones de cambio
+//el write path paga un upsert y una lectura por clave, la sondeo la hace SincronizadorCache en cada instancia
+//las versiones escritas se entregan a SincronizadorCache tras el commit: la instancia no invalida sus propios cambios
+
+@Service
+@RequiredArgsConstructor
+public class VersionCambioServiceImpl implements VersionCambioService {
+
+    private final VersionCambioRepository repository;
+    private final SincronizadorCache sincronizadorCache;
+    private final Sucursales sucursales;
+
+    //MANDATORY: la version solo avanza si el cambio de la cita se confirma
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrar(LocalDate fecha, LocalDate fechaAnterior, Long citaId) {
+        if (fechaAnterior != null) {
+            bloquearFechas(fecha, fechaAnterior);
+        } else {
+            bloquearFechas(fecha);
+        }
+        incrementar(VersionCambio.claveCita(citaId), LocalDateTime.now());
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public long bloquearFechas(LocalDate fecha, LocalDate... otras) {
+        Map<String, Long> escritas = escritas();
+        //cada upsert retiene su fila hasta el commit: siempre en orden ascendente,
+        //si no dos citas movidas en sentidos opuestos (A->B y B->A) se esperan mutuamente
+        TreeSet<LocalDate> fechas = new TreeSet<>(Arrays.asList(otras));
+        fechas.add(fecha);
+        LocalDateTime ahora = LocalDateTime.now();
+        for (LocalDate f : fechas) {
+            String clave = VersionCambio.claveFecha(f);
+            if (!escritas.containsKey(clave)) {
+                incrementar(clave, ahora);
+            }
+        }
+        return escritas.get(VersionCambio.claveFecha(fecha));
+    }
+
+    private void incrementar(String clave, LocalDateTime ahora) {
+        repository.incrementar(clave, ahora);
+        //la fila modificada por la propia transaccion se lee en su ultima version
+        escritas().put(clave, repository.findVersion(clave));
+    }
+
+    //claves incrementadas en la transaccion actual -> version tras el incremento
+    //al confirmar se entregan a SincronizadorCache; se desliga al terminar la transaccion
+    @SuppressWarnings("unchecked")
+    private Map<String, Long> escritas() {
+        Map<String, Long> escritas = (Map<String, Long>) TransactionSynchronizationManager.getResource(this);
+        if (escritas == null) {
+            Map<String, Long> nuevas = new HashMap<>();
+            String sucursal = sucursales.actual();
+            TransactionSynchronizationManager.bindResource(this, nuevas);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    sincronizadorCache.registrarPropias(sucursal, nuevas);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(VersionCambioServiceImpl.this);
+                }
+            });
+            escritas = nuevas;
+        }
+        return escritas;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarCitas(Collection<Long> citaIds) {
+        //bloques grandes (archivado): sin leer cada version, la propia instancia las invalida en la sondeo
+        LocalDateTime ahora = LocalDateTime.now();
+        for (Long id : citaIds) {
+            repository.incrementar(VersionCambio.claveCita(id), ahora);
+        }
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarCliente(Long clienteId) {
+        incrementar(VersionCambio.claveCliente(clienteId), LocalDateTime.now());
+    }
+}
@@ -0,0 +1,115 @@
+package com.felop.reservasCitas.capacidad;
+
+import com.felop.reservasCitas.dto.CitaConfirmacionDTO;
+import com.felop.reservasCitas.dto.CitaRequestDTO;
+import com.felop.reservasCitas.dto.DisponibilidadCitaDTO;
+import com.felop.reservasCitas.exceptions.TimeSlotNotAvailableException;
+import com.felop.reservasCitas.service.CitaService;
+import com.felop.reservasCitas.soporte.ContextoPruebas;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/*Reservas con dos plazas en paralelo (reservas.capacidad.plazas=2)
+ *
+ * cada prueba usa su propia fecha: el contador de plazas es por dia*/
+class CapacidadPlazasTests {
+
+    private static ConfigurableApplicationContext contexto;
+    private static CitaService citas;
+
+    @BeforeAll
+    static void arrancar() {
+        contexto = ContextoPruebas.conBd("capacidad")
+                .propiedades("reservas.capacidad.plazas=2")
+                .arrancar();
+        citas = contexto.getBean(CitaService.class);
+    }
+
+    @AfterAll
+    static void detener() {
+        contexto.close();
+    }
+
+    @Test
+    void seAdmitenCitasSolapadasHastaLaCapacidad() {
+        LocalDate fecha = LocalDate.now().plusDays(5);
+
+        citas.createCita(cita(1, fecha, LocalTime.of(10, 0), LocalTime.of(11, 0)));
+        citas.createCita(cita(2, fecha, LocalTime.of(10, 30), LocalTime.of(11, 30)));
+
+        //10:30 - 11:00 ya tiene dos citas; 11:00 - 11:30 solo una
+        assertThrows(TimeSlotNotAvailableException.class,
+                () -> citas.createCita(cita(3, fecha, LocalTime.of(10, 45), LocalTime.of(11, 15))));
+        citas.createCita(cita(4, fecha, LocalTime.of(11, 0), LocalTime.of(11, 30)));
+
+        DisponibilidadCitaDTO disponibilidad = citas.getDisponibilidad(fecha);
+        assertEquals(1, disponibilidad.getPlazasLibres().get("10:00 - 10:30"));
+        assertEquals(0, disponibilidad.getPlazasLibres().get("10:30 - 11:00"));
+        assertEquals(0, disponibilidad.getPlazasLibres().get("11:00 - 11:30"));
+        assertEquals(2, disponibilidad.getPlazasLibres().get("11:30 - 12:00"));
+        assertEquals(22, disponibilidad.getTotalDisponibles());
+    }
+
+    @Test
+    void cancelarDevuelveLaPlaza() {
+        LocalDate fecha = LocalDate.now().plusDays(6);
+
+        CitaConfirmacionDTO primera = citas.createCita(cita(1, fecha, LocalTime.of(9, 0), LocalTime.of(10, 0)));
+        citas.createCita(cita(2, fecha, LocalTime.of(9, 0), LocalTime.of(10, 0)));
+        assertThrows(TimeSlotNotAvailableException.class,
+                () -> citas.createCita(cita(3, fecha, LocalTime.of(9, 0), LocalTime.of(10, 0))));
+
+        citas.cancelarCita(primera.getId());
+
+        citas.createCita(cita(3, fecha, LocalTime.of(9, 0), LocalTime.of(10, 0)));
+    }
+
+    @Test
+    void reservasConcurrentesNoSuperanLaCapacidad() throws Exception {
+        LocalDate fecha = LocalDate.now().plusDays(7);
+        int clientes = 16;
+
+        List<Future<Boolean>> resultados = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < clientes; i++) {
+                int cliente = i;
+                resultados.add(executor.submit(() -> {
+                    try {
+                        citas.createCita(cita(cliente, fecha, LocalTime.of(15, 0), LocalTime.of(16, 0)));
+                        return true;
+                    } catch (TimeSlotNotAvailableException ex) {
+                        return false;
+                    }
+                }));
+            }
+        }
+
+        int creadas = 0;
+        for (Future<Boolean> r : resultados) {
+            creadas += r.get() ? 1 : 0;
+        }
+        assertEquals(2, creadas);
+        assertEquals(2, citas.getCitasByFecha(fecha).size());
+    }
+
+    //un cliente distinto por numero
+    private static CitaRequestDTO cita(int cliente, LocalDate fecha, LocalTime inicio, LocalTime fin) {
+        return ContextoPruebas.cita(fecha, inicio, fin)
+                .nombreCliente("Cliente " + cliente)
+                .email("cliente" + cliente + "@mail.com")
+                .build();
+    }
+}
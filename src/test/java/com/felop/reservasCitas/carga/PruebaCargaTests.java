@@ -0,0 +1,167 @@
+package com.felop.reservasCitas.carga;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/*Prueba de carga de la API contra una BD embebida (H2 en modo MySQL)
+ *
+ * ejecucion: mvn -Pcarga test
+ * parametros: ver application-carga.properties (ej: -Dcarga.usuarios=128 -Dcarga.duracion=PT60S)
+ *
+ * mezcla de trabajo por usuario virtual:
+ * - 20% reservas concentradas en las fechas calientes (la mayoria terminan en 409)
+ * - 50% consultas de disponibilidad
+ * - 30% busquedas por codigo de confirmacion
+ *
+ * al terminar imprime throughput y percentiles de latencia por endpoint*/
+@Tag("carga")
+@ActiveProfiles("carga")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class PruebaCargaTests {
+
+    private static final String BASE = "/api/v1/citas";
+
+    @Value("${local.server.port}")
+    private int port;
+
+    @Value("${carga.dias}")
+    private int dias;
+
+    @Value("${carga.citas-por-dia}")
+    private int citasPorDia;
+
+    @Value("${carga.fechas-calientes}")
+    private int fechasCalientes;
+
+    @Value("${carga.usuarios}")
+    private int usuarios;
+
+    @Value("${carga.duracion}")
+    private Duration duracion;
+
+    @Value("${carga.calentamiento}")
+    private Duration calentamiento;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+    private List<String> codigos;
+
+    @Test
+    void cargaMixta() throws Exception {
+        SembradorDatos sembrador = new SembradorDatos(jdbcTemplate);
+        long inicioSiembra = System.nanoTime();
+        sembrador.sembrar(dias, citasPorDia);
+        codigos = sembrador.getCodigos();
+        System.out.printf("Sembradas %d citas (%d dias x %d) en %d ms%n", codigos.size(), dias, citasPorDia,
+                Duration.ofNanos(System.nanoTime() - inicioSiembra).toMillis());
+
+        //calentamiento (JIT, pool de conexiones, caches): resultados descartados
+        ejecutar(calentamiento);
+
+        ResultadosCarga resultados = ejecutar(duracion);
+        System.out.println(resultados.informe(duracion));
+
+        assertTrue(resultados.total() > 0, "No se ejecuto ninguna peticion");
+    }
+
+    //lanza los usuarios virtuales durante el tiempo indicado y combina sus resultados
+    private ResultadosCarga ejecutar(Duration tiempo) throws Exception {
+        long fin = System.nanoTime() + tiempo.toNanos();
+        List<Future<ResultadosCarga>> futuros = new ArrayList<>();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < usuarios; i++) {
+                futuros.add(executor.submit(() -> usuarioVirtual(fin)));
+            }
+        }
+
+        ResultadosCarga total = new ResultadosCarga();
+        for (Future<ResultadosCarga> f : futuros) {
+            total.merge(f.get());
+        }
+        return total;
+    }
+
+    private ResultadosCarga usuarioVirtual(long fin) throws Exception {
+        ResultadosCarga resultados = new ResultadosCarga();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        while (System.nanoTime() < fin) {
+            int tipo = random.nextInt(100);
+            if (tipo < 20) {
+                peticion(resultados, "POST /citas", reserva(random));
+            } else if (tipo < 70) {
+                LocalDate fecha = fechaAleatoria(random);
+                peticion(resultados, "GET /disponibilidad/{fecha}",
+                        get(BASE + "/disponibilidad/" + fecha));
+            } else {
+                String codigo = codigos.get(random.nextInt(codigos.size()));
+                peticion(resultados, "GET /codigo/{codigo}", get(BASE + "/codigo/" + codigo));
+            }
+        }
+        return resultados;
+    }
+
+    private void peticion(ResultadosCarga resultados, String endpoint, HttpRequest request) throws Exception {
+        long inicio = System.nanoTime();
+        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        resultados.registrar(endpoint, response.statusCode(), System.nanoTime() - inicio);
+    }
+
+    //reserva en una fecha caliente y un slot de 30m aleatorio
+    private HttpRequest reserva(ThreadLocalRandom random) {
+        LocalDate fecha = LocalDate.now().plusDays(1 + random.nextInt(fechasCalientes));
+        LocalTime inicio = LocalTime.of(8, 0).plusMinutes(30L * random.nextInt(24));
+        int n = random.nextInt(100_000);
+
+        String body = """
+                {"nombreCliente":"Cliente %d","email":"c%d@mail.com","telefono":"+34600%06d",
+                 "fecha":"%s","horaInicio":"%s","horaFin":"%s","servicio":"Consulta","precio":25.00}
+                """.formatted(n, n, n, fecha, inicio, inicio.plusMinutes(30));
+
+        return HttpRequest.newBuilder(uri(BASE))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    //80% de las consultas van a las fechas calientes
+    private LocalDate fechaAleatoria(ThreadLocalRandom random) {
+        int offset = random.nextInt(10) < 8 ? random.nextInt(fechasCalientes) : random.nextInt(dias);
+        return LocalDate.now().plusDays(1 + offset);
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(uri(path)).GET().build();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
@@ -0,0 +1,72 @@
+package com.felop.reservasCitas.carga;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/*Registro de latencias y codigos de estado por endpoint
+ *
+ * cada usuario virtual tiene su propia instancia (sin contencion entre hilos)
+ * y al final se combinan todas con merge() para el informe*/
+class ResultadosCarga {
+
+    private final Map<String, Muestras> porEndpoint = new TreeMap<>();
+
+    void registrar(String endpoint, int status, long latenciaNanos) {
+        Muestras m = porEndpoint.computeIfAbsent(endpoint, k -> new Muestras());
+        m.latencias.add(latenciaNanos);
+        m.estados.merge(status, 1L, Long::sum);
+    }
+
+    void merge(ResultadosCarga otro) {
+        otro.porEndpoint.forEach((endpoint, muestras) -> {
+            Muestras m = porEndpoint.computeIfAbsent(endpoint, k -> new Muestras());
+            m.latencias.addAll(muestras.latencias);
+            muestras.estados.forEach((status, n) -> m.estados.merge(status, n, Long::sum));
+        });
+    }
+
+    //informe con throughput y percentiles de latencia por endpoint
+    String informe(Duration duracion) {
+        double segundos = duracion.toMillis() / 1000.0;
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%n%-28s %9s %9s %9s %9s %9s %9s  %s%n",
+                "endpoint", "peticiones", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms", "estados"));
+
+        porEndpoint.forEach((endpoint, m) -> {
+            long[] ordenadas = m.latencias.stream().mapToLong(Long::longValue).toArray();
+            Arrays.sort(ordenadas);
+            sb.append(String.format("%-28s %9d %9.1f %9.2f %9.2f %9.2f %9.2f  %s%n",
+                    endpoint,
+                    ordenadas.length,
+                    ordenadas.length / segundos,
+                    percentil(ordenadas, 0.50),
+                    percentil(ordenadas, 0.90),
+                    percentil(ordenadas, 0.99),
+                    percentil(ordenadas, 1.0),
+                    m.estados));
+        });
+        return sb.toString();
+    }
+
+    long total() {
+        return porEndpoint.values().stream().mapToLong(m -> m.latencias.size()).sum();
+    }
+
+    //percentil por rango mas cercano, en milisegundos
+    private static double percentil(long[] ordenadas, double p) {
+        if (ordenadas.length == 0) {
+            return 0;
+        }
+        int indice = (int) Math.ceil(p * ordenadas.length) - 1;
+        return ordenadas[Math.max(0, indice)] / 1_000_000.0;
+    }
+
+    private static class Muestras {
+        private final List<Long> latencias = new ArrayList<>();
+        private final Map<Integer, Long> estados = new TreeMap<>();
+    }
+}
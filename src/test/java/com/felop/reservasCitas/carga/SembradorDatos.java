@@ -0,0 +1,127 @@
+package com.felop.reservasCitas.carga;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/*Siembra datos realistas para las pruebas de carga
+ *
+ * por cada dia:
+ * - ~60% de los slots de 30m con citas activas (PENDIENTE/CONFIRMADA) sin solapamiento
+ * - el resto hasta citasPorDia son historicas (CANCELADA/COMPLETADA), que no bloquean horarios
+ * - las citas se reparten entre un conjunto fijo de clientes (varias citas por cliente)
+ *
+ * se inserta por JDBC en lotes para no depender de la velocidad de la API*/
+class SembradorDatos {
+
+    private static final String[] SERVICIOS = {"Consulta", "Corte", "Manicure", "Masaje", "Revision", "Limpieza"};
+    private static final String[] ESTADOS_HISTORICOS = {"CANCELADA", "COMPLETADA"};
+    private static final int SLOTS_POR_DIA = 24;
+    private static final int TAMANO_LOTE = 1000;
+    private static final int CLIENTES = 50_000;
+
+    private static final String INSERT_CLIENTE = "INSERT INTO clientes (email, nombre, telefono, created_at, " +
+            "updated_at) VALUES (?, ?, ?, ?, ?)";
+
+    private static final String INSERT = "INSERT INTO citas (cliente_id, fecha, hora_inicio, " +
+            "hora_fin, servicio, estado, precio, notas, codigo_confirmacion, created_at, updated_at, version) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Random random = new Random(42);
+
+    //codigos sembrados, usados luego para las busquedas por codigo
+    private final List<String> codigos = new ArrayList<>();
+
+    //ids de los clientes sembrados
+    private List<Long> clientes;
+
+    SembradorDatos(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    //siembra citas desde manana durante el numero de dias indicado
+    void sembrar(int dias, int citasPorDia) {
+        sembrarClientes();
+
+        LocalDate inicio = LocalDate.now().plusDays(1);
+        List<Object[]> lote = new ArrayList<>(TAMANO_LOTE);
+
+        for (int d = 0; d < dias; d++) {
+            LocalDate fecha = inicio.plusDays(d);
+            for (int i = 0; i < citasPorDia; i++) {
+                lote.add(fila(fecha, i));
+                if (lote.size() == TAMANO_LOTE) {
+                    jdbcTemplate.batchUpdate(INSERT, lote);
+                    lote.clear();
+                }
+            }
+        }
+        if (!lote.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT, lote);
+        }
+    }
+
+    private void sembrarClientes() {
+        Timestamp ahora = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> lote = new ArrayList<>(TAMANO_LOTE);
+        for (int i = 0; i < CLIENTES; i++) {
+            lote.add(new Object[]{"c" + i + "@mail.com", "Cliente c" + i,
+                    "+34600" + String.format("%06d", random.nextInt(1_000_000)), ahora, ahora});
+            if (lote.size() == TAMANO_LOTE) {
+                jdbcTemplate.batchUpdate(INSERT_CLIENTE, lote);
+                lote.clear();
+            }
+        }
+        if (!lote.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_CLIENTE, lote);
+        }
+        clientes = jdbcTemplate.queryForList("SELECT id FROM clientes", Long.class);
+    }
+
+    List<String> getCodigos() {
+        return codigos;
+    }
+
+    private Object[] fila(LocalDate fecha, int indice) {
+        int slot = indice % SLOTS_POR_DIA;
+        //las primeras vueltas de slots ocupan ~60% de las franjas con citas activas
+        boolean activa = indice < SLOTS_POR_DIA && random.nextInt(10) < 6;
+        String estado = activa
+                ? (random.nextBoolean() ? "PENDIENTE" : "CONFIRMADA")
+                : ESTADOS_HISTORICOS[random.nextInt(ESTADOS_HISTORICOS.length)];
+
+        LocalTime horaInicio = LocalTime.of(8, 0).plusMinutes(30L * slot);
+        LocalTime horaFin = horaInicio.plusMinutes(activa ? 30 : 15 + 15L * random.nextInt(2));
+
+        //codigo fuera del espacio hexadecimal de los codigos generados por la API
+        String codigo = "SEED" + String.format("%6s", Integer.toString(codigos.size(), 36))
+                .replace(' ', '0').toUpperCase();
+        codigos.add(codigo);
+
+        Timestamp ahora = Timestamp.valueOf(LocalDateTime.now());
+
+        return new Object[]{
+                clientes.get(random.nextInt(clientes.size())),
+                Date.valueOf(fecha),
+                Time.valueOf(horaInicio),
+                Time.valueOf(horaFin),
+                SERVICIOS[random.nextInt(SERVICIOS.length)],
+                estado,
+                BigDecimal.valueOf(10 + random.nextInt(90)),
+                random.nextInt(4) == 0 ? "Nota de prueba" : null,
+                codigo,
+                ahora,
+                ahora
+        };
+    }
+}
@@ -0,0 +1,105 @@
+package com.felop.reservasCitas.cluster;
+
+import com.felop.reservasCitas.dto.CitaRequestDTO;
+import com.felop.reservasCitas.exceptions.TimeSlotNotAvailableException;
+import com.felop.reservasCitas.service.CitaService;
+import com.felop.reservasCitas.soporte.ContextoPruebas;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/*Capacidad con dos instancias (dos contextos) sobre la misma BD embebida
+ *
+ * cada nodo tiene su propio contador de plazas en memoria; ninguna prueba llama
+ * a SincronizadorCache: la comprobacion contra la BD ocurre dentro de la reserva*/
+class CapacidadClusterTests {
+
+    private static ConfigurableApplicationContext nodoA;
+    private static ConfigurableApplicationContext nodoB;
+
+    @BeforeAll
+    static void arrancarNodos() {
+        //el primer nodo crea el esquema, el segundo lo reutiliza
+        nodoA = arrancarNodo("cap-nodo-a", "create");
+        nodoB = arrancarNodo("cap-nodo-b", "none");
+    }
+
+    @AfterAll
+    static void detenerNodos() {
+        nodoB.close();
+        nodoA.close();
+    }
+
+    @Test
+    void contadorDeOtroNodoNoAdmiteUnaPlazaYaOcupada() {
+        CitaService citasA = nodoA.getBean(CitaService.class);
+        CitaService citasB = nodoB.getBean(CitaService.class);
+        LocalDate fecha = LocalDate.now().plusDays(8);
+
+        //B construye su contador del dia con la franja de las 10:00 libre
+        citasB.createCita(cita(1, fecha, LocalTime.of(9, 0)));
+
+        //A ocupa las 10:00: el contador de B queda obsoleto
+        citasA.createCita(cita(2, fecha, LocalTime.of(10, 0)));
+
+        assertThrows(TimeSlotNotAvailableException.class,
+                () -> citasB.createCita(cita(3, fecha, LocalTime.of(10, 0))));
+        assertEquals(2, citasB.getCitasByFecha(fecha).size());
+    }
+
+    @Test
+    void reservasConcurrentesDesdeAmbosNodosNoSuperanLaCapacidad() throws Exception {
+        LocalDate fecha = LocalDate.now().plusDays(9);
+        int clientes = 16;
+
+        //la fila de la fecha ya existe en ambos nodos antes de competir por ella
+        nodoA.getBean(CitaService.class).createCita(cita(100, fecha, LocalTime.of(8, 0)));
+
+        List<Future<Boolean>> resultados = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < clientes; i++) {
+                int cliente = i;
+                CitaService citas = (i % 2 == 0 ? nodoA : nodoB).getBean(CitaService.class);
+                resultados.add(executor.submit(() -> {
+                    try {
+                        citas.createCita(cita(cliente, fecha, LocalTime.of(15, 0)));
+                        return true;
+                    } catch (TimeSlotNotAvailableException ex) {
+                        return false;
+                    }
+                }));
+            }
+        }
+
+        int creadas = 0;
+        for (Future<Boolean> r : resultados) {
+            creadas += r.get() ? 1 : 0;
+        }
+        assertEquals(1, creadas);
+    }
+
+    //un cliente distinto por numero; media hora desde la hora indicada
+    private static CitaRequestDTO cita(int cliente, LocalDate fecha, LocalTime inicio) {
+        return ContextoPruebas.cita(fecha, inicio, inicio.plusMinutes(30))
+                .nombreCliente("Cliente " + cliente)
+                .email("cliente" + cliente + "@mail.com")
+                .build();
+    }
+
+    //cada nodo con sus propias regiones de cache sobre la BD compartida "capacidad-cluster"
+    private static ConfigurableApplicationContext arrancarNodo(String nombre, String ddl) {
+        return ContextoPruebas.sinBd(nombre).bd("capacidad-cluster", ddl).arrancar();
+    }
+}
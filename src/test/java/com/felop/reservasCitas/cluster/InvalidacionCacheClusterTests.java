@@ -0,0 +1,97 @@
+package com.felop.reservasCitas.cluster;
+
+import com.felop.reservasCitas.config.MedicionSql;
+import com.felop.reservasCitas.dto.CitaConfirmacionDTO;
+import com.felop.reservasCitas.model.EstadoCita;
+import com.felop.reservasCitas.service.CitaService;
+import com.felop.reservasCitas.service.SincronizadorCache;
+import com.felop.reservasCitas.soporte.ContextoPruebas;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import static com.felop.reservasCitas.soporte.ContextoPruebas.cita;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/*Dos instancias de la aplicacion (dos contextos) sobre la misma BD embebida
+ *
+ * cada nodo tiene su propia cache de segundo nivel (prefijo de region distinto);
+ * lo que escribe un nodo solo llega al otro a traves de la tabla versiones_cambio*/
+class InvalidacionCacheClusterTests {
+
+    private static ConfigurableApplicationContext nodoA;
+    private static ConfigurableApplicationContext nodoB;
+
+    @BeforeAll
+    static void arrancarNodos() {
+        //el primer nodo crea el esquema, el segundo lo reutiliza
+        nodoA = arrancarNodo("nodo-a", "create");
+        nodoB = arrancarNodo("nodo-b", "none");
+    }
+
+    @AfterAll
+    static void detenerNodos() {
+        nodoB.close();
+        nodoA.close();
+    }
+
+    @Test
+    void cambioEnUnNodoInvalidaLaEntidadCacheadaEnElOtro() {
+        CitaService citasA = nodoA.getBean(CitaService.class);
+        CitaService citasB = nodoB.getBean(CitaService.class);
+
+        CitaConfirmacionDTO creada = citasA.createCita(cita(LocalDate.now().plusDays(3), LocalTime.of(10, 0)));
+
+        //B lee la cita y la guarda en su cache de segundo nivel
+        assertEquals(EstadoCita.PENDIENTE, citasB.getCitaById(creada.getId()).getEstado());
+
+        //A la confirma: la copia cacheada en B queda obsoleta hasta que B sincroniza
+        citasA.confirmarCita(creada.getId());
+        nodoB.getBean(SincronizadorCache.class).sincronizar();
+
+        assertEquals(EstadoCita.CONFIRMADA, citasB.getCitaById(creada.getId()).getEstado());
+    }
+
+    @Test
+    void altaEnUnNodoInvalidaLasConsultasCacheadasEnElOtro() {
+        CitaService citasA = nodoA.getBean(CitaService.class);
+        CitaService citasB = nodoB.getBean(CitaService.class);
+        LocalDate fecha = LocalDate.now().plusDays(4);
+
+        citasA.createCita(cita(fecha, LocalTime.of(9, 0)));
+        nodoB.getBean(SincronizadorCache.class).sincronizar();
+
+        //B cachea el resultado de la consulta por fecha
+        assertEquals(1, citasB.getCitasByFecha(fecha).size());
+
+        citasA.createCita(cita(fecha, LocalTime.of(11, 0)));
+        nodoB.getBean(SincronizadorCache.class).sincronizar();
+
+        assertEquals(2, citasB.getCitasByFecha(fecha).size());
+        assertEquals(22, citasB.getDisponibilidad(fecha).getTotalDisponibles());
+    }
+
+    @Test
+    void losCambiosPropiosNoVacianLaCacheDeConsultas() {
+        CitaService citasA = nodoA.getBean(CitaService.class);
+        LocalDate fecha = LocalDate.now().plusDays(5);
+
+        CitaConfirmacionDTO creada = citasA.createCita(cita(fecha, LocalTime.of(9, 0)));
+        citasA.confirmarCita(creada.getId());
+        citasA.getCitasByFecha(fecha);
+
+        //A vuelve a leer sus propias versiones: no son cambios que deba invalidar
+        nodoA.getBean(SincronizadorCache.class).sincronizar();
+
+        assertEquals(0, MedicionSql.medir("getCitasByFecha", () -> citasA.getCitasByFecha(fecha)).getSentencias());
+    }
+
+    //cada nodo con sus propias regiones de cache sobre la BD compartida "cluster"
+    private static ConfigurableApplicationContext arrancarNodo(String nombre, String ddl) {
+        return ContextoPruebas.sinBd(nombre).bd("cluster", ddl).arrancar();
+    }
+}
@@ -0,0 +1,126 @@
+package com.felop.reservasCitas.dto;
+
+import com.felop.reservasCitas.model.EstadoCita;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/*Micro-benchmark de la serializacion de listados grandes (GET /api/v1/citas, /buscar)
+ *
+ * ejecucion: mvn -Pbenchmark test
+ *
+ * compara por lista serializada:
+ * - antes: JsonMapper por defecto (reflexion + DateTimeFormatter)
+ * - ahora: JsonMapper con SerializadoresJson.modulo(), el que usa la aplicacion
+ *
+ * antes de medir se comprueba que ambos producen exactamente el mismo JSON*/
+@Tag("benchmark")
+class SerializacionBenchmarkTests {
+
+    private static final int TAMANO_LISTA = 10_000;
+    private static final int CALENTAMIENTO = 50;
+    private static final int ITERACIONES = 200;
+
+    private final JsonMapper porDefecto = JsonMapper.builder().build();
+    private final JsonMapper conSerializadores = JsonMapper.builder()
+            .addModule(SerializadoresJson.modulo())
+            .build();
+
+    //consumidor de resultados para que el JIT no elimine el trabajo
+    private long sumidero;
+
+    @Test
+    void listadoDeCitas() {
+        List<CitaResponseDTO> citas = citas();
+        assertEquals(porDefecto.writeValueAsString(citas), conSerializadores.writeValueAsString(citas));
+
+        medir("antes (JsonMapper por defecto)", porDefecto, citas, CALENTAMIENTO);
+        medir("ahora (serializadores propios)", conSerializadores, citas, CALENTAMIENTO);
+
+        long anterior = medir("antes (JsonMapper por defecto)", porDefecto, citas, ITERACIONES);
+        long actual = medir("ahora (serializadores propios)", conSerializadores, citas, ITERACIONES);
+
+        System.out.printf("Mejora: %.1fx (sumidero %d)%n", (double) anterior / actual, sumidero);
+    }
+
+    @Test
+    void resultadosDeBusqueda() {
+        List<CitaBusquedaDTO> resultados = resultados();
+        assertEquals(porDefecto.writeValueAsString(resultados), conSerializadores.writeValueAsString(resultados));
+
+        medir("antes (JsonMapper por defecto)", porDefecto, resultados, CALENTAMIENTO);
+        medir("ahora (serializadores propios)", conSerializadores, resultados, CALENTAMIENTO);
+
+        long anterior = medir("antes (JsonMapper por defecto)", porDefecto, resultados, ITERACIONES);
+        long actual = medir("ahora (serializadores propios)", conSerializadores, resultados, ITERACIONES);
+
+        System.out.printf("Mejora: %.1fx (sumidero %d)%n", (double) anterior / actual, sumidero);
+    }
+
+    private long medir(String nombre, JsonMapper mapper, List<?> lista, int iteraciones) {
+        long inicio = System.nanoTime();
+        for (int i = 0; i < iteraciones; i++) {
+            sumidero += mapper.writeValueAsBytes(lista).length;
+        }
+        long total = System.nanoTime() - inicio;
+        if (iteraciones == ITERACIONES) {
+            System.out.printf("%-32s %8.2f ms/lista de %d%n", nombre, total / 1e6 / iteraciones, lista.size());
+        }
+        return total;
+    }
+
+    //citas de un mes, con nulls y horas con segundos para cubrir todos los caminos
+    private static List<CitaResponseDTO> citas() {
+        LocalDate inicio = LocalDate.now();
+        LocalDateTime creada = LocalDateTime.now();
+        EstadoCita[] estados = EstadoCita.values();
+        List<CitaResponseDTO> citas = new ArrayList<>(TAMANO_LISTA);
+        for (int i = 0; i < TAMANO_LISTA; i++) {
+            LocalTime hora = LocalTime.of(8 + i % 10, i % 2 == 0 ? 0 : 30, i % 7 == 0 ? 15 : 0);
+            citas.add(CitaResponseDTO.builder()
+                    .id((long) i)
+                    .nombreCliente("Cliente " + i)
+                    .email("cliente" + i + "@mail.com")
+                    .telefono(i % 5 == 0 ? null : "+34600" + (100000 + i))
+                    .fecha(inicio.plusDays(i % 30))
+                    .horaInicio(hora)
+                    .horaFin(hora.plusMinutes(30))
+                    .servicio("Consulta")
+                    .estado(estados[i % estados.length])
+                    .precio(new BigDecimal("25.00"))
+                    .notas(i % 3 == 0 ? "Primera visita, traer \"informes\"" : null)
+                    .codigoConfirmacion("APT-" + Integer.toHexString(i).toUpperCase())
+                    .duracionMinutos(30L)
+                    .createdAt(creada.minusSeconds(i))
+                    .updatedAt(i % 4 == 0 ? null : creada.minusNanos(i * 1_000L))
+                    .version(i % 9 == 0 ? null : (long) i % 3)
+                    .build());
+        }
+        return citas;
+    }
+
+    private static List<CitaBusquedaDTO> resultados() {
+        return citas().stream()
+                .map(c -> CitaBusquedaDTO.builder()
+                        .id(c.getId())
+                        .nombreCliente(c.getNombreCliente())
+                        .email(c.getEmail())
+                        .servicio(c.getServicio())
+                        .fecha(c.getFecha())
+                        .horaInicio(c.getHoraInicio())
+                        .estado(c.getEstado())
+                        .codigoConfirmacion(c.getCodigoConfirmacion())
+                        .puntuacion(c.getId().intValue() % 100)
+                        .build())
+                .toList();
+    }
+}
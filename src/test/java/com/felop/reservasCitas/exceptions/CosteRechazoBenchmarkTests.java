@@ -0,0 +1,114 @@
+package com.felop.reservasCitas.exceptions;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/*Micro-benchmark del camino de rechazo de una reserva (409)
+ *
+ * ejecucion: mvn -Pbenchmark test
+ *
+ * compara por iteracion (excepcion + respuesta de error):
+ * - antes: RuntimeException con stack trace completo y mensaje con String.format
+ * - ahora: BusinessException sin stack trace y respuesta via GlobalExceptionHandler
+ *
+ * la excepcion se lanza desde varios frames de profundidad para simular
+ * la pila real controller -> proxy -> service*/
+@Slf4j
+@Tag("benchmark")
+class CosteRechazoBenchmarkTests {
+
+    private static final int PROFUNDIDAD = 40;
+    private static final int CALENTAMIENTO = 200_000;
+    private static final int ITERACIONES = 1_000_000;
+
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+
+    //consumidor de resultados para que el JIT no elimine el trabajo
+    private long sumidero;
+
+    @Test
+    void rechazoDeReserva() {
+        medir("antes (traza + String.format)", this::rechazoAnterior, CALENTAMIENTO);
+        medir("ahora (sin traza)", this::rechazoActual, CALENTAMIENTO);
+
+        long anterior = medir("antes (traza + String.format)", this::rechazoAnterior, ITERACIONES);
+        long actual = medir("ahora (sin traza)", this::rechazoActual, ITERACIONES);
+
+        log.info("Mejora: {}x (sumidero {})", String.format("%.1f", (double) anterior / actual), sumidero);
+    }
+
+    //cada rechazo devuelve el status de la respuesta; se comprueba la suma fuera del bucle medido
+    private long medir(String nombre, Supplier<Integer> rechazo, int iteraciones) {
+        long suma = 0;
+        long inicio = System.nanoTime();
+        for (int i = 0; i < iteraciones; i++) {
+            suma += rechazo.get();
+        }
+        long total = System.nanoTime() - inicio;
+
+        assertEquals((long) HttpStatus.CONFLICT.value() * iteraciones, suma, nombre);
+        sumidero += suma;
+        if (iteraciones == ITERACIONES) {
+            log.info("{} {} ns/rechazo", String.format("%-32s", nombre), String.format("%8.1f", (double) total / iteraciones));
+        }
+        return total;
+    }
+
+    //camino previo: excepcion con traza, mensaje formateado y respuesta construida a mano
+    private int rechazoAnterior() {
+        try {
+            lanzar(PROFUNDIDAD, () -> {
+                throw new ExcepcionConTraza(String.format("El horario solicitado (%s - %s) ya esta ocupado",
+                        LocalTime.of(10, 0), LocalTime.of(10, 30)));
+            });
+        } catch (ExcepcionConTraza ex) {
+            ErrorResponse error = ErrorResponse.builder()
+                    .timestamp(LocalDateTime.now())
+                    .status(HttpStatus.CONFLICT.value())
+                    .error(HttpStatus.CONFLICT.getReasonPhrase())
+                    .mensaje(ex.getMessage())
+                    .build();
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(error).getBody().getStatus();
+        }
+        return 0;
+    }
+
+    //camino actual: el mismo que recorre CapacidadServiceImpl al no quedar plazas
+    private int rechazoActual() {
+        LocalTime horaInicio = LocalTime.of(10, 0);
+        LocalTime horaFin = LocalTime.of(10, 30);
+        try {
+            lanzar(PROFUNDIDAD, () -> {
+                throw new TimeSlotNotAvailableException(
+                        "El horario solicitado (" + horaInicio + " - " + horaFin + ") ya esta ocupado");
+            });
+        } catch (TimeSlotNotAvailableException ex) {
+            //el status del body, para que la respuesta completa forme parte del resultado
+            return handler.handleTimeSlotNotAvailable(ex).getBody().getStatus();
+        }
+        return 0;
+    }
+
+    private static void lanzar(int profundidad, Runnable accion) {
+        if (profundidad == 0) {
+            accion.run();
+            return;
+        }
+        lanzar(profundidad - 1, accion);
+    }
+
+    private static class ExcepcionConTraza extends RuntimeException {
+        ExcepcionConTraza(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.felop.reservasCitas.filtro;
+
+import com.felop.reservasCitas.dto.CitaRequestDTO;
+import com.felop.reservasCitas.dto.CitaResponseDTO;
+import com.felop.reservasCitas.dto.FiltroCitasDTO;
+import com.felop.reservasCitas.dto.PaginaCitasDTO;
+import com.felop.reservasCitas.service.CitaService;
+import com.felop.reservasCitas.soporte.ContextoPruebas;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/*Paginacion por keyset del listado filtrado (GET /api/v1/citas/filtro)
+ *
+ * el dia tiene cinco citas a las 10:00 (tres plazas y dos canceladas): con paginas
+ * pequeñas el corte cae entre citas con la misma fecha y horaInicio y solo el id desempata*/
+class PaginacionFiltroTests {
+
+    private static final LocalDate DIA = LocalDate.now().plusDays(12);
+    private static final LocalTime DIEZ = LocalTime.of(10, 0);
+
+    private static final Comparator<CitaResponseDTO> ORDEN = Comparator
+            .comparing(CitaResponseDTO::getFecha)
+            .thenComparing(CitaResponseDTO::getHoraInicio)
+            .thenComparing(CitaResponseDTO::getId);
+
+    private static ConfigurableApplicationContext contexto;
+    private static CitaService citas;
+    private static final List<Long> creadas = new ArrayList<>();
+
+    @BeforeAll
+    static void arrancar() {
+        contexto = ContextoPruebas.conBd("filtro")
+                .propiedades("reservas.capacidad.plazas=3")
+                .arrancar();
+        citas = contexto.getBean(CitaService.class);
+
+        crear(1, DIA, LocalTime.of(9, 0));
+        //las canceladas liberan la plaza y quedan a la misma hora
+        citas.cancelarCita(crear(2, DIA, DIEZ));
+        citas.cancelarCita(crear(3, DIA, DIEZ));
+        for (int cliente = 4; cliente <= 6; cliente++) {
+            crear(cliente, DIA, DIEZ);
+        }
+        crear(7, DIA, LocalTime.of(11, 0));
+        //mas temprano pero al dia siguiente: va despues aunque su hora sea menor
+        crear(8, DIA.plusDays(1), LocalTime.of(8, 0));
+    }
+
+    @AfterAll
+    static void detener() {
+        contexto.close();
+    }
+
+    @Test
+    void cortesEntreCitasALaMismaHoraNoPierdenNiRepitenCitas() {
+        for (int tamano = 1; tamano <= 4; tamano++) {
+            List<CitaResponseDTO> recorridas = recorrer(tamano);
+
+            assertEquals(creadas, recorridas.stream().map(CitaResponseDTO::getId).sorted().toList(),
+                    "paginas de " + tamano);
+            assertEquals(recorridas.stream().sorted(ORDEN).toList(), recorridas, "paginas de " + tamano);
+        }
+    }
+
+    @Test
+    void paginaQueTerminaEnLaUltimaCitaNoTieneSiguiente() {
+        PaginaCitasDTO unica = citas.getCitasFiltradas(filtro(), null, creadas.size());
+
+        assertEquals(creadas.size(), unica.getCitas().size());
+        assertNull(unica.getSiguiente());
+    }
+
+    @Test
+    void elCursorContinuaDentroDelGrupoDeLaMismaHora() {
+        //09:00 y la primera de las 10:00
+        PaginaCitasDTO primera = citas.getCitasFiltradas(filtro(), null, 2);
+        CitaResponseDTO corte = primera.getCitas().getLast();
+        assertEquals(DIEZ, corte.getHoraInicio());
+
+        PaginaCitasDTO segunda = citas.getCitasFiltradas(filtro(), primera.getSiguiente(), 4);
+        assertEquals(4, segunda.getCitas().size());
+        assertTrue(segunda.getCitas().stream()
+                .allMatch(c -> c.getHoraInicio().equals(DIEZ) && c.getId() > corte.getId()));
+    }
+
+    //todas las paginas siguiendo el cursor
+    private static List<CitaResponseDTO> recorrer(int tamano) {
+        List<CitaResponseDTO> recorridas = new ArrayList<>();
+        String cursor = null;
+        do {
+            PaginaCitasDTO pagina = citas.getCitasFiltradas(filtro(), cursor, tamano);
+            assertTrue(pagina.getCitas().size() <= tamano);
+            recorridas.addAll(pagina.getCitas());
+            cursor = pagina.getSiguiente();
+        } while (cursor != null);
+        return recorridas;
+    }
+
+    private static FiltroCitasDTO filtro() {
+        return FiltroCitasDTO.builder().desde(DIA).hasta(DIA.plusDays(1)).build();
+    }
+
+    private static Long crear(int cliente, LocalDate fecha, LocalTime inicio) {
+        CitaRequestDTO dto = ContextoPruebas.cita(fecha, inicio, inicio.plusMinutes(30))
+                .nombreCliente("Cliente " + cliente)
+                .email("cliente" + cliente + "@mail.com")
+                .build();
+        Long id = citas.createCita(dto).getId();
+        creadas.add(id);
+        return id;
+    }
+}
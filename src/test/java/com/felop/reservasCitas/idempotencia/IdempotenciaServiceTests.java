@@ -0,0 +1,128 @@
+package com.felop.reservasCitas.idempotencia;
+
+import com.felop.reservasCitas.config.SucursalProperties;
+import com.felop.reservasCitas.config.Sucursales;
+import com.felop.reservasCitas.exceptions.IdempotencyKeyReuseException;
+import com.felop.reservasCitas.service.IdempotenciaService;
+import com.felop.reservasCitas.service.IdempotenciaServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/*Idempotency-Key sin contexto de Spring
+ *
+ * la accion de cada prueba cuenta sus ejecuciones y devuelve el numero de ejecucion
+ * como body, asi se distingue una respuesta repetida de una nueva*/
+class IdempotenciaServiceTests {
+
+    private static final String CLIENTE_A = "cliente:10.0.0.1";
+    private static final String CLIENTE_B = "cliente:10.0.0.2";
+
+    private final IdempotenciaService service = new IdempotenciaServiceImpl(
+            new Sucursales(new SucursalProperties(false, "principal", Map.of()), new DefaultListableBeanFactory()),
+            1000, Duration.ofHours(1));
+
+    private final AtomicInteger ejecuciones = new AtomicInteger();
+
+    @Test
+    void reintentoConLaMismaClaveDevuelveLaRespuestaAlmacenada() {
+        ResponseEntity<Integer> primera = service.ejecutar(CLIENTE_A, "k1", "createCita", "body", this::accion);
+        ResponseEntity<Integer> repetida = service.ejecutar(CLIENTE_A, "k1", "createCita", "body", this::accion);
+
+        assertEquals(1, ejecuciones.get());
+        assertEquals(HttpStatus.CREATED, repetida.getStatusCode());
+        assertEquals(primera.getBody(), repetida.getBody());
+        assertNull(primera.getHeaders().getFirst("Idempotent-Replayed"));
+        assertEquals("true", repetida.getHeaders().getFirst("Idempotent-Replayed"));
+    }
+
+    @Test
+    void mismaClaveConOtraPeticionSeRechaza() {
+        service.ejecutar(CLIENTE_A, "k1", "createCita", "body", this::accion);
+
+        assertThrows(IdempotencyKeyReuseException.class,
+                () -> service.ejecutar(CLIENTE_A, "k1", "createCita", "otro body", this::accion));
+        assertEquals(1, ejecuciones.get());
+    }
+
+    @Test
+    void mismaClaveDeOtroLlamanteNoRecibeLaRespuestaAjena() {
+        ResponseEntity<Integer> deA = service.ejecutar(CLIENTE_A, "k1", "createCita", "body", this::accion);
+        ResponseEntity<Integer> deB = service.ejecutar(CLIENTE_B, "k1", "createCita", "body", this::accion);
+
+        assertEquals(2, ejecuciones.get());
+        assertEquals(1, deA.getBody());
+        assertEquals(2, deB.getBody());
+        assertNull(deB.getHeaders().getFirst("Idempotent-Replayed"));
+    }
+
+    @Test
+    void duplicadosConcurrentesEjecutanLaAccionUnaVez() throws Exception {
+        int peticiones = 8;
+        CountDownLatch enCurso = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+
+        List<Future<ResponseEntity<Integer>>> respuestas = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(peticiones)) {
+            //la primera peticion queda dentro de la accion hasta que lleguen los duplicados
+            respuestas.add(executor.submit(() -> service.ejecutar(CLIENTE_A, "k1", "createCita", "body", () -> {
+                enCurso.countDown();
+                esperar(liberar);
+                return accion();
+            })));
+            assertTrue(enCurso.await(5, TimeUnit.SECONDS));
+
+            for (int i = 1; i < peticiones; i++) {
+                respuestas.add(executor.submit(
+                        () -> service.ejecutar(CLIENTE_A, "k1", "createCita", "body", this::accion)));
+            }
+            liberar.countDown();
+        }
+
+        assertEquals(1, ejecuciones.get());
+        for (Future<ResponseEntity<Integer>> r : respuestas) {
+            assertEquals(1, r.get().getBody());
+        }
+    }
+
+    @Test
+    void unErrorPermiteReintentarConLaMismaClave() {
+        assertThrows(IllegalStateException.class, () -> service.ejecutar(CLIENTE_A, "k1", "createCita", "body",
+                () -> {
+                    throw new IllegalStateException("fallo");
+                }));
+
+        ResponseEntity<Integer> reintento = service.ejecutar(CLIENTE_A, "k1", "createCita", "body", this::accion);
+        assertEquals(1, reintento.getBody());
+        assertNull(reintento.getHeaders().getFirst("Idempotent-Replayed"));
+    }
+
+    private ResponseEntity<Integer> accion() {
+        return ResponseEntity.status(HttpStatus.CREATED).body(ejecuciones.incrementAndGet());
+    }
+
+    private static void esperar(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.felop.reservasCitas.service;
+
+import com.felop.reservasCitas.dto.CitaBusquedaDTO;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/*Indice de prefijos sin contexto de Spring (la clase es del paquete service)
+ *
+ * cubre los limites del rango subMap(prefijo, prefijo + MAX_VALUE) y el orden
+ * de resultados: relevancia desc, fecha desc, id desc*/
+class IndicePrefijosTests {
+
+    private static final LocalDate HOY = LocalDate.of(2026, 3, 10);
+
+    private final IndicePrefijos indice = new IndicePrefijos();
+
+    @Test
+    void prefijoSoloCoincideConTokensQueEmpiezanPorEl() {
+        indice.indexar(doc(1, "An", "Corte", "a1@mail.com", HOY));
+        indice.indexar(doc(2, "Ana", "Corte", "a2@mail.com", HOY));
+        indice.indexar(doc(3, "Anabel", "Corte", "a3@mail.com", HOY));
+        indice.indexar(doc(4, "Anb", "Corte", "a4@mail.com", HOY));
+
+        //"an" queda por debajo del rango y "anb" justo por encima; el token completo va primero
+        assertEquals(List.of(2L, 3L), ids(indice.buscar("ana", 10)));
+    }
+
+    @Test
+    void tokenCompletoPuntuaMasQueUnPrefijoYElCampoPesa() {
+        indice.indexar(doc(1, "Marta Ruiz", "Manicura", "x1@mail.com", HOY));
+        indice.indexar(doc(2, "Mar Gil", "Corte", "x2@mail.com", HOY));
+        indice.indexar(doc(3, "Luis", "Mar", "x3@mail.com", HOY));
+        indice.indexar(doc(4, "Pedro", "Corte", "mar@mail.com", HOY));
+
+        IndicePrefijos.Pagina pagina = indice.buscar("mar", 10);
+
+        //nombre completo 3*2, servicio completo 2*2, nombre prefijo 3, email completo 1*2
+        assertEquals(List.of(2L, 3L, 1L, 4L), ids(pagina));
+        assertEquals(List.of(6, 4, 3, 2),
+                pagina.resultados().stream().map(IndicePrefijos.Resultado::puntuacion).toList());
+    }
+
+    @Test
+    void empateSeOrdenaPorFechaYDespuesPorIdDescendentes() {
+        indice.indexar(doc(1, "Ana", "Corte", "a1@mail.com", HOY));
+        indice.indexar(doc(2, "Ana", "Corte", "a2@mail.com", HOY.plusDays(1)));
+        indice.indexar(doc(3, "Ana", "Corte", "a3@mail.com", HOY));
+
+        assertEquals(List.of(2L, 3L, 1L), ids(indice.buscar("ana", 10)));
+    }
+
+    @Test
+    void limiteRecortaLosResultadosPeroNoElTotal() {
+        for (int i = 1; i <= 5; i++) {
+            indice.indexar(doc(i, "Ana", "Corte", "a" + i + "@mail.com", HOY.plusDays(i)));
+        }
+
+        IndicePrefijos.Pagina dos = indice.buscar("ana", 2);
+        assertEquals(5, dos.total());
+        assertEquals(List.of(5L, 4L), ids(dos));
+
+        //un limite mayor que las coincidencias devuelve todas, ya ordenadas
+        assertEquals(List.of(5L, 4L, 3L, 2L, 1L), ids(indice.buscar("ana", 100)));
+    }
+
+    @Test
+    void variosTerminosDebenCoincidirTodosSinImportarAcentos() {
+        indice.indexar(doc(1, "José Pérez", "Corte", "jose@mail.com", HOY));
+        indice.indexar(doc(2, "José Gil", "Corte", "jgil@mail.com", HOY));
+
+        assertEquals(List.of(1L), ids(indice.buscar("JOSE per", 10)));
+        assertEquals(0, indice.buscar("jose lopez", 10).total());
+        assertEquals(0, indice.buscar("  ,; ", 10).total());
+    }
+
+    @Test
+    void reindexarYEliminarQuitanLosTokensAnteriores() {
+        indice.indexar(doc(1, "Ana", "Corte", "a1@mail.com", HOY));
+        indice.indexar(doc(1, "Berta", "Corte", "a1@mail.com", HOY));
+
+        assertTrue(indice.buscar("ana", 10).resultados().isEmpty());
+        assertEquals(List.of(1L), ids(indice.buscar("berta", 10)));
+
+        indice.eliminar(1L);
+        assertEquals(0, indice.size());
+        assertTrue(indice.buscar("berta", 10).resultados().isEmpty());
+    }
+
+    @Test
+    void indexarSiAusenteNoPisaUnaVersionMasReciente() {
+        indice.indexar(doc(1, "Berta", "Corte", "a1@mail.com", HOY));
+        indice.indexarSiAusente(doc(1, "Ana", "Corte", "a1@mail.com", HOY));
+
+        assertTrue(indice.buscar("ana", 10).resultados().isEmpty());
+        assertEquals(List.of(1L), ids(indice.buscar("berta", 10)));
+    }
+
+    private static List<Long> ids(IndicePrefijos.Pagina pagina) {
+        return pagina.resultados().stream().map(r -> r.documento().getId()).toList();
+    }
+
+    private static CitaBusquedaDTO doc(long id, String nombre, String servicio, String email, LocalDate fecha) {
+        return CitaBusquedaDTO.builder()
+                .id(id)
+                .nombreCliente(nombre)
+                .servicio(servicio)
+                .email(email)
+                .fecha(fecha)
+                .build();
+    }
+}
@@ -0,0 +1,146 @@
+package com.felop.reservasCitas.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/*Rueda temporizadora con reloj manual y sin hilo propio
+ *
+ * tick de 10 ms y 8 ranuras: una vuelta completa son 80 ms
+ * cada prueba mueve el reloj y llama a avanzar() como lo haria el hilo de la rueda*/
+class RuedaTemporizadoraTests {
+
+    private static final long MS = 1_000_000;
+
+    private final AtomicLong reloj = new AtomicLong(1_000 * MS);
+    private final List<String> expirados = new ArrayList<>();
+    private final RuedaTemporizadora<String> rueda = new RuedaTemporizadora<>(
+            Duration.ofMillis(10), 8, expirados::add, reloj::get, null);
+
+    @AfterEach
+    void cerrar() {
+        rueda.close();
+    }
+
+    @Test
+    void deadlineExactoEnElLimiteDeUnTickExpiraEnEseTick() {
+        rueda.programar("a", Duration.ofMillis(30));
+
+        avanzarHasta(30 * MS - 1);
+        assertTrue(expirados.isEmpty());
+
+        avanzarHasta(30 * MS);
+        assertEquals(List.of("a"), expirados);
+    }
+
+    @Test
+    void deadlineEntreTicksSeRedondeaAlTickSiguiente() {
+        rueda.programar("a", Duration.ofMillis(25));
+
+        //nunca antes de tiempo: ni en el tick 20 ni al llegar a 25 ms
+        avanzarHasta(25 * MS);
+        assertTrue(expirados.isEmpty());
+
+        avanzarHasta(30 * MS);
+        assertEquals(List.of("a"), expirados);
+    }
+
+    @Test
+    void unaVueltaCompletaCaeEnLaRanuraActualYEsperaLaVuelta() {
+        avanzarHasta(0);
+        rueda.programar("a", Duration.ofMillis(80));
+
+        avanzarHasta(80 * MS - 1);
+        assertTrue(expirados.isEmpty());
+
+        avanzarHasta(80 * MS);
+        assertEquals(List.of("a"), expirados);
+    }
+
+    @Test
+    void variasVueltasNoExpiranAlPasarAntesPorSuRanura() {
+        rueda.programar("a", Duration.ofMillis(170));
+
+        //la ranura de "a" pasa a los 10 y a los 90 ms con vueltas pendientes
+        for (long ms = 10; ms < 170; ms += 10) {
+            avanzarHasta(ms * MS);
+            assertTrue(expirados.isEmpty(), "expirado a los " + ms + " ms");
+        }
+
+        avanzarHasta(170 * MS);
+        assertEquals(List.of("a"), expirados);
+    }
+
+    @Test
+    void unHiloRetrasadoSePoneAlDiaEnOrden() {
+        rueda.programar("c", Duration.ofMillis(150));
+        rueda.programar("a", Duration.ofMillis(20));
+        rueda.programar("b", Duration.ofMillis(90));
+        rueda.programar("d", Duration.ofMillis(500));
+
+        //un solo avanzar() procesa todos los ticks vencidos
+        avanzarHasta(200 * MS);
+        assertEquals(List.of("a", "b", "c"), expirados);
+    }
+
+    @Test
+    void esperaNulaONegativaExpiraEnElSiguienteTick() {
+        avanzarHasta(40 * MS);
+        rueda.programar("a", Duration.ZERO);
+        rueda.programar("b", Duration.ofMillis(-50));
+
+        //el tick de los 40 ms ya se proceso: como mucho un tick tarde
+        rueda.avanzar();
+        assertTrue(expirados.isEmpty());
+
+        avanzarHasta(50 * MS);
+        assertEquals(List.of("a", "b"), expirados);
+    }
+
+    @Test
+    void cancelarEvitaLaExpiracion() {
+        RuedaTemporizadora.Temporizador<String> antes = rueda.programar("pendiente", Duration.ofMillis(20));
+        antes.cancelar();
+        avanzarHasta(10 * MS);
+
+        //cancelado ya colocado en su ranura
+        RuedaTemporizadora.Temporizador<String> colocado = rueda.programar("colocado", Duration.ofMillis(20));
+        rueda.avanzar();
+        colocado.cancelar();
+
+        avanzarHasta(200 * MS);
+        assertTrue(expirados.isEmpty());
+    }
+
+    @Test
+    void unErrorAlExpirarNoDetieneLaRueda() {
+        List<String> vistos = new ArrayList<>();
+        try (RuedaTemporizadora<String> conError = new RuedaTemporizadora<>(Duration.ofMillis(10), 8, e -> {
+            vistos.add(e);
+            if (e.equals("a")) {
+                throw new IllegalStateException("fallo");
+            }
+        }, reloj::get, null)) {
+            conError.programar("a", Duration.ofMillis(10));
+            conError.programar("b", Duration.ofMillis(10));
+            conError.programar("c", Duration.ofMillis(20));
+
+            reloj.addAndGet(20 * MS);
+            conError.avanzar();
+            assertEquals(List.of("a", "b", "c"), vistos);
+        }
+    }
+
+    //mueve el reloj a "nanos" desde la creacion de la rueda y procesa los ticks vencidos
+    private void avanzarHasta(long nanos) {
+        reloj.set(1_000 * MS + nanos);
+        rueda.avanzar();
+    }
+}
@@ -0,0 +1,107 @@
+package com.felop.reservasCitas.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/*Token bucket (GCRA) con reloj manual
+ *
+ * capacidad 5 y 1 token por segundo salvo que la prueba indique otra cosa*/
+class TokenBucketTests {
+
+    private static final long SEGUNDO = 1_000_000_000L;
+
+    private final AtomicLong reloj = new AtomicLong(42 * SEGUNDO);
+    private final TokenBucket bucket = new TokenBucket(5, 1.0, reloj::get);
+
+    @Test
+    void admiteUnaRafagaExactamenteDeLaCapacidad() {
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, bucket.tryConsume(), "peticion " + i);
+        }
+        //la siguiente espera justo un intervalo
+        assertEquals(SEGUNDO, bucket.tryConsume());
+    }
+
+    @Test
+    void recargaUnTokenPorIntervalo() {
+        vaciar();
+
+        reloj.addAndGet(SEGUNDO / 2);
+        assertEquals(SEGUNDO / 2, bucket.tryConsume());
+
+        reloj.addAndGet(SEGUNDO / 2);
+        assertEquals(0, bucket.tryConsume());
+        assertEquals(SEGUNDO, bucket.tryConsume());
+    }
+
+    @Test
+    void losRechazosNoConsumenTokens() {
+        vaciar();
+        for (int i = 0; i < 10; i++) {
+            assertTrue(bucket.tryConsume() > 0);
+        }
+
+        reloj.addAndGet(SEGUNDO);
+        assertEquals(0, bucket.tryConsume());
+    }
+
+    @Test
+    void elTiempoInactivoNoAcumulaMasQueLaCapacidad() {
+        vaciar();
+        reloj.addAndGet(3600 * SEGUNDO);
+
+        int admitidas = 0;
+        while (bucket.tryConsume() == 0) {
+            admitidas++;
+        }
+        assertEquals(5, admitidas);
+    }
+
+    @Test
+    void consumoConcurrenteNoSuperaLaCapacidad() throws Exception {
+        //reloj parado y recarga despreciable: solo cuenta la capacidad
+        TokenBucket compartido = new TokenBucket(1000, 0.001, reloj::get);
+        int hilos = 8;
+        CountDownLatch salida = new CountDownLatch(1);
+
+        List<Future<Integer>> admitidas = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(hilos)) {
+            for (int h = 0; h < hilos; h++) {
+                admitidas.add(executor.submit(() -> {
+                    salida.await(5, TimeUnit.SECONDS);
+                    int propias = 0;
+                    for (int i = 0; i < 500; i++) {
+                        if (compartido.tryConsume() == 0) {
+                            propias++;
+                        }
+                    }
+                    return propias;
+                }));
+            }
+            salida.countDown();
+        }
+
+        int total = 0;
+        for (Future<Integer> f : admitidas) {
+            total += f.get();
+        }
+        assertEquals(1000, total);
+    }
+
+    private void vaciar() {
+        while (bucket.tryConsume() == 0) {
+            //consume la rafaga inicial
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.felop.reservasCitas.soporte;
+
+import com.felop.reservasCitas.ReservasCitasApplication;
+import com.felop.reservasCitas.dto.CitaRequestDTO;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.hibernate.autoconfigure.HibernatePropertiesCustomizer;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/*Contexto completo de la aplicacion para pruebas de integracion, sobre BDs H2 en memoria (modo MySQL)
+ *
+ * fija lo comun a todas: puerto aleatorio, cache de segundo nivel propia, sin control de admision,
+ * outbox en memoria y sin sincronizacion periodica entre instancias (la invoca la prueba si la necesita)
+ * cada prueba solo agrega lo que la distingue (BD, shards, capacidad...)
+ *
+ * uso: ContextoPruebas.conBd("capacidad").propiedades("reservas.capacidad.plazas=2").arrancar()*/
+public final class ContextoPruebas {
+
+    private final String nombreCache;
+    private final List<String> propiedades = new ArrayList<>();
+
+    private ContextoPruebas(String nombreCache) {
+        this.nombreCache = nombreCache;
+        Collections.addAll(propiedades,
+                "server.port=0",
+                "reservas.admision.habilitada=false",
+                "reservas.outbox.publicador=memoria",
+                "reservas.invalidacion.intervalo=PT1H");
+    }
+
+    //contexto con su propia BD (mismo nombre que su cache), creada y borrada con el contexto
+    public static ContextoPruebas conBd(String nombre) {
+        return sinBd(nombre).bd(nombre, "create-drop");
+    }
+
+    //contexto sin spring.datasource (ej: shards por sucursal configurados por la prueba)
+    public static ContextoPruebas sinBd(String nombreCache) {
+        return new ContextoPruebas(nombreCache);
+    }
+
+    //BD H2 con nombre: varios contextos con el mismo nombre comparten la BD (ej: nodos de un cluster)
+    public ContextoPruebas bd(String nombre, String ddlAuto) {
+        return propiedades(
+                "spring.datasource.url=" + urlH2(nombre),
+                "spring.datasource.username=sa",
+                "spring.datasource.password=",
+                "spring.jpa.hibernate.ddl-auto=" + ddlAuto);
+    }
+
+    public ContextoPruebas propiedades(String... adicionales) {
+        Collections.addAll(propiedades, adicionales);
+        return this;
+    }
+
+    //como argumentos de linea de comandos: properties() solo fija valores por defecto,
+    //que application.properties sobrescribe
+    public ConfigurableApplicationContext arrancar() {
+        return new SpringApplicationBuilder(ReservasCitasApplication.class)
+                .initializers(contexto -> contexto.getBeanFactory()
+                        .registerSingleton("cacheDePrueba", cachePropia()))
+                .run(propiedades.stream().map(p -> "--" + p).toArray(String[]::new));
+    }
+
+    //el CacheManager por defecto de JCache es compartido en la JVM: cada contexto usa el suyo
+    //(con las mismas regiones de application.conf que en produccion, sin prefijos)
+    private HibernatePropertiesCustomizer cachePropia() {
+        CachingProvider provider = Caching.getCachingProvider(
+                "com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider");
+        return props -> props.put("hibernate.javax.cache.cache_manager",
+                provider.getCacheManager(URI.create("urn:reservas:" + nombreCache), provider.getDefaultClassLoader()));
+    }
+
+    //DB_CLOSE_DELAY=-1: la BD vive mientras la JVM, no solo mientras haya conexiones abiertas
+    public static String urlH2(String nombre) {
+        return "jdbc:h2:mem:" + nombre + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+    }
+
+    // ==== datos de prueba ====
+
+    //cita valida de un cliente por defecto; la prueba cambia los campos que le importan
+    public static CitaRequestDTO.CitaRequestDTOBuilder cita(LocalDate fecha, LocalTime inicio, LocalTime fin) {
+        return CitaRequestDTO.builder()
+                .nombreCliente("Ana Cliente")
+                .email("ana@mail.com")
+                .telefono("+34600123456")
+                .fecha(fecha)
+                .horaInicio(inicio)
+                .horaFin(fin)
+                .servicio("Consulta")
+                .precio(new BigDecimal("25.00"));
+    }
+
+    //cita de 30 minutos del cliente por defecto
+    public static CitaRequestDTO cita(LocalDate fecha, LocalTime inicio) {
+        return cita(fecha, inicio, inicio.plusMinutes(30)).build();
+    }
+}
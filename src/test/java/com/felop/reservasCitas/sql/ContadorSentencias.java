@@ -0,0 +1,39 @@
+package com.felop.reservasCitas.sql;
+
+import com.felop.reservasCitas.config.MedicionSql;
+
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/*Asserts sobre las sentencias SQL que ejecuta una accion (DataSourceMedido + MedicionSql)
+ *
+ * cuenta todas las sentencias del hilo durante la accion, incluidas las de listeners
+ * sincronos y de la confirmacion de la transaccion; un N+1 o una consulta de mas rompe el limite*/
+final class ContadorSentencias {
+
+    private ContadorSentencias() {
+    }
+
+    static <T> T assertMaxSentencias(int maximo, String operacion, Supplier<T> accion) {
+        Object[] resultado = new Object[1];
+        assertMaxSentencias(maximo, operacion, () -> {
+            resultado[0] = accion.get();
+        });
+        @SuppressWarnings("unchecked")
+        T valor = (T) resultado[0];
+        return valor;
+    }
+
+    static void assertMaxSentencias(int maximo, String operacion, Runnable accion) {
+        int sentencias = MedicionSql.medir(operacion, accion).getSentencias();
+        assertTrue(sentencias <= maximo,
+                () -> operacion + " ejecuto " + sentencias + " sentencias (maximo " + maximo + ")");
+    }
+
+    static void assertSentencias(int esperadas, String operacion, Runnable accion) {
+        int sentencias = MedicionSql.medir(operacion, accion).getSentencias();
+        assertEquals(esperadas, sentencias, () -> operacion + ": sentencias ejecutadas");
+    }
+}
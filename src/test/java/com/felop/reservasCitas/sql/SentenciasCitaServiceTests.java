@@ -0,0 +1,113 @@
+package com.felop.reservasCitas.sql;
+
+import com.felop.reservasCitas.dto.CitaConfirmacionDTO;
+import com.felop.reservasCitas.dto.CitaRequestDTO;
+import com.felop.reservasCitas.dto.CitaResponseDTO;
+import com.felop.reservasCitas.dto.FiltroCitasDTO;
+import com.felop.reservasCitas.dto.SerieCitaRequestDTO;
+import com.felop.reservasCitas.model.FrecuenciaSerie;
+import com.felop.reservasCitas.service.CitaService;
+import com.felop.reservasCitas.soporte.ContextoPruebas;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import static com.felop.reservasCitas.sql.ContadorSentencias.assertMaxSentencias;
+import static com.felop.reservasCitas.sql.ContadorSentencias.assertSentencias;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/*Presupuesto de sentencias SQL de cada metodo de CitaService
+ *
+ * los limites no dependen del numero de citas: un listado que pase a leer el cliente
+ * de cada cita por separado (N+1) supera el limite aunque el resultado sea correcto
+ *
+ * cada prueba usa su propia fecha para no compartir citas ni consultas cacheadas*/
+class SentenciasCitaServiceTests {
+
+    private static ConfigurableApplicationContext contexto;
+    private static CitaService citas;
+
+    @BeforeAll
+    static void arrancar() {
+        contexto = ContextoPruebas.conBd("sentencias").arrancar();
+        citas = contexto.getBean(CitaService.class);
+    }
+
+    @AfterAll
+    static void detener() {
+        contexto.close();
+    }
+
+    @Test
+    void altaYLecturaPorId() {
+        LocalDate fecha = LocalDate.now().plusDays(10);
+
+        CitaConfirmacionDTO creada = assertMaxSentencias(20, "createCita",
+                () -> citas.createCita(cita("ana@mail.com", fecha, LocalTime.of(9, 0))));
+
+        //la primera lectura llena la cache de segundo nivel (cita y cliente)
+        citas.getCitaById(creada.getId());
+        assertSentencias(0, "getCitaById (cacheada)", () -> citas.getCitaById(creada.getId()));
+        assertMaxSentencias(2, "getCitaByCodigo", () -> citas.getCitaByCodigo(creada.getCodigoConfirmacion()));
+    }
+
+    @Test
+    void listadosNoCrecenConLasCitas() {
+        LocalDate fecha = LocalDate.now().plusDays(11);
+        for (int i = 0; i < 10; i++) {
+            //un cliente distinto por cita: un N+1 sobre clientes se notaria
+            citas.createCita(cita("cliente" + i + "@mail.com", fecha, LocalTime.of(8, 0).plusMinutes(30L * i)));
+        }
+
+        assertEquals(10, assertMaxSentencias(2, "getCitasByFecha", () -> citas.getCitasByFecha(fecha)).size());
+        //desde la cache de consultas los clientes tampoco se leen uno a uno
+        assertSentencias(0, "getCitasByFecha (cacheada)", () -> citas.getCitasByFecha(fecha));
+        assertMaxSentencias(2, "getAllCitas", () -> citas.getAllCitas());
+        assertMaxSentencias(2, "getCitasByEmail", () -> citas.getCitasByEmail("cliente3@mail.com"));
+        assertMaxSentencias(2, "getCitasFiltradas", () -> citas.getCitasFiltradas(
+                FiltroCitasDTO.builder().desde(fecha).hasta(fecha).build(), null, 20));
+    }
+
+    @Test
+    void disponibilidad() {
+        LocalDate fecha = LocalDate.now().plusDays(12);
+        citas.createCita(cita("ana@mail.com", fecha, LocalTime.of(10, 0)));
+
+        assertMaxSentencias(2, "getDisponibilidad", () -> citas.getDisponibilidad(fecha));
+        //el contador de plazas del dia ya esta en memoria
+        assertMaxSentencias(1, "getDisponibilidad por duracion", () -> citas.getDisponibilidad(fecha, 90));
+    }
+
+    @Test
+    void transicionesYEdicion() {
+        LocalDate fecha = LocalDate.now().plusDays(13);
+        Long id = citas.createCita(cita("ana@mail.com", fecha, LocalTime.of(11, 0))).getId();
+
+        CitaResponseDTO confirmada = assertMaxSentencias(10, "confirmarCita", () -> citas.confirmarCita(id));
+        assertMaxSentencias(20, "updateCita", () ->
+                citas.updateCita(id, cita("ana@mail.com", fecha, LocalTime.of(12, 0)), confirmada.getVersion()));
+        assertMaxSentencias(10, "cancelarCita", () -> citas.cancelarCita(id));
+        assertMaxSentencias(10, "deleteCita", () -> citas.deleteCita(id));
+    }
+
+    @Test
+    void serieCreceComoMaximoLinealmente() {
+        LocalDate fecha = LocalDate.now().plusDays(14);
+        int repeticiones = 4;
+        SerieCitaRequestDTO serie = SerieCitaRequestDTO.builder()
+                .cita(cita("beto@mail.com", fecha, LocalTime.of(15, 0)))
+                .frecuencia(FrecuenciaSerie.SEMANAL)
+                .repeticiones(repeticiones)
+                .build();
+
+        assertMaxSentencias(12 * repeticiones, "createSerie", () -> citas.createSerie(serie));
+    }
+
+    private static CitaRequestDTO cita(String email, LocalDate fecha, LocalTime inicio) {
+        return ContextoPruebas.cita(fecha, inicio, inicio.plusMinutes(30)).email(email).build();
+    }
+}
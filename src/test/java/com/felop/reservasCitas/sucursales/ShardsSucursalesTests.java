@@ -0,0 +1,104 @@
+package com.felop.reservasCitas.sucursales;
+
+import com.felop.reservasCitas.config.SucursalContext;
+import com.felop.reservasCitas.dto.CitaConfirmacionDTO;
+import com.felop.reservasCitas.dto.CitaRequestDTO;
+import com.felop.reservasCitas.service.CitaService;
+import com.felop.reservasCitas.soporte.ContextoPruebas;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/*Una instancia de la aplicacion con dos sucursales, cada una en su propia BD embebida
+ *
+ * el servicio de citas es el mismo; solo cambia la sucursal del hilo (lo que hace el header X-Sucursal)*/
+class ShardsSucursalesTests {
+
+    private static final String NORTE = "norte";
+    private static final String SUR = "sur";
+
+    private static ConfigurableApplicationContext contexto;
+    private static CitaService citas;
+
+    @BeforeAll
+    static void arrancar() {
+        contexto = ContextoPruebas.sinBd("sucursales")
+                .propiedades(
+                        "reservas.sucursales.habilitado=true",
+                        "reservas.sucursales.por-defecto=" + NORTE,
+                        "reservas.sucursales.shards.norte.url=" + ContextoPruebas.urlH2(NORTE),
+                        "reservas.sucursales.shards.norte.username=sa",
+                        "reservas.sucursales.shards.norte.password=",
+                        "reservas.sucursales.shards.sur.url=" + ContextoPruebas.urlH2(SUR),
+                        "reservas.sucursales.shards.sur.username=sa",
+                        "reservas.sucursales.shards.sur.password=",
+                        "spring.jpa.hibernate.ddl-auto=create-drop")
+                .arrancar();
+        citas = contexto.getBean(CitaService.class);
+    }
+
+    @AfterAll
+    static void detener() {
+        contexto.close();
+    }
+
+    @Test
+    void elMismoHorarioSePuedeReservarEnCadaSucursal() {
+        LocalDate fecha = LocalDate.now().plusDays(5);
+
+        SucursalContext.ejecutar(NORTE, () -> citas.createCita(cita("Ana Norte", fecha, LocalTime.of(10, 0))));
+        SucursalContext.ejecutar(SUR, () -> citas.createCita(cita("Beto Sur", fecha, LocalTime.of(10, 0))));
+
+        assertEquals(1, SucursalContext.ejecutar(NORTE, () -> citas.getCitasByFecha(fecha)).size());
+        assertEquals(1, SucursalContext.ejecutar(SUR, () -> citas.getCitasByFecha(fecha)).size());
+    }
+
+    @Test
+    void unaCitaNoSeVeEnOtraSucursal() {
+        LocalDate fecha = LocalDate.now().plusDays(6);
+
+        SucursalContext.ejecutar(SUR, () -> citas.createCita(cita("Beto Sur", fecha, LocalTime.of(9, 0))));
+
+        assertEquals(0, SucursalContext.ejecutar(NORTE, () -> citas.getCitasByFecha(fecha)).size());
+        assertEquals(23, SucursalContext.ejecutar(SUR, () -> citas.getDisponibilidad(fecha)).getTotalDisponibles());
+        assertEquals(24, SucursalContext.ejecutar(NORTE, () -> citas.getDisponibilidad(fecha)).getTotalDisponibles());
+    }
+
+    @Test
+    void elMismoIdDevuelveLaCitaDeCadaSucursal() {
+        LocalDate fecha = LocalDate.now().plusDays(7);
+
+        //se reserva en la sucursal con menos citas hasta que ambas tengan una cita con el mismo id
+        CitaConfirmacionDTO norte = SucursalContext.ejecutar(NORTE, () ->
+                citas.createCita(cita("Ana Norte", fecha, LocalTime.of(8, 0))));
+        CitaConfirmacionDTO sur = SucursalContext.ejecutar(SUR, () ->
+                citas.createCita(cita("Beto Sur", fecha, LocalTime.of(8, 0))));
+        LocalTime hora = LocalTime.of(8, 0);
+        while (!norte.getId().equals(sur.getId())) {
+            hora = hora.plusMinutes(30);
+            LocalTime inicio = hora;
+            if (norte.getId() < sur.getId()) {
+                norte = SucursalContext.ejecutar(NORTE, () -> citas.createCita(cita("Ana Norte", fecha, inicio)));
+            } else {
+                sur = SucursalContext.ejecutar(SUR, () -> citas.createCita(cita("Beto Sur", fecha, inicio)));
+            }
+        }
+        Long id = norte.getId();
+
+        //la lectura en norte queda en la cache de segundo nivel; sur no debe recibirla
+        assertEquals("Ana Norte", SucursalContext.ejecutar(NORTE, () -> citas.getCitaById(id)).getNombreCliente());
+        assertEquals("Beto Sur", SucursalContext.ejecutar(SUR, () -> citas.getCitaById(id)).getNombreCliente());
+        assertNotEquals(norte.getCodigoConfirmacion(), sur.getCodigoConfirmacion());
+    }
+
+    private static CitaRequestDTO cita(String nombre, LocalDate fecha, LocalTime inicio) {
+        return ContextoPruebas.cita(fecha, inicio, inicio.plusMinutes(30)).nombreCliente(nombre).build();
+    }
+}